@@ -0,0 +1,245 @@
+package EduJam.AI.codec;
+
+import EduJam.AI.model.BoardModel;
+import EduJam.AI.model.BoardOp;
+import EduJam.AI.model.BoardSettings;
+import EduJam.AI.model.BoardState;
+import EduJam.AI.model.PackedPoints;
+import EduJam.AI.model.StrokeFragment;
+import EduJam.AI.model.StrokeModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of board ops and board state, used for on-disk storage.
+ *
+ * Points are written as a count, the first point and then zigzag varint deltas,
+ * so a typical freehand sample costs two bytes. Undo and redo ops only store the
+ * stroke ID and author because the stroke itself is already part of the board's history.
+ * Erases likewise store the ID and sequence number of each erased stroke and every
+ * fragment as a range of its source stroke's points.
+ *
+ * Every payload starts with a format version byte so the layout can evolve.
+ * Version 2 added the per-board simplify tolerance to the settings, version 3
+ * the author of undo and redo ops, version 4 the erase op.
+ */
+public final class BoardBinaryCodec {
+    private static final int FORMAT_VERSION = 4;
+    private static final int MIN_FORMAT_VERSION = 1;
+
+    private BoardBinaryCodec() {
+    }
+
+    public static void writeOp(BinaryWriter out, BoardOp op) {
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(op.getType().ordinal());
+        out.writeVarLong(op.getSeq());
+        out.writeVarLong(op.getTimestamp());
+        switch (op.getType()) {
+            case STROKE_ADDED:
+                writeStroke(out, op.getStroke());
+                break;
+            case STROKE_REMOVED:
+            case STROKE_RESTORED:
+                out.writeString(op.getStrokeId());
+                out.writeString(op.getStroke().getSessionId());
+                break;
+            case SETTINGS_UPDATED:
+                writeSettings(out, op.getSettings());
+                break;
+            case STROKES_ERASED:
+                out.writeVarInt(op.getErased().size());
+                for (StrokeModel erased : op.getErased()) {
+                    out.writeString(erased.getId());
+                    out.writeVarLong(erased.getSeq());
+                }
+                out.writeVarInt(op.getFragments().size());
+                for (StrokeFragment fragment : op.getFragments()) {
+                    out.writeString(fragment.getId());
+                    out.writeString(fragment.getSourceId());
+                    out.writeVarInt(fragment.getFrom());
+                    out.writeVarInt(fragment.getTo());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    public static BoardOp readOp(BinaryReader in) {
+        int version = readVersion(in);
+        BoardOp.Type[] types = BoardOp.Type.values();
+        int typeIndex = in.readByte();
+        if (typeIndex >= types.length) {
+            throw new IllegalArgumentException("Unknown op type: " + typeIndex);
+        }
+        BoardOp.Type type = types[typeIndex];
+        long seq = in.readVarLong();
+        long timestamp = in.readVarLong();
+        switch (type) {
+            case STROKE_ADDED:
+                return BoardOp.restore(type, seq, timestamp, readStroke(in), null);
+            case STROKE_REMOVED:
+            case STROKE_RESTORED:
+                StrokeModel ref = new StrokeModel();
+                ref.setId(in.readString());
+                // Before per-author undo every stroke was drawn without a session
+                ref.setSessionId(version >= 3 ? in.readString() : null);
+                return BoardOp.restore(type, seq, timestamp, ref, null);
+            case SETTINGS_UPDATED:
+                return BoardOp.restore(type, seq, timestamp, null, readSettings(in, version));
+            case STROKES_ERASED:
+                return readErase(in, seq, timestamp);
+            default:
+                return BoardOp.restore(type, seq, timestamp, null, null);
+        }
+    }
+
+    private static BoardOp readErase(BinaryReader in, long seq, long timestamp) {
+        // Every entry takes at least two bytes, which bounds bogus counts before allocating
+        int erasedCount = in.readVarInt();
+        if (erasedCount < 0 || erasedCount > in.remaining() / 2) {
+            throw new IllegalArgumentException("Invalid erased stroke count: " + erasedCount);
+        }
+        List<StrokeModel> erased = new ArrayList<>(erasedCount);
+        for (int i = 0; i < erasedCount; i++) {
+            StrokeModel ref = new StrokeModel();
+            ref.setId(in.readString());
+            ref.setSeq(in.readVarLong());
+            erased.add(ref);
+        }
+        int fragmentCount = in.readVarInt();
+        if (fragmentCount < 0 || fragmentCount > in.remaining() / 4) {
+            throw new IllegalArgumentException("Invalid fragment count: " + fragmentCount);
+        }
+        List<StrokeFragment> fragments = new ArrayList<>(fragmentCount);
+        for (int i = 0; i < fragmentCount; i++) {
+            fragments.add(new StrokeFragment(in.readString(), in.readString(), in.readVarInt(), in.readVarInt()));
+        }
+        return BoardOp.restoreErase(seq, timestamp, erased, fragments);
+    }
+
+    public static void writeState(BinaryWriter out, BoardState state) {
+        out.writeByte(FORMAT_VERSION);
+        out.writeString(state.getBoardId());
+        out.writeVarLong(state.getVersion());
+        writeSettings(out, state.getSettings());
+        writeStrokes(out, state.getVisibleStrokes());
+        writeStrokes(out, state.getRedoStrokes());
+    }
+
+    public static BoardState readState(BinaryReader in) {
+        int formatVersion = readVersion(in);
+        String boardId = in.readString();
+        long version = in.readVarLong();
+        BoardSettings settings = readSettings(in, formatVersion);
+        List<StrokeModel> visible = readStrokes(in);
+        List<StrokeModel> redo = readStrokes(in);
+        return new BoardState(boardId, version, settings, visible, redo);
+    }
+
+    public static void writeStroke(BinaryWriter out, StrokeModel stroke) {
+        out.writeString(stroke.getId());
+        out.writeString(stroke.getBoardId());
+        out.writeString(stroke.getSessionId());
+        out.writeString(stroke.getColor());
+        out.writeSignedVarInt(stroke.getThickness());
+        out.writeString(stroke.getTool());
+        out.writeVarLong(stroke.getTimestamp());
+        out.writeVarLong(stroke.getSeq());
+        writePoints(out, stroke.getPoints());
+    }
+
+    public static StrokeModel readStroke(BinaryReader in) {
+        StrokeModel stroke = new StrokeModel();
+        stroke.setId(in.readString());
+        stroke.setBoardId(in.readString());
+        stroke.setSessionId(in.readString());
+        stroke.setColor(in.readString());
+        stroke.setThickness(in.readSignedVarInt());
+        stroke.setTool(in.readString());
+        stroke.setTimestamp(in.readVarLong());
+        stroke.setSeq(in.readVarLong());
+        stroke.setPoints(readPoints(in));
+        return stroke;
+    }
+
+    public static void writePoints(BinaryWriter out, PackedPoints points) {
+        int count = points != null ? points.size() : 0;
+        out.writeVarInt(count);
+        if (count == 0) {
+            return;
+        }
+        int[] coords = points.toInterleaved();
+        out.writeSignedVarInt(coords[0]);
+        out.writeSignedVarInt(coords[1]);
+        for (int i = 2; i < coords.length; i++) {
+            out.writeSignedVarInt(coords[i] - coords[i - 2]);
+        }
+    }
+
+    public static PackedPoints readPoints(BinaryReader in) {
+        int count = in.readVarInt();
+        // Every point takes at least two bytes, which bounds bogus counts before allocating
+        if (count < 0 || count > in.remaining() / 2) {
+            throw new IllegalArgumentException("Invalid point count: " + count);
+        }
+        if (count == 0) {
+            return PackedPoints.EMPTY;
+        }
+        int[] coords = new int[count * 2];
+        coords[0] = in.readSignedVarInt();
+        coords[1] = in.readSignedVarInt();
+        for (int i = 2; i < coords.length; i++) {
+            coords[i] = coords[i - 2] + in.readSignedVarInt();
+        }
+        return PackedPoints.of(coords, count);
+    }
+
+    private static void writeSettings(BinaryWriter out, BoardSettings settings) {
+        out.writeVarInt(settings.getWidth());
+        out.writeVarInt(settings.getHeight());
+        out.writeString(settings.getBackgroundColor());
+        out.writeBoolean(settings.isShowGrid());
+        out.writeVarInt(settings.getGridSize());
+        out.writeDouble(settings.getSimplifyTolerance());
+    }
+
+    private static BoardSettings readSettings(BinaryReader in, int formatVersion) {
+        int width = in.readVarInt();
+        int height = in.readVarInt();
+        String backgroundColor = in.readString();
+        boolean showGrid = in.readBoolean();
+        int gridSize = in.readVarInt();
+        double simplifyTolerance = formatVersion >= 2 ? in.readDouble() : BoardModel.DEFAULT_SIMPLIFY_TOLERANCE;
+        return new BoardSettings(width, height, backgroundColor, showGrid, gridSize, simplifyTolerance);
+    }
+
+    private static void writeStrokes(BinaryWriter out, List<StrokeModel> strokes) {
+        out.writeVarInt(strokes.size());
+        for (StrokeModel stroke : strokes) {
+            writeStroke(out, stroke);
+        }
+    }
+
+    private static List<StrokeModel> readStrokes(BinaryReader in) {
+        int count = in.readVarInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("Invalid stroke count: " + count);
+        }
+        List<StrokeModel> strokes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strokes.add(readStroke(in));
+        }
+        return strokes;
+    }
+
+    private static int readVersion(BinaryReader in) {
+        int version = in.readByte();
+        if (version < MIN_FORMAT_VERSION || version > FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported format version: " + version);
+        }
+        return version;
+    }
+}
@@ -0,0 +1,187 @@
+package EduJam.AI.codec;
+
+import EduJam.AI.dto.BoardOpDto;
+import EduJam.AI.dto.StrokeDto;
+import EduJam.AI.dto.StrokeFragmentDto;
+import EduJam.AI.model.PackedPoints;
+
+import java.util.List;
+
+/**
+ * Binary frames for the high-volume part of the board WebSocket protocol.
+ *
+ * Clients opt in by requesting the {@link #SUBPROTOCOL} subprotocol at handshake.
+ * Drawing traffic then travels in binary frames while everything else (join,
+ * full state, settings, errors) stays JSON text on the same connection.
+ *
+ * Every frame is a type byte followed by its fields. Strings are length-prefixed
+ * UTF-8, integers are varints and points are a count, the first point and zigzag
+ * varint deltas (see {@link BoardBinaryCodec#writePoints}). Frames carry no board
+ * ID because a session is connected to one board at a time.
+ *
+ * Client to server:
+ * - STROKE, STROKE_BEGIN: strokeId, color, width, points
+ * - STROKE_POINTS, STROKE_END: strokeId, points
+ * - UNDO, REDO: no fields
+ * - ERASE: radius, points (a single point erases a dot)
+ *
+ * Server to client:
+ * - STROKE_ADDED, STROKE_RESTORED: seq, strokeId, color, width, timestamp, points
+ * - STROKE_BEGIN: strokeId, userId, color, width, points
+ * - STROKE_POINTS: strokeId, points
+ * - STROKE_END: strokeId, seq, pointCount
+ * - STROKE_REMOVED: seq, strokeId
+ * - STROKES_ERASED: seq, removed count, each removed strokeId, fragment count,
+ *   each fragment as strokeId, sourceId, from, to (a range of the source's points)
+ * - OPS: frame count, then each frame above as a varint length and its bytes
+ */
+public final class BoardFrameCodec {
+    public static final String SUBPROTOCOL = "edujam-board.bin.v1";
+
+    // Client to server
+    public static final int STROKE = 0x01;
+    public static final int STROKE_BEGIN = 0x02;
+    public static final int STROKE_POINTS = 0x03;
+    public static final int STROKE_END = 0x04;
+    public static final int UNDO = 0x05;
+    public static final int REDO = 0x06;
+    public static final int ERASE = 0x07;
+
+    // Server to client; STROKE_BEGIN, STROKE_POINTS and STROKE_END reuse the codes above
+    public static final int STROKE_ADDED = 0x11;
+    public static final int STROKE_REMOVED = 0x15;
+    public static final int STROKE_RESTORED = 0x16;
+    public static final int STROKES_ERASED = 0x17;
+    public static final int OPS = 0x20;
+
+    private BoardFrameCodec() {
+    }
+
+    /**
+     * Reads the body of a STROKE or STROKE_BEGIN frame
+     */
+    public static StrokeDto readStroke(BinaryReader in) {
+        StrokeDto stroke = new StrokeDto();
+        stroke.setId(in.readString());
+        stroke.setColor(in.readString());
+        stroke.setWidth(in.readVarInt());
+        stroke.setPoints(BoardBinaryCodec.readPoints(in));
+        stroke.setTimestamp(System.currentTimeMillis());
+        return stroke;
+    }
+
+    /**
+     * Reads the body of a STROKE_POINTS or STROKE_END frame; only the ID and points are set
+     */
+    public static StrokeDto readStrokePoints(BinaryReader in) {
+        StrokeDto stroke = new StrokeDto();
+        stroke.setId(in.readString());
+        stroke.setPoints(BoardBinaryCodec.readPoints(in));
+        return stroke;
+    }
+
+    /**
+     * Encodes a board op for binary clients
+     *
+     * @return the frame, or null for ops that are only sent as JSON
+     */
+    public static byte[] encodeOp(BoardOpDto op) {
+        BinaryWriter out;
+        switch (op.getType()) {
+            case "stroke":
+                out = new BinaryWriter(estimateSize(op.getStroke()));
+                out.writeByte(STROKE_ADDED);
+                writeStoredStroke(out, op.getSeq(), op.getStroke());
+                return out.toByteArray();
+            case "strokeRestored":
+                out = new BinaryWriter(estimateSize(op.getStroke()));
+                out.writeByte(STROKE_RESTORED);
+                writeStoredStroke(out, op.getSeq(), op.getStroke());
+                return out.toByteArray();
+            case "strokeRemoved":
+                out = new BinaryWriter(64);
+                out.writeByte(STROKE_REMOVED);
+                out.writeVarLong(op.getSeq());
+                out.writeString(op.getStrokeId());
+                return out.toByteArray();
+            case "strokesErased":
+                out = new BinaryWriter(16 + op.getRemovedStrokeIds().size() * 40 + op.getFragments().size() * 88);
+                out.writeByte(STROKES_ERASED);
+                out.writeVarLong(op.getSeq());
+                out.writeVarInt(op.getRemovedStrokeIds().size());
+                for (String strokeId : op.getRemovedStrokeIds()) {
+                    out.writeString(strokeId);
+                }
+                out.writeVarInt(op.getFragments().size());
+                for (StrokeFragmentDto fragment : op.getFragments()) {
+                    out.writeString(fragment.getId());
+                    out.writeString(fragment.getSourceId());
+                    out.writeVarInt(fragment.getFrom());
+                    out.writeVarInt(fragment.getTo());
+                }
+                return out.toByteArray();
+            default:
+                return null;
+        }
+    }
+
+    public static byte[] encodeStrokeBegin(String strokeId, String userId, String color, int width, PackedPoints points) {
+        BinaryWriter out = new BinaryWriter(96 + points.size() * 2);
+        out.writeByte(STROKE_BEGIN);
+        out.writeString(strokeId);
+        out.writeString(userId);
+        out.writeString(color);
+        out.writeVarInt(width);
+        BoardBinaryCodec.writePoints(out, points);
+        return out.toByteArray();
+    }
+
+    public static byte[] encodeStrokePoints(String strokeId, PackedPoints points) {
+        BinaryWriter out = new BinaryWriter(48 + points.size() * 2);
+        out.writeByte(STROKE_POINTS);
+        out.writeString(strokeId);
+        BoardBinaryCodec.writePoints(out, points);
+        return out.toByteArray();
+    }
+
+    public static byte[] encodeStrokeEnd(String strokeId, long seq, int pointCount) {
+        BinaryWriter out = new BinaryWriter(64);
+        out.writeByte(STROKE_END);
+        out.writeString(strokeId);
+        out.writeVarLong(seq);
+        out.writeVarInt(pointCount);
+        return out.toByteArray();
+    }
+
+    /**
+     * Wraps several server frames into one OPS frame, in order
+     */
+    public static byte[] encodeOps(List<byte[]> frames) {
+        int size = 8;
+        for (byte[] frame : frames) {
+            size += frame.length + 5;
+        }
+        BinaryWriter out = new BinaryWriter(size);
+        out.writeByte(OPS);
+        out.writeVarInt(frames.size());
+        for (byte[] frame : frames) {
+            out.writeVarInt(frame.length);
+            out.writeBytes(frame, 0, frame.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeStoredStroke(BinaryWriter out, long seq, StrokeDto stroke) {
+        out.writeVarLong(seq);
+        out.writeString(stroke.getId());
+        out.writeString(stroke.getColor());
+        out.writeVarInt(stroke.getWidth());
+        out.writeVarLong(stroke.getTimestamp());
+        BoardBinaryCodec.writePoints(out, stroke.getPoints());
+    }
+
+    private static int estimateSize(StrokeDto stroke) {
+        PackedPoints points = stroke != null ? stroke.getPoints() : null;
+        return 96 + (points != null ? points.size() * 2 : 0);
+    }
+}
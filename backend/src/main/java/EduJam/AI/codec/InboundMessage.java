@@ -0,0 +1,99 @@
+package EduJam.AI.codec;
+
+import EduJam.AI.model.PackedPoints;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * A WebSocket message decoded by {@link InboundMessageDecoder}.
+ *
+ * Subclasses hold the fields their handler needs and read them straight from the
+ * token stream in {@link #readField}. This base class knows only the type and
+ * skips every other field, so it also stands in for message types a handler
+ * does not know.
+ */
+public class InboundMessage {
+    private final String type;
+
+    public InboundMessage(String type) {
+        this.type = type;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Reads one top-level field. The parser is on the field's value and must be left
+     * on its last token; fields the message does not use are skipped with
+     * {@link JsonParser#skipChildren()}.
+     */
+    protected void readField(String name, JsonParser p) throws IOException {
+        p.skipChildren();
+    }
+
+    /**
+     * Reads a scalar as text, like JsonNode.asText(null); objects and arrays are skipped and read as null
+     */
+    protected static String readString(JsonParser p) throws IOException {
+        if (p.currentToken().isStructStart()) {
+            p.skipChildren();
+            return null;
+        }
+        return p.getValueAsString();
+    }
+
+    protected static int readInt(JsonParser p, int defaultValue) throws IOException {
+        if (p.currentToken().isStructStart()) {
+            p.skipChildren();
+            return defaultValue;
+        }
+        return p.getValueAsInt(defaultValue);
+    }
+
+    /**
+     * @return the value, or null unless it is a number
+     */
+    protected static Long readLong(JsonParser p) throws IOException {
+        if (!p.currentToken().isNumeric()) {
+            p.skipChildren();
+            return null;
+        }
+        return p.getValueAsLong();
+    }
+
+    /**
+     * @return the value, or null unless it is a number
+     */
+    protected static Double readDouble(JsonParser p) throws IOException {
+        if (!p.currentToken().isNumeric()) {
+            p.skipChildren();
+            return null;
+        }
+        return p.getValueAsDouble();
+    }
+
+    protected static boolean readBoolean(JsonParser p, boolean defaultValue) throws IOException {
+        if (p.currentToken().isStructStart()) {
+            p.skipChildren();
+            return defaultValue;
+        }
+        return p.getValueAsBoolean(defaultValue);
+    }
+
+    /**
+     * Reads a points array in either wire shape straight into packed form; null reads as no points
+     */
+    protected static PackedPoints readPoints(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return PackedPoints.EMPTY;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new IOException("Points must be an array");
+        }
+        return PackedPointsDeserializer.readPoints(p, null);
+    }
+}
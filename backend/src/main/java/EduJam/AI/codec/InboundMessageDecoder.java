@@ -0,0 +1,84 @@
+package EduJam.AI.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Streaming decoder for JSON WebSocket messages, shared by the socket handlers.
+ *
+ * The message is read in one pass over Jackson's token stream, without building a
+ * JsonNode tree or a Map. The "type" field is read first: it picks the message
+ * object the remaining fields are decoded into, so each handler gets a typed
+ * message with its fields, stroke points included, already in their final form.
+ *
+ * Clients put "type" first, and then nothing is buffered. Fields that come before
+ * it are copied into a token buffer and replayed once the type is known.
+ */
+public final class InboundMessageDecoder {
+    private final JsonFactory jsonFactory;
+
+    public InboundMessageDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * @param messageForType creates the message to decode into for a type; return a plain
+     *        {@link InboundMessage} for types the handler does not know, so their fields are skipped
+     * @throws IOException if the payload is not a JSON object with a string "type" field
+     */
+    public <M extends InboundMessage> M decode(String payload, Function<String, M> messageForType) throws IOException {
+        try (JsonParser p = jsonFactory.createParser(payload)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Message must be a JSON object");
+            }
+
+            TokenBuffer earlyFields = null;
+            String field;
+            while ((field = p.nextFieldName()) != null) {
+                JsonToken value = p.nextToken();
+                if ("type".equals(field)) {
+                    if (value != JsonToken.VALUE_STRING) {
+                        throw new IOException("Message type must be a string");
+                    }
+                    M message = messageForType.apply(p.getText());
+                    if (earlyFields != null) {
+                        earlyFields.writeEndObject();
+                        try (JsonParser replay = earlyFields.asParser()) {
+                            replay.nextToken();
+                            readFields(replay, message);
+                        }
+                    }
+                    readFields(p, message);
+                    return message;
+                }
+                if (earlyFields == null) {
+                    earlyFields = new TokenBuffer(p);
+                    earlyFields.writeStartObject();
+                }
+                earlyFields.writeFieldName(field);
+                earlyFields.copyCurrentStructure(p);
+            }
+            throw new IOException("Message type is required");
+        }
+    }
+
+    /**
+     * Reads the remaining fields of the current object into the message
+     */
+    private static void readFields(JsonParser p, InboundMessage message) throws IOException {
+        String field;
+        while ((field = p.nextFieldName()) != null) {
+            JsonToken value = p.nextToken();
+            if (value == null) {
+                throw new IOException("Unexpected end of message");
+            }
+            message.readField(field, p);
+        }
+    }
+}
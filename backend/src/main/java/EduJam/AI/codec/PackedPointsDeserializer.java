@@ -0,0 +1,89 @@
+package EduJam.AI.codec;
+
+import EduJam.AI.model.PackedPoints;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads stroke points straight from the token stream into a {@link PackedPoints}
+ * without building intermediate maps or boxed integers.
+ *
+ * Two wire shapes are accepted:
+ * - the original object form: [{"x":10,"y":20},{"x":30,"y":40}]
+ * - a flat form for newer clients: [10,20,30,40]
+ */
+public class PackedPointsDeserializer extends StdDeserializer<PackedPoints> {
+
+    public PackedPointsDeserializer() {
+        super(PackedPoints.class);
+    }
+
+    @Override
+    public PackedPoints deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartArrayToken()) {
+            return (PackedPoints) ctxt.handleUnexpectedToken(PackedPoints.class, p);
+        }
+        return readPoints(p, ctxt);
+    }
+
+    @Override
+    public PackedPoints getNullValue(DeserializationContext ctxt) {
+        return PackedPoints.EMPTY;
+    }
+
+    /**
+     * Reads a points array. The parser must be positioned on START_ARRAY and is
+     * left on the matching END_ARRAY.
+     */
+    static PackedPoints readPoints(JsonParser p, DeserializationContext ctxt) throws IOException {
+        PackedPoints.Builder builder = new PackedPoints.Builder();
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+                readPointObject(p, builder);
+            } else if (token != null && token.isNumeric()) {
+                int x = readCoordinate(p);
+                JsonToken next = p.nextToken();
+                if (next == null || !next.isNumeric()) {
+                    throw new IOException("Flat point arrays must contain an even number of coordinates");
+                }
+                builder.add(x, readCoordinate(p));
+            } else if (token == null) {
+                throw new IOException("Unexpected end of input while reading points");
+            } else {
+                throw new IOException("Unexpected token in points array: " + token);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void readPointObject(JsonParser p, PackedPoints.Builder builder) throws IOException {
+        int x = 0;
+        int y = 0;
+        String field;
+        while ((field = p.nextFieldName()) != null) {
+            JsonToken value = p.nextToken();
+            if ("x".equals(field) && value.isNumeric()) {
+                x = readCoordinate(p);
+            } else if ("y".equals(field) && value.isNumeric()) {
+                y = readCoordinate(p);
+            } else {
+                // Ignore extra per-point fields such as pressure
+                p.skipChildren();
+            }
+        }
+        builder.add(x, y);
+    }
+
+    private static int readCoordinate(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return p.getIntValue();
+        }
+        // Canvas coordinates from browsers are often fractional
+        return (int) Math.round(p.getDoubleValue());
+    }
+}
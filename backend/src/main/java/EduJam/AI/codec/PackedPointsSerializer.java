@@ -0,0 +1,32 @@
+package EduJam.AI.codec;
+
+import EduJam.AI.model.PackedPoints;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes packed points in the original wire shape, [{"x":10,"y":20}, ...],
+ * so existing clients keep working without knowing about the packed form.
+ */
+public class PackedPointsSerializer extends StdSerializer<PackedPoints> {
+
+    public PackedPointsSerializer() {
+        super(PackedPoints.class);
+    }
+
+    @Override
+    public void serialize(PackedPoints points, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int[] coords = points.toInterleaved();
+        gen.writeStartArray(points, points.size());
+        for (int i = 0; i < coords.length; i += 2) {
+            gen.writeStartObject();
+            gen.writeNumberField("x", coords[i]);
+            gen.writeNumberField("y", coords[i + 1]);
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+}
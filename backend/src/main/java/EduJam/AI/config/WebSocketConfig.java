@@ -1,5 +1,6 @@
 package EduJam.AI.config;
 
+import EduJam.AI.codec.BoardFrameCodec;
 import EduJam.AI.handler.BoardSocketHandler;
 import EduJam.AI.handler.ChatSocketHandler;
 import EduJam.AI.handler.StudyGroupSocketHandler;
@@ -39,9 +40,14 @@ public class WebSocketConfig implements WebSocketConfigurer {
         // Create a default handshake handler
         DefaultHandshakeHandler handshakeHandler = new DefaultHandshakeHandler(new TomcatRequestUpgradeStrategy());
         
+        // The board endpoint can negotiate the binary drawing subprotocol; clients that
+        // do not ask for it keep using plain JSON
+        DefaultHandshakeHandler boardHandshakeHandler = new DefaultHandshakeHandler(new TomcatRequestUpgradeStrategy());
+        boardHandshakeHandler.setSupportedProtocols(BoardFrameCodec.SUBPROTOCOL);
+        
         // Register board handler with appropriate CORS settings
         registry.addHandler(boardSocketHandler, "/ws/board")
-                .setHandshakeHandler(handshakeHandler)
+                .setHandshakeHandler(boardHandshakeHandler)
                 .addInterceptors(authInterceptor)
                 .setAllowedOrigins("*");
         log.info("Registered board WebSocket handler at /ws/board");
@@ -70,7 +70,7 @@ public class StudyGroupController {
     /**
      * Creates a new study group
      *
-     * @param request the request containing name and subject
+     * @param request the request containing name and subject, and optionally the templateBoardId to copy
      * @param authorization the Firebase ID token in the Authorization header
      * @return the created study group
      */
@@ -79,6 +79,7 @@ public class StudyGroupController {
                                            @RequestHeader("Authorization") String authorization) {
         String name = request.get("name");
         String subject = request.get("subject");
+        String templateBoardId = request.get("templateBoardId");
         
         if (name == null || subject == null) {
             return ResponseEntity.badRequest().body(Map.of("error", "Name and subject are required"));
@@ -95,8 +96,10 @@ public class StudyGroupController {
             String token = firebaseAuthService.extractTokenFromHeader(authorization);
             String userId = firebaseAuthService.getUserIdFromToken(token);
             
-            StudyGroupDto group = studyGroupService.createStudyGroup(name, subject, userId);
+            StudyGroupDto group = studyGroupService.createStudyGroup(name, subject, userId, templateBoardId);
             return ResponseEntity.status(HttpStatus.CREATED).body(group);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (FirebaseAuthException e) {
             log.error("Authentication error", e);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
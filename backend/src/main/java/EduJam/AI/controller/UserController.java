@@ -1,11 +1,24 @@
 package EduJam.AI.controller;
 
+import EduJam.AI.dto.BoardMetadataDto;
+import EduJam.AI.dto.BoardReplayDto;
+import EduJam.AI.dto.BoardStrokePageDto;
 import EduJam.AI.model.BoardModel;
-import EduJam.AI.dto.BoardDto;
+import EduJam.AI.service.BoardExport;
+import EduJam.AI.service.BoardImage;
+import EduJam.AI.service.BoardMetrics;
 import EduJam.AI.service.BoardService;
+import EduJam.AI.service.BoardSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Map;
 
@@ -18,10 +31,12 @@ import java.util.Map;
 public class UserController {
 
     private final BoardService boardService;
+    private final BoardMetrics boardMetrics;
 
     @Autowired
-    public UserController(BoardService boardService) {
+    public UserController(BoardService boardService, BoardMetrics boardMetrics) {
         this.boardService = boardService;
+        this.boardMetrics = boardMetrics;
     }
 
     /**
@@ -42,18 +57,176 @@ public class UserController {
         return ResponseEntity.ok(board);
     }
 
+    /**
+     * Creates a new board that starts out as a copy of an existing one, e.g. a template.
+     * @param boardId The ID of the board to copy
+     * @return The created board model, or 404 if the board to copy does not exist
+     */
+    @PostMapping("/boards/{boardId}/clone")
+    public ResponseEntity<BoardModel> cloneBoard(@PathVariable String boardId) {
+        BoardModel board = boardService.cloneBoard(boardId);
+        if (board == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(board);
+    }
+
     /**
      * Retrieves a board by ID.
+     * Without paging parameters the body is the cached serialized snapshot for the board's
+     * current version. With afterSeq or limit it is one page of the visible strokes drawn
+     * after afterSeq; page on with afterSeq set to the lastSeq of the previous page.
+     * The ETag is the board version, so revalidating an unchanged board costs no serialization.
      * @param boardId The ID of the board to retrieve
-     * @return The board if found
+     * @param afterSeq Seq of the last stroke already read, or 0 to start from the beginning
+     * @param limit Most strokes in the page
+     * @return The board JSON or stroke page, 304 if the client's copy is current, or 404 if not found
      */
     @GetMapping("/boards/{boardId}")
-    public ResponseEntity<BoardDto> getBoard(@PathVariable String boardId) {
-        BoardDto board = boardService.getBoardById(boardId);
+    public ResponseEntity<?> getBoard(@PathVariable String boardId,
+                                      @RequestParam(required = false) Long afterSeq,
+                                      @RequestParam(required = false) Integer limit,
+                                      WebRequest request) {
+        ResponseEntity<?> notModified = checkNotModified(boardId, request);
+        if (notModified != null) {
+            return notModified;
+        }
+        if (afterSeq != null || limit != null) {
+            BoardStrokePageDto page = boardService.getStrokePage(boardId, afterSeq != null ? afterSeq : 0, limit);
+            if (page == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(versionTag(page.getVersion()))
+                    .body(page);
+        }
+        BoardSnapshot board = boardService.getBoardSnapshot(boardId);
         if (board == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(board);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(versionTag(board.getVersion()))
+                .body(board.getJson());
+    }
+
+    /**
+     * Retrieves a board's settings, version and stroke count without its strokes.
+     * @param boardId The ID of the board
+     * @return The metadata, 304 if the client's copy is current, or 404 if not found
+     */
+    @GetMapping("/boards/{boardId}/meta")
+    public ResponseEntity<?> getBoardMetadata(@PathVariable String boardId, WebRequest request) {
+        ResponseEntity<?> notModified = checkNotModified(boardId, request);
+        if (notModified != null) {
+            return notModified;
+        }
+        BoardMetadataDto metadata = boardService.getBoardMetadata(boardId);
+        if (metadata == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(versionTag(metadata.getVersion()))
+                .body(metadata);
+    }
+
+    /**
+     * Retrieves a rendered PNG tile of a board.
+     * Tiles are squares of app.board.tiles.size pixels at full scale, counted from the top-left corner.
+     * The ETag changes only when the tile itself changes, so clients can revalidate cheaply.
+     * @param boardId The ID of the board
+     * @param x The tile column
+     * @param y The tile row
+     * @return The PNG, or 304 if the client's copy is current
+     */
+    @GetMapping("/boards/{boardId}/tiles/{x}/{y}")
+    public ResponseEntity<byte[]> getBoardTile(@PathVariable String boardId, @PathVariable int x, @PathVariable int y,
+                                               WebRequest request) {
+        return imageResponse(boardService.getBoardTile(boardId, x, y), request);
+    }
+
+    /**
+     * Retrieves a rendered PNG thumbnail of a whole board.
+     * @param boardId The ID of the board
+     * @return The PNG, or 304 if the client's copy is current
+     */
+    @GetMapping("/boards/{boardId}/thumbnail")
+    public ResponseEntity<byte[]> getBoardThumbnail(@PathVariable String boardId, WebRequest request) {
+        return imageResponse(boardService.getBoardThumbnail(boardId), request);
+    }
+
+    /**
+     * Downloads a board as a PNG, SVG or PDF file.
+     * The file is streamed as it is rendered; unchanged boards are served from the export cache.
+     * @param boardId The ID of the board to export
+     * @param format png, svg or pdf
+     * @return The file, or 304 if the client's copy is current
+     */
+    @GetMapping("/boards/{boardId}/export/{format}")
+    public ResponseEntity<StreamingResponseBody> exportBoard(@PathVariable String boardId, @PathVariable String format,
+                                                             WebRequest request) {
+        BoardExport.Format exportFormat = BoardExport.Format.fromExtension(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        BoardExport export = boardService.exportBoard(boardId, exportFormat);
+        if (export == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "\"" + export.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("board-" + boardId + "." + exportFormat.getExtension())
+                .build();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .eTag(etag);
+        if (export.getContentLength() >= 0) {
+            response.contentLength(export.getContentLength());
+        }
+        return response.body(export::writeTo);
+    }
+
+    /**
+     * Replays a board's history one page at a time.
+     * Seek with from to get the board as it was at that moment plus the ops that followed;
+     * page on with afterSeq set to the lastSeq of the previous page.
+     * @param boardId The ID of the board
+     * @param from Epoch millis to seek to
+     * @param afterSeq Last seq already applied, when continuing instead of seeking
+     * @param limit Most ops in the page
+     * @return The page, 400 if neither from nor afterSeq is usable, or 404 if the board has no history
+     */
+    @GetMapping("/boards/{boardId}/replay")
+    public ResponseEntity<?> replayBoard(@PathVariable String boardId,
+                                         @RequestParam(required = false) Long from,
+                                         @RequestParam(required = false) Long afterSeq,
+                                         @RequestParam(required = false) Integer limit) {
+        BoardReplayDto replay;
+        try {
+            replay = boardService.replay(boardId, from, afterSeq, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (replay == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(replay);
+    }
+
+    /**
+     * Returns the current whiteboard counters and gauges.
+     * @return A map of metric names to values
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Long>> getMetrics() {
+        return ResponseEntity.ok(boardMetrics.snapshot());
     }
 
     /**
@@ -62,12 +235,54 @@ public class UserController {
      */
     @GetMapping("/info")
     public ResponseEntity<Map<String, String>> getInfo() {
-        Map<String, String> info = Map.of(
-            "createBoard", "POST /api/boards",
-            "getBoard", "GET /api/boards/{boardId}",
-            "webSocketBoard", "WebSocket /ws/board",
-            "webSocketChat", "WebSocket /ws/chat"
+        Map<String, String> info = Map.ofEntries(
+            Map.entry("createBoard", "POST /api/boards"),
+            Map.entry("cloneBoard", "POST /api/boards/{boardId}/clone"),
+            Map.entry("getBoard", "GET /api/boards/{boardId}[?afterSeq={seq}&limit={n}]"),
+            Map.entry("getBoardMetadata", "GET /api/boards/{boardId}/meta"),
+            Map.entry("getBoardTile", "GET /api/boards/{boardId}/tiles/{x}/{y}"),
+            Map.entry("getBoardThumbnail", "GET /api/boards/{boardId}/thumbnail"),
+            Map.entry("exportBoard", "GET /api/boards/{boardId}/export/{png|svg|pdf}"),
+            Map.entry("replayBoard", "GET /api/boards/{boardId}/replay?from={epochMillis}|afterSeq={seq}&limit={n}"),
+            Map.entry("metrics", "GET /api/metrics"),
+            Map.entry("webSocketBoard", "WebSocket /ws/board"),
+            Map.entry("webSocketChat", "WebSocket /ws/chat")
         );
         return ResponseEntity.ok(info);
     }
+
+    /**
+     * Answers a conditional board read from the board's version alone
+     * @return 404 or 304 to send as is, or null to build the full response
+     */
+    private ResponseEntity<?> checkNotModified(String boardId, WebRequest request) {
+        Long version = boardService.getBoardVersion(boardId);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = versionTag(version);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return null;
+    }
+
+    private static String versionTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    private static ResponseEntity<byte[]> imageResponse(BoardImage image, WebRequest request) {
+        if (image == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "\"" + image.getContentVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(image.getPng());
+    }
 }
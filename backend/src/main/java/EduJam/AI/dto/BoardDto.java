@@ -14,6 +14,8 @@ public class BoardDto {
     private String backgroundColor;
     private boolean showGrid;
     private int gridSize;
+    private double simplifyTolerance;
+    private long version;
 
     // Default constructor
     public BoardDto() {
@@ -75,4 +77,20 @@ public class BoardDto {
     public void setGridSize(int gridSize) {
         this.gridSize = gridSize;
     }
-} 
\ No newline at end of file
+
+    public double getSimplifyTolerance() {
+        return simplifyTolerance;
+    }
+
+    public void setSimplifyTolerance(double simplifyTolerance) {
+        this.simplifyTolerance = simplifyTolerance;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,97 @@
+package EduJam.AI.dto;
+
+/**
+ * Data Transfer Object for a board's settings, version and size without its
+ * strokes, for clients that only need to know whether and how a board changed.
+ */
+public class BoardMetadataDto {
+    private String id;
+    private long version;
+    private int strokeCount;
+    private int width;
+    private int height;
+    private String backgroundColor;
+    private boolean showGrid;
+    private int gridSize;
+    private double simplifyTolerance;
+
+    // Default constructor
+    public BoardMetadataDto() {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Number of visible strokes
+     */
+    public int getStrokeCount() {
+        return strokeCount;
+    }
+
+    public void setStrokeCount(int strokeCount) {
+        this.strokeCount = strokeCount;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public String getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    public void setBackgroundColor(String backgroundColor) {
+        this.backgroundColor = backgroundColor;
+    }
+
+    public boolean isShowGrid() {
+        return showGrid;
+    }
+
+    public void setShowGrid(boolean showGrid) {
+        this.showGrid = showGrid;
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public void setGridSize(int gridSize) {
+        this.gridSize = gridSize;
+    }
+
+    public double getSimplifyTolerance() {
+        return simplifyTolerance;
+    }
+
+    public void setSimplifyTolerance(double simplifyTolerance) {
+        this.simplifyTolerance = simplifyTolerance;
+    }
+}
@@ -0,0 +1,109 @@
+package EduJam.AI.dto;
+
+import EduJam.AI.model.BoardSettings;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for a single board mutation, broadcast to clients
+ * as a small delta instead of the full board state.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BoardOpDto {
+    private String type;
+    private String boardId;
+    private long seq;
+    private String strokeId;
+    private StrokeDto stroke;
+    private BoardSettings settings;
+    private List<String> removedStrokeIds;
+    private List<StrokeFragmentDto> fragments;
+    private Long timestamp;
+
+    // Default constructor
+    public BoardOpDto() {
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getBoardId() {
+        return boardId;
+    }
+
+    public void setBoardId(String boardId) {
+        this.boardId = boardId;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public String getStrokeId() {
+        return strokeId;
+    }
+
+    public void setStrokeId(String strokeId) {
+        this.strokeId = strokeId;
+    }
+
+    public StrokeDto getStroke() {
+        return stroke;
+    }
+
+    public void setStroke(StrokeDto stroke) {
+        this.stroke = stroke;
+    }
+
+    public BoardSettings getSettings() {
+        return settings;
+    }
+
+    public void setSettings(BoardSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * IDs of the strokes an erase removed, otherwise null
+     */
+    public List<String> getRemovedStrokeIds() {
+        return removedStrokeIds;
+    }
+
+    public void setRemovedStrokeIds(List<String> removedStrokeIds) {
+        this.removedStrokeIds = removedStrokeIds;
+    }
+
+    /**
+     * What an erase left of the strokes it cut, otherwise null
+     */
+    public List<StrokeFragmentDto> getFragments() {
+        return fragments;
+    }
+
+    public void setFragments(List<StrokeFragmentDto> fragments) {
+        this.fragments = fragments;
+    }
+
+    /**
+     * When the op was applied, in epoch millis; only sent with replayed history
+     */
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,83 @@
+package EduJam.AI.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a board's history, used to replay how
+ * a board evolved. After a seek the page starts with the board's state at that
+ * moment; later pages only hold the ops that follow.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BoardReplayDto {
+    private String boardId;
+    private BoardDto board;
+    private long fromSeq;
+    private List<BoardOpDto> ops;
+    private long lastSeq;
+    private boolean hasMore;
+
+    // Default constructor
+    public BoardReplayDto() {
+    }
+
+    // Getters and Setters
+    public String getBoardId() {
+        return boardId;
+    }
+
+    public void setBoardId(String boardId) {
+        this.boardId = boardId;
+    }
+
+    /**
+     * The board at fromSeq, which the client replaces its replay state with;
+     * null when the page carries on from the previous one
+     */
+    public BoardDto getBoard() {
+        return board;
+    }
+
+    public void setBoard(BoardDto board) {
+        this.board = board;
+    }
+
+    /**
+     * Seq the ops follow
+     */
+    public long getFromSeq() {
+        return fromSeq;
+    }
+
+    public void setFromSeq(long fromSeq) {
+        this.fromSeq = fromSeq;
+    }
+
+    public List<BoardOpDto> getOps() {
+        return ops;
+    }
+
+    public void setOps(List<BoardOpDto> ops) {
+        this.ops = ops;
+    }
+
+    /**
+     * Seq of the last op in the page, to pass as afterSeq for the next one
+     */
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
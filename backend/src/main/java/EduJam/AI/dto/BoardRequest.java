@@ -0,0 +1,363 @@
+package EduJam.AI.dto;
+
+import EduJam.AI.codec.InboundMessage;
+import EduJam.AI.model.PackedPoints;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * A JSON message received on the board WebSocket, decoded in a single streaming pass.
+ * Holds the fields of every board message type; each handler reads the ones it uses.
+ */
+public class BoardRequest extends InboundMessage {
+    private String boardId;
+    private String strokeId;
+    private String color;
+    private Integer width;
+    private PackedPoints points = PackedPoints.EMPTY;
+    private StrokeDto stroke;
+    private Long lastSeq;
+    private boolean chunked;
+    private Long from;
+    private Long afterSeq;
+    private Integer limit;
+    private Integer x;
+    private Integer y;
+    private Integer radius;
+    private Viewport viewport;
+    private Settings settings;
+
+    public BoardRequest(String type) {
+        super(type);
+    }
+
+    @Override
+    protected void readField(String name, JsonParser p) throws IOException {
+        switch (name) {
+            case "boardId":
+                boardId = readString(p);
+                break;
+            case "strokeId":
+                strokeId = readString(p);
+                break;
+            case "color":
+                color = readString(p);
+                break;
+            case "width":
+                width = readInt(p, 1);
+                break;
+            case "points":
+                points = readPoints(p);
+                break;
+            case "stroke":
+                stroke = readStroke(p);
+                break;
+            case "lastSeq":
+                lastSeq = readLong(p);
+                break;
+            case "chunked":
+                chunked = readBoolean(p, false);
+                break;
+            case "from":
+                from = readLong(p);
+                break;
+            case "afterSeq":
+                afterSeq = readLong(p);
+                break;
+            case "limit":
+                limit = readOptionalInt(p);
+                break;
+            case "x":
+                x = readOptionalInt(p);
+                break;
+            case "y":
+                y = readOptionalInt(p);
+                break;
+            case "radius":
+                radius = readOptionalInt(p);
+                break;
+            case "viewport":
+                viewport = readViewport(p);
+                break;
+            case "settings":
+                settings = readSettings(p);
+                break;
+            default:
+                p.skipChildren();
+        }
+    }
+
+    /**
+     * @return the value, or null unless it is a number
+     */
+    private static Integer readOptionalInt(JsonParser p) throws IOException {
+        if (!p.currentToken().isNumeric()) {
+            p.skipChildren();
+            return null;
+        }
+        return p.getValueAsInt();
+    }
+
+    private static StrokeDto readStroke(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        StrokeDto stroke = new StrokeDto();
+        String field;
+        while ((field = p.nextFieldName()) != null) {
+            p.nextToken();
+            switch (field) {
+                case "id":
+                    stroke.setId(readString(p));
+                    break;
+                case "boardId":
+                    stroke.setBoardId(readString(p));
+                    break;
+                case "points":
+                    stroke.setPoints(readPoints(p));
+                    break;
+                case "color":
+                    stroke.setColor(readString(p));
+                    break;
+                case "width":
+                    stroke.setWidth(readInt(p, 0));
+                    break;
+                case "timestamp":
+                    Long timestamp = readLong(p);
+                    if (timestamp != null) {
+                        stroke.setTimestamp(timestamp);
+                    }
+                    break;
+                default:
+                    // seq is assigned by the server, and clients may send extra fields
+                    p.skipChildren();
+            }
+        }
+        return stroke;
+    }
+
+    private static Viewport readViewport(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        Viewport viewport = new Viewport();
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            // Read like a viewport without coordinates, which is then rejected as empty
+            p.skipChildren();
+            return viewport;
+        }
+        String field;
+        while ((field = p.nextFieldName()) != null) {
+            p.nextToken();
+            switch (field) {
+                case "x":
+                    viewport.x = readInt(p, 0);
+                    break;
+                case "y":
+                    viewport.y = readInt(p, 0);
+                    break;
+                case "width":
+                    viewport.width = readInt(p, 0);
+                    break;
+                case "height":
+                    viewport.height = readInt(p, 0);
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+        return viewport;
+    }
+
+    private static Settings readSettings(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        Settings settings = new Settings();
+        String field;
+        while ((field = p.nextFieldName()) != null) {
+            p.nextToken();
+            switch (field) {
+                case "width":
+                    settings.width = readInt(p, 0);
+                    break;
+                case "height":
+                    settings.height = readInt(p, 0);
+                    break;
+                case "backgroundColor":
+                    settings.backgroundColor = readString(p);
+                    break;
+                case "showGrid":
+                    settings.showGrid = readBoolean(p, false);
+                    break;
+                case "gridSize":
+                    settings.gridSize = readInt(p, 0);
+                    break;
+                case "simplifyTolerance":
+                    settings.simplifyTolerance = readDouble(p);
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+        return settings;
+    }
+
+    public String getBoardId() {
+        return boardId;
+    }
+
+    public String getStrokeId() {
+        return strokeId;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    /**
+     * Stroke width for strokeBegin, or null if not sent
+     */
+    public Integer getWidth() {
+        return width;
+    }
+
+    public PackedPoints getPoints() {
+        return points;
+    }
+
+    public StrokeDto getStroke() {
+        return stroke;
+    }
+
+    /**
+     * Last seq the client has seen, or null if it did not send a number
+     */
+    public Long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Whether a joining client wants large board state sent in pages
+     */
+    public boolean isChunked() {
+        return chunked;
+    }
+
+    /**
+     * Epoch millis a replay seeks to, or null if not sent
+     */
+    public Long getFrom() {
+        return from;
+    }
+
+    /**
+     * Last seq a replaying client has applied, or null if not sent
+     */
+    public Long getAfterSeq() {
+        return afterSeq;
+    }
+
+    /**
+     * Most ops in a replay page, or null if not sent
+     */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * Cursor x for presence updates and eraseAt, or null if not sent
+     */
+    public Integer getX() {
+        return x;
+    }
+
+    /**
+     * Cursor y for presence updates and eraseAt, or null if not sent
+     */
+    public Integer getY() {
+        return y;
+    }
+
+    /**
+     * Eraser radius for eraseAt and erasePath, or null if not sent
+     */
+    public Integer getRadius() {
+        return radius;
+    }
+
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * A client viewport of the form {"x":0,"y":0,"width":800,"height":600};
+     * serializes back to the same shape when echoed in replies
+     */
+    public static class Viewport {
+        private int x;
+        private int y;
+        private int width;
+        private int height;
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    /**
+     * Settings sent with updateBoardSettings; fields the client left out are null
+     */
+    public static class Settings {
+        private Integer width;
+        private Integer height;
+        private String backgroundColor;
+        private Boolean showGrid;
+        private Integer gridSize;
+        private Double simplifyTolerance;
+
+        public Integer getWidth() {
+            return width;
+        }
+
+        public Integer getHeight() {
+            return height;
+        }
+
+        public String getBackgroundColor() {
+            return backgroundColor;
+        }
+
+        public Boolean getShowGrid() {
+            return showGrid;
+        }
+
+        public Integer getGridSize() {
+            return gridSize;
+        }
+
+        public Double getSimplifyTolerance() {
+            return simplifyTolerance;
+        }
+    }
+}
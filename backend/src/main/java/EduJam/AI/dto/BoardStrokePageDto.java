@@ -0,0 +1,67 @@
+package EduJam.AI.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a board's strokes, used to read large
+ * boards over REST in parts. Strokes come in drawing order.
+ */
+public class BoardStrokePageDto {
+    private String boardId;
+    private long version;
+    private List<StrokeDto> strokes;
+    private long lastSeq;
+    private boolean hasMore;
+
+    // Default constructor
+    public BoardStrokePageDto() {
+    }
+
+    // Getters and Setters
+    public String getBoardId() {
+        return boardId;
+    }
+
+    public void setBoardId(String boardId) {
+        this.boardId = boardId;
+    }
+
+    /**
+     * Board version the page was read at
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public List<StrokeDto> getStrokes() {
+        return strokes;
+    }
+
+    public void setStrokes(List<StrokeDto> strokes) {
+        this.strokes = strokes;
+    }
+
+    /**
+     * Seq of the last stroke in the page, to pass as afterSeq for the next one;
+     * the requested afterSeq when the page is empty
+     */
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
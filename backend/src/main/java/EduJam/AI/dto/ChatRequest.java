@@ -0,0 +1,83 @@
+package EduJam.AI.dto;
+
+import EduJam.AI.codec.InboundMessage;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * A JSON message received on the chat WebSocket, decoded in a single streaming pass
+ */
+public class ChatRequest extends InboundMessage {
+    private String sessionId;
+    private String username;
+    private String message;
+    private String fileId;
+    private String fileName;
+    private String mimeType;
+    private Long fileSize;
+
+    public ChatRequest(String type) {
+        super(type);
+    }
+
+    @Override
+    protected void readField(String field, JsonParser p) throws IOException {
+        switch (field) {
+            case "sessionId":
+                sessionId = readString(p);
+                break;
+            case "username":
+                username = readString(p);
+                break;
+            case "message":
+                message = readString(p);
+                break;
+            case "fileId":
+                fileId = readString(p);
+                break;
+            case "fileName":
+                fileName = readString(p);
+                break;
+            case "mimeType":
+                mimeType = readString(p);
+                break;
+            case "fileSize":
+                fileSize = readLong(p);
+                break;
+            default:
+                p.skipChildren();
+        }
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getFileId() {
+        return fileId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Size of the upload in bytes, or null if the client did not send a number
+     */
+    public Long getFileSize() {
+        return fileSize;
+    }
+}
@@ -1,8 +1,6 @@
 package EduJam.AI.dto;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import EduJam.AI.model.PackedPoints;
 
 /**
  * Data Transfer Object for Stroke, used to transport stroke information
@@ -11,14 +9,15 @@ import java.util.Map;
 public class StrokeDto {
     private String id;
     private String boardId;
-    private List<Map<String, Integer>> points;
+    private PackedPoints points;
     private String color;
     private int width;
     private long timestamp;
+    private long seq;
 
     // Default constructor
     public StrokeDto() {
-        this.points = new ArrayList<>();
+        this.points = PackedPoints.EMPTY;
         this.timestamp = System.currentTimeMillis();
     }
 
@@ -39,11 +38,11 @@ public class StrokeDto {
         this.boardId = boardId;
     }
 
-    public List<Map<String, Integer>> getPoints() {
+    public PackedPoints getPoints() {
         return points;
     }
 
-    public void setPoints(List<Map<String, Integer>> points) {
+    public void setPoints(PackedPoints points) {
         this.points = points;
     }
 
@@ -70,4 +69,15 @@ public class StrokeDto {
     public void setTimestamp(long timestamp) {
         this.timestamp = timestamp;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Board sequence number at which this stroke was added; assigned by the server
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+}
@@ -0,0 +1,56 @@
+package EduJam.AI.dto;
+
+/**
+ * Data Transfer Object for what an erase left of a stroke: the source stroke's
+ * points from index "from" up to but not including "to", now a stroke with its own ID.
+ */
+public class StrokeFragmentDto {
+    private String id;
+    private String sourceId;
+    private int from;
+    private int to;
+
+    // Default constructor
+    public StrokeFragmentDto() {
+    }
+
+    public StrokeFragmentDto(String id, String sourceId, int from, int to) {
+        this.id = id;
+        this.sourceId = sourceId;
+        this.from = from;
+        this.to = to;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(String sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public void setFrom(int from) {
+        this.from = from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public void setTo(int to) {
+        this.to = to;
+    }
+}
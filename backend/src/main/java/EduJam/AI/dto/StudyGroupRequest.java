@@ -0,0 +1,56 @@
+package EduJam.AI.dto;
+
+import EduJam.AI.codec.InboundMessage;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * A JSON message received on the study group WebSocket, decoded in a single streaming pass
+ */
+public class StudyGroupRequest extends InboundMessage {
+    private String subject;
+    private String name;
+    private String groupId;
+    private String message;
+
+    public StudyGroupRequest(String type) {
+        super(type);
+    }
+
+    @Override
+    protected void readField(String field, JsonParser p) throws IOException {
+        switch (field) {
+            case "subject":
+                subject = readString(p);
+                break;
+            case "name":
+                name = readString(p);
+                break;
+            case "groupId":
+                groupId = readString(p);
+                break;
+            case "message":
+                message = readString(p);
+                break;
+            default:
+                p.skipChildren();
+        }
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -1,7 +1,22 @@
 package EduJam.AI.exception;
 
+/**
+ * A stroke was refused before it reached the board, e.g. because it is too large
+ * or the board is full. The code tells clients why without parsing the message.
+ */
 public class InvalidStrokeException extends RuntimeException {
+    private final String code;
+
     public InvalidStrokeException(String message) {
+        this("invalidStroke", message);
+    }
+
+    public InvalidStrokeException(String code, String message) {
         super(message);
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
     }
-} 
\ No newline at end of file
+}
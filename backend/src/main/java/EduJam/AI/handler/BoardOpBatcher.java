@@ -0,0 +1,147 @@
+package EduJam.AI.handler;
+
+import EduJam.AI.service.BoardMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Collects the ops broadcast on each board and flushes them at most once per tick.
+ *
+ * The first op after a quiet tick is flushed right away on the caller's thread, so
+ * an idle board adds no latency. Ops that follow within the tick wait for a flush
+ * scheduled at the end of it, which sends them all together. Busy boards therefore
+ * send one frame per tick however many ops they produce, and nothing ever blocks
+ * the inbound thread.
+ *
+ * A board's flushes run under its batch lock, so ops reach the outboxes in the
+ * order they were submitted.
+ */
+final class BoardOpBatcher {
+    private static final Logger log = LoggerFactory.getLogger(BoardOpBatcher.class);
+
+    /**
+     * Sends a batch of ops to a board's sessions
+     */
+    interface Flusher {
+        void flush(String boardId, List<PendingOp> ops);
+    }
+
+    /**
+     * One broadcast waiting for the next flush
+     */
+    static final class PendingOp {
+        final Object message;
+        final Supplier<byte[]> binaryFrame;
+        final long seq;
+
+        PendingOp(Object message, Supplier<byte[]> binaryFrame, long seq) {
+            this.message = message;
+            this.binaryFrame = binaryFrame;
+            this.seq = seq;
+        }
+    }
+
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final long tickNanos;
+    private final Flusher flusher;
+    private final BoardMetrics metrics;
+
+    /**
+     * @param tickMs flush interval; 0 flushes every op on its own
+     */
+    BoardOpBatcher(ScheduledExecutorService scheduler, long tickMs, Flusher flusher, BoardMetrics metrics) {
+        this.scheduler = scheduler;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.flusher = flusher;
+        this.metrics = metrics;
+    }
+
+    void submit(String boardId, Object message, Supplier<byte[]> binaryFrame, long seq) {
+        Batch batch = batches.computeIfAbsent(boardId, Batch::new);
+        synchronized (batch) {
+            batch.ops.add(new PendingOp(message, binaryFrame, seq));
+            if (batch.scheduled) {
+                return;
+            }
+            long sinceLastFlush = System.nanoTime() - batch.lastFlushAt;
+            if (sinceLastFlush >= tickNanos) {
+                flush(batch);
+                return;
+            }
+            batch.scheduled = true;
+            try {
+                scheduler.schedule(() -> flushScheduled(batch), tickNanos - sinceLastFlush, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; deliver what is here rather than lose it
+                batch.scheduled = false;
+                flush(batch);
+            }
+        }
+    }
+
+    /**
+     * Sends whatever is pending on the board now, then runs the action before any later
+     * op can be flushed. A session added by the action gets exactly the ops submitted
+     * after this call.
+     */
+    void flushThen(String boardId, Runnable action) {
+        Batch batch = batches.computeIfAbsent(boardId, Batch::new);
+        synchronized (batch) {
+            if (!batch.ops.isEmpty()) {
+                flush(batch);
+            }
+            action.run();
+        }
+    }
+
+    /**
+     * Forgets a board that has no sessions left; anything still pending had no one to go to
+     */
+    void remove(String boardId) {
+        batches.remove(boardId);
+    }
+
+    private void flushScheduled(Batch batch) {
+        synchronized (batch) {
+            batch.scheduled = false;
+            flush(batch);
+        }
+    }
+
+    private void flush(Batch batch) {
+        batch.lastFlushAt = System.nanoTime();
+        if (batch.ops.isEmpty()) {
+            return;
+        }
+        List<PendingOp> ops = batch.ops;
+        batch.ops = new ArrayList<>();
+        metrics.increment("board.batch.flushes");
+        metrics.add("board.batch.ops", ops.size());
+        try {
+            flusher.flush(batch.boardId, ops);
+        } catch (RuntimeException e) {
+            log.error("Error flushing {} ops on board {}", ops.size(), batch.boardId, e);
+        }
+    }
+
+    private static final class Batch {
+        private final String boardId;
+        private List<PendingOp> ops = new ArrayList<>();
+        private boolean scheduled;
+        private long lastFlushAt = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+        Batch(String boardId) {
+            this.boardId = boardId;
+        }
+    }
+}
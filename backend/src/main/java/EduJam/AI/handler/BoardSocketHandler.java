@@ -1,32 +1,60 @@
 package EduJam.AI.handler;
 
+import EduJam.AI.codec.BinaryReader;
+import EduJam.AI.codec.BoardBinaryCodec;
+import EduJam.AI.codec.BoardFrameCodec;
+import EduJam.AI.codec.InboundMessageDecoder;
 import EduJam.AI.model.BoardModel;
+import EduJam.AI.model.BoundingBox;
+import EduJam.AI.model.PackedPoints;
 import EduJam.AI.model.StrokeModel;
 import EduJam.AI.model.UserSessionModel;
+import EduJam.AI.service.BoardActors;
+import EduJam.AI.service.BoardMetrics;
 import EduJam.AI.service.BoardService;
+import EduJam.AI.service.BoardSnapshot;
+import EduJam.AI.service.BoardTransfer;
+import EduJam.AI.service.StrokeAdmission;
 import EduJam.AI.service.UserSessionService;
 import EduJam.AI.dto.BoardDto;
+import EduJam.AI.dto.BoardOpDto;
+import EduJam.AI.dto.BoardReplayDto;
+import EduJam.AI.dto.BoardRequest;
 import EduJam.AI.dto.StrokeDto;
-import com.fasterxml.jackson.databind.JsonNode;
+import EduJam.AI.exception.BoardNotFoundException;
+import EduJam.AI.exception.InvalidStrokeException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.PingMessage;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * WebSocket handler for whiteboard operations.
@@ -39,7 +67,33 @@ import java.util.concurrent.TimeUnit;
  * Broadcasting implementation:
  * - Active sessions are stored in {@link #boardSessionsMap} keyed by boardId
  * - When a stroke is drawn, it's immediately broadcast to all connected clients on the same board
- * - A throttling mechanism is available (disabled by default) to batch rapid stroke updates
+ * - Strokes can also be streamed in point batches while the pen is down; batches are relayed
+ *   to peers as they arrive and the stroke is only stored once it ends
+ * - Ops for everyone on a board are batched per tick (app.board.batch.tick-ms): the first op
+ *   after a quiet tick goes out at once, ops that follow within the tick are sent together
+ *   as one "ops" message, {"type":"ops","boardId":...,"ops":[...]}, holding the usual messages in order
+ * - Undo and redo are per session: they only hide or restore strokes the same session drew
+ * - The eraser ("eraseAt", "erasePath") finds the strokes near it through the board's spatial index,
+ *   removes the ones it covers and splits the ones it crosses; peers get one strokesErased delta
+ *   with the removed stroke IDs and each fragment as a point range of the stroke it was cut from
+ * - Every mutation carries a board sequence number ("seq"); undo, redo, clear and settings
+ *   changes are broadcast as small deltas (strokeRemoved, strokeRestored, boardCleared,
+ *   boardSettingsUpdated) and full state is only sent on join or requestFullState
+ * - Mutations run on the board's single writer ({@link BoardActors}) together with their
+ *   broadcast, so every client sees a board's ops in seq order and the inbound thread
+ *   returns as soon as the mutation is queued
+ * - Every message goes through the session's bounded {@link SessionOutbox}, so a slow client
+ *   only ever delays itself; when its backlog overflows it loses stroke previews, is sent a
+ *   resyncRequired notice with the last seq it will receive, or is disconnected to reconnect
+ *   with lastSeq, depending on app.board.outbound.overflow-policy
+ * - Strokes pass an admission stage before they are queued: each session may commit a limited
+ *   number per second, strokes are capped in points and clipped to the board, and boards have
+ *   stroke and size quotas ({@link StrokeAdmission}). Refused strokes get a small
+ *   {"type":"strokeRejected","code":...,"error":...} reply; a session flooding strokes only
+ *   hears about the first one refused
+ * - Live cursors ("cursor" messages) go through {@link PresenceHub}, which skips the board
+ *   model and sends each board's latest positions once per tick; an outbox sends presence
+ *   only when it has nothing else queued, so cursors never hold up strokes
  * 
  * Testing with curl:
  * ```
@@ -56,32 +110,193 @@ import java.util.concurrent.TimeUnit;
  * ```
  * Then send: {"type":"createBoard"}
  * Then send: {"type":"stroke","boardId":"<boardId>","stroke":{"color":"#FF0000","width":2,"points":[{"x":10,"y":20},{"x":30,"y":40}]}}
+ * Stream a stroke while it is drawn:
+ *   {"type":"strokeBegin","boardId":"<boardId>","strokeId":"s1","color":"#FF0000","width":2,"points":[{"x":10,"y":20}]}
+ *   {"type":"strokePoints","boardId":"<boardId>","strokeId":"s1","points":[{"x":30,"y":40}]}
+ *   {"type":"strokeEnd","boardId":"<boardId>","strokeId":"s1"}
+ * Resume after a reconnect: {"type":"joinBoard","boardId":"<boardId>","lastSeq":42}
+ *   replies with boardResumed and the missed ops, or boardJoined with full state if they aged out
+ * Join a large board in pages: {"type":"joinBoard","boardId":"<boardId>","chunked":true}
+ *   replies with boardJoinStart (version, strokeCount, settings), boardJoinPage messages of bounded
+ *   size and boardJoinEnd; live ops follow the last page and all carry a seq after the version
+ * Fetch only what is on screen: {"type":"requestViewport","boardId":"<boardId>","viewport":{"x":0,"y":0,"width":800,"height":600}}
+ * Erase: {"type":"eraseAt","boardId":"<boardId>","x":20,"y":30,"radius":8}
+ *   or along a drag: {"type":"erasePath","boardId":"<boardId>","radius":8,"points":[{"x":10,"y":20},{"x":60,"y":20}]}
+ *   peers receive {"type":"strokesErased","boardId":"<boardId>","seq":43,"removedStrokeIds":["s1"],
+ *   "fragments":[{"id":"f1","sourceId":"s1","from":0,"to":12}]}
+ * Replay a board's history: {"type":"replay","boardId":"<boardId>","from":1700000000000,"limit":200}
+ *   replies with replayPage holding the board as it was at that time and the ops that followed;
+ *   send {"type":"replay","boardId":"<boardId>","afterSeq":<lastSeq>} for the next page
+ * Share the cursor: {"type":"cursor","boardId":"<boardId>","x":120,"y":80}
+ *   peers receive {"type":"presence","boardId":"<boardId>","cursors":[{"userId":"<id>","x":120,"y":80}]};
+ *   the list includes the sender, whose own userId comes with boardJoined
+ *
+ * Clients that request the {@value EduJam.AI.codec.BoardFrameCodec#SUBPROTOCOL} subprotocol may send
+ * strokes, stroke streams, undo, redo and erases as binary frames, and receive drawing traffic the same way;
+ * see {@link BoardFrameCodec}. Everything else stays JSON on the same connection.
  */
 @Component
-public class BoardSocketHandler extends TextWebSocketHandler {
+public class BoardSocketHandler extends AbstractWebSocketHandler {
     private static final Logger log = LoggerFactory.getLogger(BoardSocketHandler.class);
     
     // Configuration
-    private static final boolean ENABLE_THROTTLING = false;
-    private static final long THROTTLE_MS = 16; // ~60fps
     private static final long HEARTBEAT_INTERVAL_MS = 30000; // 30 seconds
+    private static final int MAX_OPEN_STROKES_PER_SESSION = 8;
     
     private final BoardService boardService;
     private final UserSessionService sessionService;
     private final ObjectMapper objectMapper;
+    private final InboundMessageDecoder messageDecoder;
     private final Map<String, String> sessionToBoardMap = new ConcurrentHashMap<>();
     private final Map<String, Set<WebSocketSession>> boardSessionsMap = new ConcurrentHashMap<>();
+    // Strokes still being drawn, keyed by session ID and then by stroke ID
+    private final Map<String, Map<String, StreamingStroke>> streamingStrokes = new ConcurrentHashMap<>();
     private final ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "board-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private BoardOpBatcher opBatcher;
+    // Presence gets its own thread so building cursor messages never delays an op flush
+    private final ScheduledExecutorService presenceScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "board-presence");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private PresenceHub presenceHub;
+    
+    // Ops on the same board within this window are sent as one message; 0 sends each op on its own
+    @Value("${app.board.batch.tick-ms:16}")
+    private long batchTickMs;
+    
+    // Cursor positions are sent to each board at most once per tick
+    @Value("${app.board.presence.tick-ms:50}")
+    private long presenceTickMs;
+    
+    // Cursor updates each session may send per second; the rest are dropped
+    @Value("${app.board.presence.max-per-second:30}")
+    private double presenceMaxPerSecond;
+    
+    // New strokes each session may commit per second, and how many it may send at once
+    @Value("${app.board.admission.strokes-per-second:20}")
+    private double strokesPerSecond;
+    
+    @Value("${app.board.admission.burst:40}")
+    private double strokeBurst;
+    
+    // Eraser messages each session may send per second; a drag sends them far more often than strokes
+    @Value("${app.board.admission.erases-per-second:60}")
+    private double erasesPerSecond;
+    
+    @Value("${app.board.admission.erase-burst:120}")
+    private double eraseBurst;
+    
+    // Stroke and eraser rate limits per session ID
+    private final Map<String, RateLimit> strokeRateLimits = new ConcurrentHashMap<>();
+    private final Map<String, RateLimit> eraseRateLimits = new ConcurrentHashMap<>();
+    // Rejection replies by message; there are only a few distinct ones, so each is serialized once
+    private final Map<String, TextMessage> rejectionFrames = new ConcurrentHashMap<>();
+    private final StrokeAdmission strokeAdmission;
+    
+    // Most strokes and characters in one page of a chunked join; a page holds at least one stroke
+    @Value("${app.board.join.page-strokes:500}")
+    private int joinPageStrokes;
+    
+    @Value("${app.board.join.page-bytes:65536}")
+    private int joinPageBytes;
+    
+    // Eraser radius used when eraseAt or erasePath does not send one
+    @Value("${app.board.eraser.default-radius:10}")
+    private int defaultEraserRadius;
+    
+    // Outbound queue per session ID; the sender pool drains them
+    private final Map<String, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+    private final BoardMetrics metrics;
+    private final BoardActors boardActors;
+    private ExecutorService outboundSender;
+    // Disconnects slow sessions apart from the sender pool, since a close may wait behind a stalled send
+    private ExecutorService outboundCloser;
+    private SessionOutbox.OverflowPolicy overflowPolicy;
+    
+    @Value("${app.board.outbound.sender-threads:4}")
+    private int senderThreads;
+    
+    // drop-oldest, disconnect or coalesce
+    @Value("${app.board.outbound.overflow-policy:drop-oldest}")
+    private String overflowPolicyName;
+    
+    // Broadcast backlog a session may build up before the overflow policy applies
+    @Value("${app.board.outbound.max-queued-messages:256}")
+    private int maxQueuedMessages;
+    
+    @Value("${app.board.outbound.max-queued-bytes:1048576}")
+    private long maxQueuedBytes;
+    
+    // A session whose current send has been in flight this long is disconnected
+    @Value("${app.board.outbound.send-time-limit-ms:10000}")
+    private long sendTimeLimitMs;
 
-    public BoardSocketHandler(BoardService boardService, UserSessionService sessionService, ObjectMapper objectMapper) {
+    public BoardSocketHandler(BoardService boardService, UserSessionService sessionService, ObjectMapper objectMapper,
+                              BoardMetrics metrics, BoardActors boardActors, StrokeAdmission strokeAdmission) {
         this.boardService = boardService;
         this.sessionService = sessionService;
         this.objectMapper = objectMapper;
+        this.messageDecoder = new InboundMessageDecoder(objectMapper);
+        this.metrics = metrics;
+        this.boardActors = boardActors;
+        this.strokeAdmission = strokeAdmission;
         
         // Start the heartbeat scheduler
         heartbeatScheduler.scheduleAtFixedRate(this::sendHeartbeats, HEARTBEAT_INTERVAL_MS, HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
 
+    @PostConstruct
+    public void startOutboundSender() {
+        overflowPolicy = SessionOutbox.OverflowPolicy.parse(overflowPolicyName);
+        AtomicInteger threadCount = new AtomicInteger();
+        outboundSender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "board-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger closerCount = new AtomicInteger();
+        outboundCloser = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "board-closer-" + closerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long stallCheckMs = Math.max(sendTimeLimitMs / 2, 100);
+        heartbeatScheduler.scheduleAtFixedRate(this::checkStalledSends, stallCheckMs, stallCheckMs,
+                TimeUnit.MILLISECONDS);
+        
+        opBatcher = new BoardOpBatcher(flushScheduler, batchTickMs, this::flushOps, metrics);
+        presenceHub = new PresenceHub(presenceScheduler, presenceTickMs, presenceMaxPerSecond,
+                objectMapper.getFactory(), this::publishPresence, metrics);
+        
+        metrics.registerGauge("board.outbound.queued",
+                () -> outboxes.values().stream().mapToLong(SessionOutbox::depth).sum());
+        metrics.registerGauge("board.outbound.queuedBytes",
+                () -> outboxes.values().stream().mapToLong(SessionOutbox::bytes).sum());
+        metrics.registerGauge("board.outbound.maxSessionDepth",
+                () -> outboxes.values().stream().mapToLong(SessionOutbox::depth).max().orElse(0));
+        log.info("Outbound queues: {} policy, {} messages / {} bytes per session, {} sender threads",
+                overflowPolicy, maxQueuedMessages, maxQueuedBytes, senderThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdownNow();
+        flushScheduler.shutdown();
+        presenceScheduler.shutdownNow();
+        if (outboundSender != null) {
+            outboundSender.shutdown();
+        }
+        if (outboundCloser != null) {
+            outboundCloser.shutdown();
+        }
+    }
+
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
         String sessionId = session.getId();
@@ -91,43 +306,79 @@ public class BoardSocketHandler extends TextWebSocketHandler {
         sessionService.registerSession(userSession);
         sessionService.touch(sessionId);
         
+        SessionOutbox outbox = new SessionOutbox(session, outboundSender, outboundCloser, overflowPolicy,
+                maxQueuedMessages, maxQueuedBytes, sendTimeLimitMs, metrics,
+                lastSeq -> resyncNotice(sessionId, lastSeq));
+        outboxes.put(sessionId, outbox);
+        metrics.registerGauge("board.outbound.depth.session." + sessionId, outbox::depth);
+        
         log.debug("WebSocket connection established for session: {}", sessionId);
     }
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
-        log.info("Received message: {}", message.getPayload());
-        JsonNode jsonNode = objectMapper.readTree(message.getPayload());
-        String type = jsonNode.get("type").asText();
+        log.debug("Received message: {}", message.getPayload());
+        BoardRequest request;
+        try {
+            request = messageDecoder.decode(message.getPayload(), BoardRequest::new);
+        } catch (IOException e) {
+            sendErrorMessage(session, "Malformed message: " + e.getMessage());
+            return;
+        }
+        String type = request.getType();
 
         // Touch the session to update activity timestamp
         sessionService.touch(session.getId());
-        log.info("Processing message type: {} from session: {}", type, session.getId());
+        log.debug("Processing message type: {} from session: {}", type, session.getId());
 
         switch (type) {
             case "createBoard":
-                handleCreateBoard(session, jsonNode);
+                handleCreateBoard(session, request);
                 break;
             case "joinBoard":
-                handleJoinBoard(session, jsonNode);
+                handleJoinBoard(session, request);
                 break;
             case "stroke":
-                handleStroke(session, jsonNode);
+                handleStroke(session, request);
+                break;
+            case "strokeBegin":
+                handleStrokeBegin(session, request);
+                break;
+            case "strokePoints":
+                handleStrokePoints(session, request);
+                break;
+            case "strokeEnd":
+                handleStrokeEnd(session, request);
                 break;
             case "undo":
-                handleUndo(session, jsonNode);
+                handleUndo(session, request);
                 break;
             case "redo":
-                handleRedo(session, jsonNode);
+                handleRedo(session, request);
+                break;
+            case "eraseAt":
+                handleEraseAt(session, request);
+                break;
+            case "erasePath":
+                handleErasePath(session, request);
                 break;
             case "clearBoard":
-                handleClearBoard(session, jsonNode);
+                handleClearBoard(session, request);
                 break;
             case "updateBoardSettings":
-                handleUpdateBoardSettings(session, jsonNode);
+                handleUpdateBoardSettings(session, request);
                 break;
             case "requestFullState":
-                handleRequestFullState(session, jsonNode);
+                handleRequestFullState(session, request);
+                break;
+            case "requestViewport":
+                handleRequestViewport(session, request);
+                break;
+            case "replay":
+                handleReplay(session, request);
+                break;
+            case "cursor":
+                handleCursor(session, request);
                 break;
             case "pong":
                 // Client responded to ping, nothing to do
@@ -138,19 +389,83 @@ public class BoardSocketHandler extends TextWebSocketHandler {
         }
     }
 
-    private void handleCreateBoard(WebSocketSession session, JsonNode jsonNode) throws Exception {
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        if (!isBinaryClient(session)) {
+            sendErrorMessage(session, "Binary frames require the " + BoardFrameCodec.SUBPROTOCOL + " subprotocol");
+            return;
+        }
+        sessionService.touch(session.getId());
+        
+        // Binary frames carry no board ID; they always apply to the session's board
+        String boardId = sessionToBoardMap.get(session.getId());
+        if (boardId == null) {
+            sendErrorMessage(session, "Join a board before sending binary frames");
+            return;
+        }
+        
+        byte[] payload = new byte[message.getPayloadLength()];
+        message.getPayload().get(payload);
+        BinaryReader in = new BinaryReader(payload);
+        try {
+            int type = in.readByte();
+            switch (type) {
+                case BoardFrameCodec.STROKE:
+                    commitStroke(boardId, BoardFrameCodec.readStroke(in), session);
+                    break;
+                case BoardFrameCodec.STROKE_BEGIN: {
+                    StrokeDto begin = BoardFrameCodec.readStroke(in);
+                    beginStroke(session, boardId, begin.getId(), begin.getColor(), begin.getWidth(), begin.getPoints());
+                    break;
+                }
+                case BoardFrameCodec.STROKE_POINTS: {
+                    StrokeDto batch = BoardFrameCodec.readStrokePoints(in);
+                    appendStrokePoints(session, batch.getId(), batch.getPoints());
+                    break;
+                }
+                case BoardFrameCodec.STROKE_END: {
+                    StrokeDto end = BoardFrameCodec.readStrokePoints(in);
+                    endStroke(session, end.getId(), end.getPoints());
+                    break;
+                }
+                case BoardFrameCodec.UNDO:
+                    undo(session, boardId);
+                    break;
+                case BoardFrameCodec.REDO:
+                    redo(session, boardId);
+                    break;
+                case BoardFrameCodec.ERASE: {
+                    int radius = in.readVarInt();
+                    erase(session, boardId, BoardBinaryCodec.readPoints(in), radius);
+                    break;
+                }
+                default:
+                    log.warn("Unknown binary frame type received: {}", type);
+                    sendErrorMessage(session, "Unknown binary frame type: " + type);
+            }
+        } catch (IllegalArgumentException e) {
+            sendErrorMessage(session, "Malformed binary frame: " + e.getMessage());
+        }
+    }
+
+    private static boolean isBinaryClient(WebSocketSession session) {
+        return BoardFrameCodec.SUBPROTOCOL.equals(session.getAcceptedProtocol());
+    }
+
+    private void handleCreateBoard(WebSocketSession session, BoardRequest request) throws Exception {
         log.info("Creating new board for session: {}", session.getId());
         var board = boardService.createBoard();
         String boardId = board.getId();
-        sessionToBoardMap.put(session.getId(), boardId);
+        trackBoard(session, boardId);
         
         // Add this session to the board's sessions
-        Set<WebSocketSession> boardSessions = boardSessionsMap.computeIfAbsent(boardId, k -> ConcurrentHashMap.newKeySet());
+        Set<WebSocketSession> boardSessions = boardSessionsMap.computeIfAbsent(boardId, this::newBoardSessions);
         boardSessions.add(session);
 
         Map<String, Object> response = new HashMap<>();
         response.put("type", "boardCreated");
         response.put("boardId", boardId);
+        response.put("userId", session.getId());
         response.put("boardState", Map.of(
             "strokes", board.getStrokes(),
             "settings", Map.of(
@@ -164,58 +479,151 @@ public class BoardSocketHandler extends TextWebSocketHandler {
 
         String responseJson = objectMapper.writeValueAsString(response);
         log.info("Sending board created response: {}", responseJson);
-        session.sendMessage(new TextMessage(responseJson));
+        send(session, new TextMessage(responseJson));
         
         log.info("Board created: {} by session: {}", boardId, session.getId());
     }
 
-    private void handleJoinBoard(WebSocketSession session, JsonNode jsonNode) throws IOException {
-        String boardId = jsonNode.get("boardId").asText();
+    private void handleJoinBoard(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
+        if (boardId == null) {
+            sendErrorMessage(session, "Board ID is required");
+            return;
+        }
         log.info("Session {} attempting to join board {}", session.getId(), boardId);
         
-        BoardDto board = boardService.getBoardById(boardId);
-        
-        if (board == null) {
-            log.warn("Board not found: {}", boardId);
-            sendErrorMessage(session, "Board not found: " + boardId);
+        // Clients on large boards can ask for just the strokes in their initial viewport
+        BoundingBox viewport;
+        try {
+            viewport = parseViewport(request.getViewport());
+        } catch (IllegalArgumentException e) {
+            sendErrorMessage(session, e.getMessage());
             return;
         }
+        joinOnBoard(session, boardId, viewport, request);
+    }
 
-        // Store the session's board ID
-        sessionToBoardMap.put(session.getId(), boardId);
-        
-        // Add this session to the board's sessions
-        Set<WebSocketSession> boardSessions = boardSessionsMap.computeIfAbsent(boardId, k -> ConcurrentHashMap.newKeySet());
-        boardSessions.add(session);
+    /**
+     * Joins a board on its writer, so no op lands between capturing the state and adding
+     * the session: pending ops up to the captured version are flushed to the other sessions
+     * first, and later ones reach this session queued behind its state. A reconnecting client
+     * gets the ops it missed; otherwise the state is the strokes in the requested viewport,
+     * the whole board in pages ({@link BoardStatePages}) when the client asks for chunked, or
+     * the board's cached snapshot.
+     */
+    private void joinOnBoard(WebSocketSession session, String boardId, BoundingBox viewport, BoardRequest request) {
+        onBoard(session, boardId, () -> {
+            Long lastSeq = request.getLastSeq();
+            List<BoardOpDto> missedOps = viewport == null && lastSeq != null
+                    ? boardService.getOpsSince(boardId, lastSeq)
+                    : null;
+            TextMessage initial = null;
+            BoardTransfer transfer = null;
+            if (missedOps != null) {
+                initial = resumedMessage(session, boardId, lastSeq, missedOps);
+            } else if (viewport != null) {
+                BoardDto board = boardService.getBoardViewport(boardId, viewport);
+                if (board != null) {
+                    initial = joinedMessage(session, boardId, board, request.getViewport());
+                }
+            } else if (request.isChunked()) {
+                transfer = boardService.beginTransfer(boardId);
+            } else {
+                // Whole-board joins share one cached serialized snapshot per board version
+                BoardSnapshot snapshot = boardService.getBoardSnapshot(boardId);
+                if (snapshot != null) {
+                    initial = joinedMessage(session, boardId, toRawState(snapshot), null);
+                }
+            }
+            if (initial == null && transfer == null) {
+                log.warn("Board not found: {}", boardId);
+                sendErrorMessage(session, "Board not found: " + boardId);
+                return;
+            }
+            SessionOutbox outbox = outboxes.get(session.getId());
+            if (outbox == null) {
+                return;
+            }
+            
+            trackBoard(session, boardId);
+            Set<WebSocketSession> boardSessions = boardSessionsMap.computeIfAbsent(boardId, this::newBoardSessions);
+            broadcastToBoard(boardId, userJoinedMessage(session, boardId), session.getId());
+            TextMessage state = initial;
+            BoardTransfer pages = transfer;
+            opBatcher.flushThen(boardId, () -> {
+                boardSessions.add(session);
+                if (state != null) {
+                    outbox.send(state);
+                } else {
+                    metrics.increment("board.join.chunked");
+                    outbox.stream(new BoardStatePages(pages, session.getId(), objectMapper, joinPageStrokes,
+                            joinPageBytes, metrics));
+                }
+            });
+        });
+    }
+
+    /**
+     * The boardJoined confirmation carrying the board state the joining session starts from
+     */
+    private TextMessage joinedMessage(WebSocketSession session, String boardId, Object boardState,
+                                      Object viewport) throws IOException {
+        Map<String, Object> confirmationMessage = new HashMap<>();
+        confirmationMessage.put("type", "boardJoined");
+        confirmationMessage.put("boardId", boardId);
+        confirmationMessage.put("userId", session.getId());
+        confirmationMessage.put("boardState", boardState);
+        if (viewport != null) {
+            confirmationMessage.put("viewport", viewport);
+        }
         
-        // Notify other users that a new user has joined
+        String confirmationJson = objectMapper.writeValueAsString(confirmationMessage);
+        // The state can be the whole board, so only its size is worth logging
+        log.debug("Sending join confirmation to session {}: {} chars", session.getId(), confirmationJson.length());
+        return new TextMessage(confirmationJson);
+    }
+
+    private static Map<String, Object> userJoinedMessage(WebSocketSession session, String boardId) {
         Map<String, Object> joinedMessage = new HashMap<>();
         joinedMessage.put("type", "userJoined");
         joinedMessage.put("userId", session.getId());
         joinedMessage.put("boardId", boardId);
-        
-        try {
-            log.info("Broadcasting join message for session {} on board {}", session.getId(), boardId);
-            broadcastToBoard(boardId, joinedMessage, session.getId());
-        } catch (IOException e) {
-            log.error("Error broadcasting join message", e);
-            throw new IOException("Error broadcasting join message", e);
+        return joinedMessage;
+    }
+
+    /**
+     * Creates the session set of a board that just got its first session, along with its queue depth gauge
+     */
+    private Set<WebSocketSession> newBoardSessions(String boardId) {
+        Set<WebSocketSession> sessions = ConcurrentHashMap.newKeySet();
+        metrics.registerGauge("board.outbound.depth.board." + boardId, () -> sessions.stream()
+                .map(boardSession -> outboxes.get(boardSession.getId()))
+                .mapToLong(outbox -> outbox != null ? outbox.depth() : 0)
+                .sum());
+        return sessions;
+    }
+
+    /**
+     * Remembers which board a session is on and keeps that board in memory while it stays
+     */
+    private void trackBoard(WebSocketSession session, String boardId) {
+        String previousBoardId = sessionToBoardMap.put(session.getId(), boardId);
+        if (boardId.equals(previousBoardId)) {
+            return;
         }
-        
-        // Send confirmation and board state to the joining user
-        Map<String, Object> confirmationMessage = new HashMap<>();
-        confirmationMessage.put("type", "boardJoined");
-        confirmationMessage.put("boardId", boardId);
-        confirmationMessage.put("boardState", board);
-        
-        String confirmationJson = objectMapper.writeValueAsString(confirmationMessage);
-        log.info("Sending join confirmation: {}", confirmationJson);
-        session.sendMessage(new TextMessage(confirmationJson));
+        if (previousBoardId != null) {
+            boardService.detachSession(previousBoardId);
+        }
+        boardService.attachSession(boardId);
     }
 
-    private void handleRequestFullState(WebSocketSession session, JsonNode jsonNode) throws IOException {
-        String boardId = jsonNode.get("boardId").asText();
-        BoardDto board = boardService.getBoardById(boardId);
+    private void handleRequestFullState(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
+        if (boardId == null) {
+            sendErrorMessage(session, "Board ID is required");
+            return;
+        }
+        BoardSnapshot board = boardService.getBoardSnapshot(boardId);
         
         if (board == null) {
             sendErrorMessage(session, "Board not found: " + boardId);
@@ -229,79 +637,209 @@ public class BoardSocketHandler extends TextWebSocketHandler {
             return;
         }
         
+        // Replay missed ops instead when the client says where it left off
+        if (sendMissedOps(session, boardId, request)) {
+            return;
+        }
+        
         // Send full board state
         Map<String, Object> response = new HashMap<>();
         response.put("type", "fullBoardState");
         response.put("boardId", boardId);
-        response.put("boardState", board);
+        response.put("boardState", toRawState(board));
         
         String responseJson = objectMapper.writeValueAsString(response);
-        session.sendMessage(new TextMessage(responseJson));
+        send(session, new TextMessage(responseJson));
     }
 
-    private void handleStroke(WebSocketSession session, JsonNode jsonNode) throws IOException {
-        String boardId = jsonNode.get("boardId").asText();
-        String sessionBoardId = sessionToBoardMap.get(session.getId());
+    /**
+     * Wraps a cached snapshot so Jackson embeds its JSON without re-serializing it
+     */
+    private static RawValue toRawState(BoardSnapshot snapshot) {
+        return snapshot != null ? new RawValue(snapshot.getJson()) : null;
+    }
+
+    /**
+     * Sends a boardResumed message with the ops applied after the client's lastSeq.
+     *
+     * @return true if the ops were sent, false if the client sent no lastSeq or
+     *         the gap is no longer buffered and it needs a full snapshot
+     */
+    private boolean sendMissedOps(WebSocketSession session, String boardId, BoardRequest request) throws IOException {
+        if (request.getLastSeq() == null) {
+            return false;
+        }
+        
+        long lastSeq = request.getLastSeq();
+        List<BoardOpDto> missedOps = boardService.getOpsSince(boardId, lastSeq);
+        if (missedOps == null) {
+            log.debug("Ops after seq {} on board {} are no longer buffered, sending full state", lastSeq, boardId);
+            return false;
+        }
+        
+        send(session, resumedMessage(session, boardId, lastSeq, missedOps));
+        return true;
+    }
+
+    private TextMessage resumedMessage(WebSocketSession session, String boardId, long lastSeq,
+                                       List<BoardOpDto> missedOps) throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "boardResumed");
+        response.put("boardId", boardId);
+        response.put("userId", session.getId());
+        response.put("fromSeq", lastSeq);
+        response.put("version", lastSeq + missedOps.size());
+        response.put("ops", missedOps);
+        return new TextMessage(objectMapper.writeValueAsString(response));
+    }
+
+    private void handleRequestViewport(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
         
+        // Verify session is connected to this board
+        String sessionBoardId = sessionToBoardMap.get(session.getId());
         if (sessionBoardId == null || !sessionBoardId.equals(boardId)) {
-            sendErrorMessage(session, "You are not connected to board: " + boardId);
+            sendErrorMessage(session, "You are not connected to this board");
             return;
         }
         
-        // Extract stroke data
-        JsonNode strokeNode = jsonNode.get("stroke");
-        StrokeDto stroke = objectMapper.treeToValue(strokeNode, StrokeDto.class);
+        BoundingBox viewport;
+        try {
+            viewport = parseViewport(request.getViewport());
+        } catch (IllegalArgumentException e) {
+            sendErrorMessage(session, e.getMessage());
+            return;
+        }
+        if (viewport == null) {
+            sendErrorMessage(session, "Viewport is required");
+            return;
+        }
+        
+        BoardDto board = boardService.getBoardViewport(boardId, viewport);
+        if (board == null) {
+            sendErrorMessage(session, "Board not found: " + boardId);
+            return;
+        }
         
-        // Save the stroke to the board
-        boardService.addStroke(boardId, stroke);
+        // Send only the strokes that intersect the visible rectangle
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "viewportState");
+        response.put("boardId", boardId);
+        response.put("viewport", request.getViewport());
+        response.put("boardState", board);
         
-        // Apply throttling if enabled
-        if (ENABLE_THROTTLING) {
-            try {
-                Thread.sleep(THROTTLE_MS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.warn("Throttling interrupted", e);
-            }
+        send(session, new TextMessage(objectMapper.writeValueAsString(response)));
+    }
+
+    /**
+     * Sends a page of a board's history. Replay is read-only and served from disk,
+     * so the session does not have to be connected to the board.
+     */
+    private void handleReplay(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
+        if (boardId == null) {
+            sendErrorMessage(session, "Board ID is required");
+            return;
         }
         
+        BoardReplayDto replay;
         try {
-            // Send using the ORIGINAL format that frontend likely expects
-            Map<String, Object> originalFormatMessage = new HashMap<>();
-            originalFormatMessage.put("type", "stroke");
-            originalFormatMessage.put("boardId", boardId);
-            originalFormatMessage.put("stroke", stroke);
-            
-            broadcastToBoard(boardId, originalFormatMessage, null);
-            log.debug("Stroke broadcasted to board using original format: {}", boardId);
-        } catch (IOException e) {
-            log.error("Error broadcasting stroke to board: {}", boardId, e);
-            throw new IOException("Error broadcasting stroke", e);
+            replay = boardService.replay(boardId, request.getFrom(), request.getAfterSeq(), request.getLimit());
+        } catch (IllegalArgumentException e) {
+            sendErrorMessage(session, e.getMessage());
+            return;
+        }
+        if (replay == null) {
+            sendErrorMessage(session, "No history for board: " + boardId);
+            return;
         }
+        
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("type", "replayPage");
+        response.setAll((ObjectNode) objectMapper.valueToTree(replay));
+        send(session, new TextMessage(objectMapper.writeValueAsString(response)));
     }
 
-    private void handleClearBoard(WebSocketSession session, JsonNode jsonNode) throws IOException {
-        String boardId = jsonNode.get("boardId").asText();
-        if (boardId == null) {
-            throw new IllegalArgumentException("Board ID is required");
+    /**
+     * Reads a client viewport of the form {"x":0,"y":0,"width":800,"height":600}
+     *
+     * @return the viewport rectangle, or null if none was sent
+     */
+    private BoundingBox parseViewport(BoardRequest.Viewport viewport) {
+        if (viewport == null) {
+            return null;
         }
+        return BoundingBox.ofViewport(viewport.getX(), viewport.getY(), viewport.getWidth(), viewport.getHeight());
+    }
 
-        boardService.clearBoard(boardId);
+    private void handleCursor(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
+        String sessionBoardId = sessionToBoardMap.get(session.getId());
+        
+        if (sessionBoardId == null || !sessionBoardId.equals(boardId)) {
+            sendErrorMessage(session, "You are not connected to board: " + boardId);
+            return;
+        }
+        if (request.getX() == null || request.getY() == null) {
+            sendErrorMessage(session, "Cursor x and y are required");
+            return;
+        }
+        
+        // Updates over the session's rate are dropped silently; the next one replaces them anyway
+        presenceHub.update(boardId, session.getId(), request.getX(), request.getY());
+    }
 
-        // Broadcast clear to all sessions on the same board
-        Map<String, Object> clearMessage = new HashMap<>();
-        clearMessage.put("type", "boardCleared");
-        clearMessage.put("boardId", boardId);
+    /**
+     * Hands a board's presence message to every session's outbox, which sends it once its queue is empty
+     */
+    private void publishPresence(String boardId, TextMessage message) {
+        Set<WebSocketSession> sessions = boardSessionsMap.get(boardId);
+        if (sessions == null) {
+            return;
+        }
+        for (WebSocketSession targetSession : sessions) {
+            SessionOutbox outbox = outboxes.get(targetSession.getId());
+            if (outbox != null) {
+                outbox.presence(message);
+            }
+        }
+    }
+
+    private void handleStroke(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
+        String sessionBoardId = sessionToBoardMap.get(session.getId());
         
-        try {
-            broadcastToBoard(boardId, clearMessage, null);
-        } catch (IOException e) {
-            throw new IOException("Error broadcasting clear message", e);
+        if (sessionBoardId == null || !sessionBoardId.equals(boardId)) {
+            sendErrorMessage(session, "You are not connected to board: " + boardId);
+            return;
+        }
+        
+        // The stroke, points included, was decoded along with the message
+        StrokeDto stroke = request.getStroke();
+        if (stroke == null) {
+            sendErrorMessage(session, "Stroke is required");
+            return;
+        }
+        commitStroke(boardId, stroke, session);
+    }
+
+    private void commitStroke(String boardId, StrokeDto stroke, WebSocketSession session) {
+        int pointCount = stroke.getPoints() != null ? stroke.getPoints().size() : 0;
+        if (!admit(session, pointCount, stroke.getWidth())) {
+            return;
         }
+        onBoard(session, boardId, () -> {
+            // Save the stroke to the board; the op carries its sequence number
+            BoardOpDto op = boardService.addStroke(boardId, session.getId(), stroke);
+            
+            // Same "stroke" message shape as before, plus strokeId and seq
+            broadcastToBoard(boardId, op, () -> BoardFrameCodec.encodeOp(op), null);
+            log.debug("Stroke broadcasted to board {} at seq {}", boardId, op.getSeq());
+        });
     }
 
-    private void handleUndo(WebSocketSession session, JsonNode jsonNode) throws IOException {
-        String boardId = jsonNode.get("boardId").asText();
+    private void handleStrokeBegin(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
         String sessionBoardId = sessionToBoardMap.get(session.getId());
         
         if (sessionBoardId == null || !sessionBoardId.equals(boardId)) {
@@ -309,31 +847,268 @@ public class BoardSocketHandler extends TextWebSocketHandler {
             return;
         }
         
-        boolean success = boardService.undoLastStroke(boardId);
+        beginStroke(session, boardId, request.getStrokeId(), request.getColor(),
+                request.getWidth() != null ? request.getWidth() : 1, request.getPoints());
+    }
+
+    private void beginStroke(WebSocketSession session, String boardId, String requestedId, String color, int width,
+                             PackedPoints requestedPoints) throws IOException {
+        PackedPoints firstPoints = requestedPoints != null ? requestedPoints : PackedPoints.EMPTY;
+        Map<String, StreamingStroke> openStrokes = streamingStrokes.computeIfAbsent(session.getId(), k -> new ConcurrentHashMap<>());
+        if (openStrokes.size() >= MAX_OPEN_STROKES_PER_SESSION) {
+            sendErrorMessage(session, "Too many strokes in progress");
+            return;
+        }
+        // Later batches are checked as they come; the first must fit the limit before it is relayed.
+        // A stroke may begin without points, so only endStroke refuses an empty one
+        if (!admit(session, firstPoints.isEmpty() ? -1 : firstPoints.size(), width)) {
+            return;
+        }
         
-        if (!success) {
-            sendErrorMessage(session, "Nothing to undo");
+        String strokeId = requestedId != null ? requestedId : UUID.randomUUID().toString();
+        StreamingStroke stroke = new StreamingStroke(boardId, strokeId, color != null ? color : "#000000", width);
+        stroke.points.addAll(firstPoints);
+        openStrokes.put(strokeId, stroke);
+        
+        // Relay to peers right away so they can start drawing the line
+        Map<String, Object> beginMessage = new HashMap<>();
+        beginMessage.put("type", "strokeBegin");
+        beginMessage.put("boardId", boardId);
+        beginMessage.put("strokeId", strokeId);
+        beginMessage.put("userId", session.getId());
+        beginMessage.put("color", stroke.color);
+        beginMessage.put("width", stroke.width);
+        beginMessage.put("points", firstPoints);
+        
+        broadcastToBoard(boardId, beginMessage, () -> BoardFrameCodec.encodeStrokeBegin(
+                strokeId, session.getId(), stroke.color, stroke.width, firstPoints), session.getId(), -1, true);
+    }
+
+    private void handleStrokePoints(WebSocketSession session, BoardRequest request) throws IOException {
+        appendStrokePoints(session, request.getStrokeId(), request.getPoints());
+    }
+
+    private void appendStrokePoints(WebSocketSession session, String strokeId, PackedPoints batch) throws IOException {
+        StreamingStroke stroke = findStreamingStroke(session, strokeId);
+        if (stroke == null) {
             return;
         }
         
-        // Get the updated board state
-        BoardDto board = boardService.getBoardById(boardId);
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        if (!withinPointLimit(session, stroke, batch)) {
+            return;
+        }
+        stroke.points.addAll(batch);
         
-        // Send the undo confirmation to all sessions on this board with the full board state
-        Map<String, Object> response = new HashMap<>();
-        response.put("type", "strokeUndone");
-        response.put("boardId", boardId);
-        response.put("boardState", board);
+        Map<String, Object> pointsMessage = new HashMap<>();
+        pointsMessage.put("type", "strokePoints");
+        pointsMessage.put("boardId", stroke.boardId);
+        pointsMessage.put("strokeId", stroke.strokeId);
+        pointsMessage.put("points", batch);
+        
+        broadcastToBoard(stroke.boardId, pointsMessage,
+                () -> BoardFrameCodec.encodeStrokePoints(stroke.strokeId, batch), session.getId(), -1, true);
+    }
+
+    private void handleStrokeEnd(WebSocketSession session, BoardRequest request) throws IOException {
+        endStroke(session, request.getStrokeId(), request.getPoints());
+    }
+
+    private void endStroke(WebSocketSession session, String strokeId, PackedPoints requestedPoints) throws IOException {
+        StreamingStroke stroke = findStreamingStroke(session, strokeId);
+        if (stroke == null) {
+            return;
+        }
+        PackedPoints trailingPoints = requestedPoints != null ? requestedPoints : PackedPoints.EMPTY;
+        if (!withinPointLimit(session, stroke, trailingPoints)) {
+            return;
+        }
+        streamingStrokes.get(session.getId()).remove(stroke.strokeId);
+        
+        // Trailing points may ride along with the end message
+        stroke.points.addAll(trailingPoints);
+        
+        StrokeDto completed = new StrokeDto();
+        completed.setId(stroke.strokeId);
+        completed.setBoardId(stroke.boardId);
+        completed.setColor(stroke.color);
+        completed.setWidth(stroke.width);
+        completed.setPoints(stroke.points.build());
+        completed.setTimestamp(stroke.startedAt);
+        
+        onBoard(session, stroke.boardId, () -> {
+            // Only now does the stroke become part of the board
+            BoardOpDto op;
+            try {
+                op = boardService.addStroke(stroke.boardId, session.getId(), completed);
+            } catch (InvalidStrokeException e) {
+                // Peers drew the preview; have them drop it before the sender hears why
+                cancelStreamingStroke(session.getId(), stroke);
+                throw e;
+            }
+            
+            // Peers already have the points, so the commit notice only carries the ID
+            Map<String, Object> endMessage = new HashMap<>();
+            endMessage.put("type", "strokeEnd");
+            endMessage.put("boardId", stroke.boardId);
+            endMessage.put("strokeId", stroke.strokeId);
+            endMessage.put("seq", op.getSeq());
+            endMessage.put("pointCount", completed.getPoints().size());
+            
+            broadcastToBoard(stroke.boardId, endMessage, () -> BoardFrameCodec.encodeStrokeEnd(
+                    stroke.strokeId, op.getSeq(), completed.getPoints().size()), null, op.getSeq(), false);
+        });
+    }
+
+    private StreamingStroke findStreamingStroke(WebSocketSession session, String strokeId) throws IOException {
+        Map<String, StreamingStroke> openStrokes = streamingStrokes.get(session.getId());
+        StreamingStroke stroke = strokeId != null && openStrokes != null ? openStrokes.get(strokeId) : null;
+        
+        if (stroke == null) {
+            sendErrorMessage(session, "No stroke in progress: " + strokeId);
+        }
+        return stroke;
+    }
+
+    /**
+     * Abandons any strokes a session left open and tells peers to discard them
+     */
+    private void cancelStreamingStrokes(String sessionId) {
+        Map<String, StreamingStroke> openStrokes = streamingStrokes.remove(sessionId);
+        if (openStrokes == null) {
+            return;
+        }
+        
+        for (StreamingStroke stroke : openStrokes.values()) {
+            cancelStreamingStroke(sessionId, stroke);
+        }
+    }
+
+    private void cancelStreamingStroke(String sessionId, StreamingStroke stroke) {
+        Map<String, Object> cancelMessage = new HashMap<>();
+        cancelMessage.put("type", "strokeCancelled");
+        cancelMessage.put("boardId", stroke.boardId);
+        cancelMessage.put("strokeId", stroke.strokeId);
         
         try {
-            broadcastToBoard(boardId, response, null);
+            broadcastToBoard(stroke.boardId, cancelMessage, sessionId);
         } catch (IOException e) {
-            throw new IOException("Error broadcasting undo", e);
+            log.error("Error broadcasting stroke cancellation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Checks the points a streamed stroke would have with another batch. A stroke
+     * that grows past the limit is abandoned: peers discard it and the sender is told why.
+     *
+     * @return false if the stroke was abandoned
+     */
+    private boolean withinPointLimit(WebSocketSession session, StreamingStroke stroke, PackedPoints batch) {
+        try {
+            strokeAdmission.checkPoints(stroke.points.size() + batch.size());
+            return true;
+        } catch (InvalidStrokeException e) {
+            streamingStrokes.get(session.getId()).remove(stroke.strokeId);
+            cancelStreamingStroke(session.getId(), stroke);
+            rejectStroke(session, e);
+            return false;
+        }
+    }
+
+    /**
+     * Runs the checks that are cheap enough to do before a stroke is queued for its
+     * board: the session's rate limit, then the stroke's point count and width.
+     * Only the first stroke refused in a burst over the rate is answered, so a
+     * flooding client does not also get a flood of replies.
+     *
+     * @param pointCount points in the stroke, or -1 if they have not arrived yet
+     * @return false if the stroke was refused
+     */
+    private boolean admit(WebSocketSession session, int pointCount, int width) {
+        RateLimit rateLimit = strokeRateLimits.computeIfAbsent(session.getId(),
+                id -> new RateLimit(strokesPerSecond, strokeBurst));
+        if (!withinRate(session, rateLimit, "Too many strokes, slow down")) {
+            return false;
+        }
+        try {
+            if (pointCount >= 0) {
+                strokeAdmission.checkPoints(pointCount);
+            }
+            strokeAdmission.checkWidth(width);
+            return true;
+        } catch (InvalidStrokeException e) {
+            rejectStroke(session, e);
+            return false;
+        }
+    }
+
+    /**
+     * The same checks for an eraser message: the session's eraser rate limit,
+     * then the path's point count. The board quota for the fragments the erase
+     * leaves is checked when it is applied.
+     *
+     * @return false if the erase was refused
+     */
+    private boolean admitErase(WebSocketSession session, int pointCount) {
+        RateLimit rateLimit = eraseRateLimits.computeIfAbsent(session.getId(),
+                id -> new RateLimit(erasesPerSecond, eraseBurst));
+        if (!withinRate(session, rateLimit, "Too many eraser moves, slow down")) {
+            return false;
+        }
+        try {
+            strokeAdmission.checkPoints(pointCount);
+            return true;
+        } catch (InvalidStrokeException e) {
+            rejectStroke(session, e);
+            return false;
         }
     }
 
-    private void handleRedo(WebSocketSession session, JsonNode jsonNode) throws IOException {
-        String boardId = jsonNode.get("boardId").asText();
+    private boolean withinRate(WebSocketSession session, RateLimit rateLimit, String message) {
+        if (rateLimit.tryAcquire(System.nanoTime())) {
+            return true;
+        }
+        strokeAdmission.recordRateLimited();
+        if (rateLimit.deniedInARow() == 1) {
+            rejectStroke(session, new InvalidStrokeException(StrokeAdmission.RATE_LIMITED, message));
+        }
+        return false;
+    }
+
+    /**
+     * Tells a session its stroke was refused:
+     * {"type":"strokeRejected","code":"tooManyPoints","error":"..."}
+     */
+    private void rejectStroke(WebSocketSession session, InvalidStrokeException e) {
+        TextMessage frame = rejectionFrames.computeIfAbsent(e.getMessage(), message -> {
+            ObjectNode rejection = objectMapper.createObjectNode();
+            rejection.put("type", "strokeRejected");
+            rejection.put("code", e.getCode());
+            rejection.put("error", message);
+            return new TextMessage(rejection.toString());
+        });
+        send(session, frame);
+    }
+
+    private void handleClearBoard(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
+        if (boardId == null) {
+            sendErrorMessage(session, "Board ID is required");
+            return;
+        }
+
+        onBoard(session, boardId, () -> {
+            BoardOpDto op = boardService.clearBoard(boardId);
+            
+            // Broadcast clear to all sessions on the same board
+            broadcastToBoard(boardId, op, null);
+        });
+    }
+
+    private void handleUndo(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
         String sessionBoardId = sessionToBoardMap.get(session.getId());
         
         if (sessionBoardId == null || !sessionBoardId.equals(boardId)) {
@@ -341,31 +1116,69 @@ public class BoardSocketHandler extends TextWebSocketHandler {
             return;
         }
         
-        StrokeDto redoneStroke = boardService.redoLastStroke(boardId);
+        undo(session, boardId);
+    }
+
+    private void undo(WebSocketSession session, String boardId) {
+        onBoard(session, boardId, () -> {
+            // Each session undoes only its own strokes
+            BoardOpDto op = boardService.undoLastStroke(boardId, session.getId());
+            
+            if (op == null) {
+                sendErrorMessage(session, "Nothing to undo");
+                return;
+            }
+            
+            // Broadcast only the removed stroke's ID; clients ask for full state explicitly if they need it
+            broadcastToBoard(boardId, op, () -> BoardFrameCodec.encodeOp(op), null);
+        });
+    }
+
+    private void handleRedo(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
+        String sessionBoardId = sessionToBoardMap.get(session.getId());
         
-        if (redoneStroke == null) {
-            sendErrorMessage(session, "Nothing to redo");
+        if (sessionBoardId == null || !sessionBoardId.equals(boardId)) {
+            sendErrorMessage(session, "You are not connected to board: " + boardId);
             return;
         }
         
-        // Get the updated board state
-        BoardDto board = boardService.getBoardById(boardId);
-        
-        // Send the redo confirmation to all sessions on this board with the full board state
-        Map<String, Object> response = new HashMap<>();
-        response.put("type", "strokeRedone");
-        response.put("boardId", boardId);
-        response.put("boardState", board);
+        redo(session, boardId);
+    }
+
+    private void redo(WebSocketSession session, String boardId) {
+        onBoard(session, boardId, () -> {
+            BoardOpDto op = boardService.redoLastStroke(boardId, session.getId());
+            
+            if (op == null) {
+                sendErrorMessage(session, "Nothing to redo");
+                return;
+            }
+            
+            // Broadcast the restored stroke so clients can re-insert it
+            broadcastToBoard(boardId, op, () -> BoardFrameCodec.encodeOp(op), null);
+        });
+    }
+
+    private void handleEraseAt(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
+        String sessionBoardId = sessionToBoardMap.get(session.getId());
         
-        try {
-            broadcastToBoard(boardId, response, null);
-        } catch (IOException e) {
-            throw new IOException("Error broadcasting redo", e);
+        if (sessionBoardId == null || !sessionBoardId.equals(boardId)) {
+            sendErrorMessage(session, "You are not connected to board: " + boardId);
+            return;
         }
+        if (request.getX() == null || request.getY() == null) {
+            sendErrorMessage(session, "Eraser x and y are required");
+            return;
+        }
+        
+        erase(session, boardId, PackedPoints.of(new int[]{request.getX(), request.getY()}, 1),
+                request.getRadius() != null ? request.getRadius() : defaultEraserRadius);
     }
 
-    private void handleUpdateBoardSettings(WebSocketSession session, JsonNode jsonNode) throws IOException {
-        String boardId = jsonNode.get("boardId").asText();
+    private void handleErasePath(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
         String sessionBoardId = sessionToBoardMap.get(session.getId());
         
         if (sessionBoardId == null || !sessionBoardId.equals(boardId)) {
@@ -373,38 +1186,100 @@ public class BoardSocketHandler extends TextWebSocketHandler {
             return;
         }
         
-        JsonNode settingsNode = jsonNode.get("settings");
-        if (settingsNode == null) {
-            sendErrorMessage(session, "Settings are required");
+        erase(session, boardId, request.getPoints(),
+                request.getRadius() != null ? request.getRadius() : defaultEraserRadius);
+    }
+
+    private void erase(WebSocketSession session, String boardId, PackedPoints path, int radius) throws IOException {
+        if (path == null || path.isEmpty()) {
+            sendErrorMessage(session, "Eraser points are required");
+            return;
+        }
+        if (radius < 1 || radius > BoardModel.MAX_ERASER_RADIUS) {
+            sendErrorMessage(session, "Eraser radius must be between 1 and " + BoardModel.MAX_ERASER_RADIUS);
+            return;
+        }
+        if (!admitErase(session, path.size())) {
             return;
         }
         
-        int width = settingsNode.has("width") ? settingsNode.get("width").asInt() : 800;
-        int height = settingsNode.has("height") ? settingsNode.get("height").asInt() : 600;
-        String backgroundColor = settingsNode.has("backgroundColor") ? 
-                settingsNode.get("backgroundColor").asText() : "#FFFFFF";
-        boolean showGrid = settingsNode.has("showGrid") ? settingsNode.get("showGrid").asBoolean() : false;
-        int gridSize = settingsNode.has("gridSize") ? settingsNode.get("gridSize").asInt() : 20;
+        onBoard(session, boardId, () -> {
+            BoardOpDto op = boardService.erase(boardId, path, radius);
+            
+            // Missing everything is normal while dragging an eraser, so there is nothing to report
+            if (op == null) {
+                return;
+            }
+            
+            // Only the removed IDs and the fragments' point ranges; clients cut the fragments themselves
+            broadcastToBoard(boardId, op, () -> BoardFrameCodec.encodeOp(op), null);
+        });
+    }
+
+    private void handleUpdateBoardSettings(WebSocketSession session, BoardRequest request) throws IOException {
+        String boardId = request.getBoardId();
+        String sessionBoardId = sessionToBoardMap.get(session.getId());
         
-        // Update board settings
-        boardService.updateBoardSettings(boardId, width, height, backgroundColor, showGrid, gridSize);
+        if (sessionBoardId == null || !sessionBoardId.equals(boardId)) {
+            sendErrorMessage(session, "You are not connected to board: " + boardId);
+            return;
+        }
         
-        // Get updated board state
-        BoardDto updatedBoard = boardService.getBoardById(boardId);
+        BoardRequest.Settings settings = request.getSettings();
+        if (settings == null) {
+            sendErrorMessage(session, "Settings are required");
+            return;
+        }
         
-        // Send updated settings to all clients
-        Map<String, Object> response = new HashMap<>();
-        response.put("type", "boardSettingsUpdated");
-        response.put("boardId", boardId);
-        response.put("settings", Map.of(
-            "width", updatedBoard.getWidth(),
-            "height", updatedBoard.getHeight(),
-            "backgroundColor", updatedBoard.getBackgroundColor(),
-            "showGrid", updatedBoard.isShowGrid(),
-            "gridSize", updatedBoard.getGridSize()
-        ));
+        int width = settings.getWidth() != null ? settings.getWidth() : 800;
+        int height = settings.getHeight() != null ? settings.getHeight() : 600;
+        String backgroundColor = settings.getBackgroundColor() != null ? settings.getBackgroundColor() : "#FFFFFF";
+        boolean showGrid = settings.getShowGrid() != null ? settings.getShowGrid() : false;
+        int gridSize = settings.getGridSize() != null ? settings.getGridSize() : 20;
+        // Left unchanged when omitted, since most clients do not know about it
+        Double simplifyTolerance = settings.getSimplifyTolerance();
         
-        broadcastToBoard(boardId, response, null);
+        onBoard(session, boardId, () -> {
+            // Update board settings
+            BoardOpDto op;
+            try {
+                op = boardService.updateBoardSettings(boardId, width, height, backgroundColor, showGrid, gridSize,
+                        simplifyTolerance);
+            } catch (IllegalArgumentException e) {
+                sendErrorMessage(session, e.getMessage());
+                return;
+            }
+            
+            // Send updated settings to all clients
+            broadcastToBoard(boardId, op, null);
+        });
+    }
+
+    /**
+     * Runs a mutation and its broadcast on the board's writer. Failures are reported
+     * to the session that asked for the change.
+     */
+    private void onBoard(WebSocketSession session, String boardId, BoardTask task) {
+        boardActors.execute(boardId, () -> {
+            try {
+                task.run();
+            } catch (BoardNotFoundException e) {
+                reportError(session, "Board not found: " + boardId);
+            } catch (InvalidStrokeException e) {
+                rejectStroke(session, e);
+            } catch (IOException | RuntimeException e) {
+                log.error("Error applying change to board {} for session {}", boardId, session.getId(), e);
+                reportError(session, "Could not apply change to board: " + boardId);
+            }
+        });
+    }
+
+    private void reportError(WebSocketSession session, String message) {
+        try {
+            sendErrorMessage(session, message);
+        } catch (IOException e) {
+            log.warn("Failed to send error to session {}: {}", session.getId(), e.getMessage());
+        }
     }
 
     /**
@@ -414,13 +1289,98 @@ public class BoardSocketHandler extends TextWebSocketHandler {
      * @param message The message to broadcast
      * @param excludeSessionId Optional session ID to exclude from the broadcast (can be null)
      */
-    private void broadcastToBoard(String boardId, Map<String, Object> message, String excludeSessionId) throws IOException {
+    private void broadcastToBoard(String boardId, Object message, String excludeSessionId) throws IOException {
+        broadcastToBoard(boardId, message, null, excludeSessionId);
+    }
+
+    /**
+     * Broadcasts a message that also has a binary form. Sessions that negotiated the
+     * binary subprotocol get the frame, all others the JSON; each encoding is built
+     * at most once per broadcast.
+     *
+     * @param binaryFrame builds the binary frame, or returns null to send JSON to everyone; may be null
+     */
+    private void broadcastToBoard(String boardId, Object message, Supplier<byte[]> binaryFrame,
+                                  String excludeSessionId) throws IOException {
+        long seq = message instanceof BoardOpDto ? ((BoardOpDto) message).getSeq() : -1;
+        broadcastToBoard(boardId, message, binaryFrame, excludeSessionId, seq, false);
+    }
+
+    /**
+     * Broadcasts a message. Messages for every session on the board wait for the board's
+     * next batch flush; previews and messages that skip a session go out at once.
+     *
+     * @param seq board sequence number the message carries, or -1; lets a full outbox coalesce it
+     * @param preview true for live stroke previews, which a full outbox may drop
+     */
+    private void broadcastToBoard(String boardId, Object message, Supplier<byte[]> binaryFrame,
+                                  String excludeSessionId, long seq, boolean preview) throws IOException {
+        if (excludeSessionId == null && !preview) {
+            opBatcher.submit(boardId, message, binaryFrame, seq);
+            return;
+        }
+        sendToBoard(boardId, message, binaryFrame, excludeSessionId, seq, preview);
+    }
+
+    /**
+     * Sends one batch of ops. A single op goes out as its own message; several are wrapped
+     * in one "ops" message (or OPS frame) that is serialized once for all sessions.
+     */
+    private void flushOps(String boardId, List<BoardOpBatcher.PendingOp> ops) {
+        try {
+            if (ops.size() == 1) {
+                BoardOpBatcher.PendingOp op = ops.get(0);
+                sendToBoard(boardId, op.message, op.binaryFrame, null, op.seq, false);
+                return;
+            }
+            
+            List<Object> messages = new ArrayList<>(ops.size());
+            long firstSeq = -1;
+            for (BoardOpBatcher.PendingOp op : ops) {
+                messages.add(op.message);
+                if (firstSeq < 0) {
+                    firstSeq = op.seq;
+                }
+            }
+            Map<String, Object> batch = new HashMap<>();
+            batch.put("type", "ops");
+            batch.put("boardId", boardId);
+            batch.put("ops", messages);
+            
+            sendToBoard(boardId, batch, () -> encodeOpsFrame(ops), null, firstSeq, false);
+        } catch (IOException e) {
+            log.error("Error broadcasting {} ops to board {}", ops.size(), boardId, e);
+        }
+    }
+
+    /**
+     * @return the OPS frame, or null if any op is JSON-only, in which case binary clients get the JSON batch
+     */
+    private static byte[] encodeOpsFrame(List<BoardOpBatcher.PendingOp> ops) {
+        List<byte[]> frames = new ArrayList<>(ops.size());
+        for (BoardOpBatcher.PendingOp op : ops) {
+            byte[] frame = op.binaryFrame != null ? op.binaryFrame.get() : null;
+            if (frame == null) {
+                return null;
+            }
+            frames.add(frame);
+        }
+        return BoardFrameCodec.encodeOps(frames);
+    }
+
+    /**
+     * Queues a broadcast on every session's outbox. Returns without waiting for any client.
+     */
+    private void sendToBoard(String boardId, Object message, Supplier<byte[]> binaryFrame,
+                             String excludeSessionId, long seq, boolean preview) throws IOException {
         Set<WebSocketSession> sessions = boardSessionsMap.get(boardId);
         if (sessions == null || sessions.isEmpty()) {
             return;
         }
         
-        String messageJson = objectMapper.writeValueAsString(message);
+        TextMessage textMessage = null;
+        byte[] frame = null;
+        boolean frameEncoded = binaryFrame == null;
         
         for (WebSocketSession targetSession : sessions) {
             // Skip if this is the excluded session
@@ -429,12 +1389,25 @@ public class BoardSocketHandler extends TextWebSocketHandler {
             }
             
             if (targetSession.isOpen()) {
-                try {
-                    targetSession.sendMessage(new TextMessage(messageJson));
-                } catch (IOException e) {
-                    log.warn("Failed to send message to session {}: {}", targetSession.getId(), e.getMessage());
-                    // Remove failed session
-                    cleanupSession(targetSession);
+                boolean binaryClient = isBinaryClient(targetSession);
+                if (binaryClient && !frameEncoded) {
+                    frame = binaryFrame.get();
+                    frameEncoded = true;
+                }
+                WebSocketMessage<?> outbound;
+                if (binaryClient && frame != null) {
+                    // Sending consumes the message's buffer, so each session gets its own wrapper
+                    outbound = new BinaryMessage(frame);
+                } else {
+                    if (textMessage == null) {
+                        textMessage = new TextMessage(objectMapper.writeValueAsString(message));
+                    }
+                    outbound = textMessage;
+                }
+                SessionOutbox outbox = outboxes.get(targetSession.getId());
+                if (outbox != null) {
+                    // A full outbox closes its session; cleanup follows from afterConnectionClosed
+                    outbox.broadcast(outbound, seq, preview);
                 }
             } else {
                 // Remove closed session
@@ -456,16 +1429,13 @@ public class BoardSocketHandler extends TextWebSocketHandler {
             return;
         }
         
-        String messageJson = objectMapper.writeValueAsString(eventMessage);
+        TextMessage message = new TextMessage(objectMapper.writeValueAsString(eventMessage));
         
         for (WebSocketSession targetSession : sessions) {
             if (targetSession.isOpen()) {
-                try {
-                    targetSession.sendMessage(new TextMessage(messageJson));
-                } catch (IOException e) {
-                    log.warn("Failed to send event to session {}: {}", targetSession.getId(), e.getMessage());
-                    // Remove failed session
-                    cleanupSession(targetSession);
+                SessionOutbox outbox = outboxes.get(targetSession.getId());
+                if (outbox != null) {
+                    outbox.broadcast(message, -1, false);
                 }
             } else {
                 // Remove closed session
@@ -492,9 +1462,20 @@ public class BoardSocketHandler extends TextWebSocketHandler {
      */
     private void cleanupSession(WebSocketSession session) {
         String sessionId = session.getId();
+        cancelStreamingStrokes(sessionId);
+        strokeRateLimits.remove(sessionId);
+        eraseRateLimits.remove(sessionId);
+        SessionOutbox outbox = outboxes.remove(sessionId);
+        if (outbox != null) {
+            outbox.close();
+            metrics.removeGauge("board.outbound.depth.session." + sessionId);
+        }
         String boardId = sessionToBoardMap.remove(sessionId);
         
         if (boardId != null) {
+            boardService.detachSession(boardId);
+            presenceHub.leave(boardId, sessionId);
+            
             // Notify other users when someone leaves the board
             Map<String, Object> leftMessage = new HashMap<>();
             leftMessage.put("type", "userLeft");
@@ -515,6 +1496,10 @@ public class BoardSocketHandler extends TextWebSocketHandler {
                 // If no more sessions for this board, clean up the map
                 if (boardSessions.isEmpty()) {
                     boardSessionsMap.remove(boardId);
+                    opBatcher.remove(boardId);
+                    presenceHub.remove(boardId);
+                    boardActors.release(boardId);
+                    metrics.removeGauge("board.outbound.depth.board." + boardId);
                 }
             }
         }
@@ -526,34 +1511,86 @@ public class BoardSocketHandler extends TextWebSocketHandler {
     }
     
     /**
-     * Sends heartbeats to all connected WebSocket sessions to keep them alive
+     * Sends heartbeats to all connected WebSocket sessions to keep them alive.
+     * Pings are queued behind pending messages rather than written from this thread,
+     * which would race with the sender writing to the same session.
      */
     private void sendHeartbeats() {
-        PingMessage ping = new PingMessage();
-        
         for (Set<WebSocketSession> sessions : boardSessionsMap.values()) {
             for (WebSocketSession session : sessions) {
-                try {
-                    if (session.isOpen()) {
-                        session.sendMessage(ping);
-                    }
-                } catch (IOException e) {
-                    log.warn("Failed to send heartbeat to session {}: {}", session.getId(), e.getMessage());
-                    try {
-                        cleanupSession(session);
-                    } catch (Exception ex) {
-                        log.error("Error cleaning up session after heartbeat failure: {}", ex.getMessage());
-                    }
+                if (session.isOpen()) {
+                    send(session, new PingMessage());
+                } else {
+                    cleanupSession(session);
                 }
             }
         }
     }
 
+    /**
+     * Disconnects sessions whose current send has outlived the send time limit
+     */
+    private void checkStalledSends() {
+        long now = System.currentTimeMillis();
+        for (SessionOutbox outbox : outboxes.values()) {
+            outbox.checkStalled(now);
+        }
+    }
+
+    /**
+     * Queues a message for one session. Replies and heartbeats are never dropped.
+     */
+    private void send(WebSocketSession session, WebSocketMessage<?> message) {
+        SessionOutbox outbox = outboxes.get(session.getId());
+        if (outbox != null) {
+            outbox.send(message);
+        }
+    }
+
+    /**
+     * Tells a client its queued ops were coalesced away; it should send requestFullState with this lastSeq
+     */
+    private WebSocketMessage<?> resyncNotice(String sessionId, long lastSeq) {
+        ObjectNode notice = objectMapper.createObjectNode();
+        notice.put("type", "resyncRequired");
+        notice.put("boardId", sessionToBoardMap.get(sessionId));
+        notice.put("lastSeq", lastSeq);
+        return new TextMessage(notice.toString());
+    }
+
     private void sendErrorMessage(WebSocketSession session, String message) throws IOException {
         Map<String, Object> errorResponse = Map.of(
             "error", message
         );
         String errorJson = objectMapper.writeValueAsString(errorResponse);
-        session.sendMessage(new TextMessage(errorJson));
+        send(session, new TextMessage(errorJson));
+    }
+
+    /**
+     * Work done on a board's writer
+     */
+    @FunctionalInterface
+    private interface BoardTask {
+        void run() throws IOException;
+    }
+
+    /**
+     * A stroke that is still being drawn by one session
+     */
+    private static class StreamingStroke {
+        private final String boardId;
+        private final String strokeId;
+        private final String color;
+        private final int width;
+        private final long startedAt;
+        private final PackedPoints.Builder points = new PackedPoints.Builder();
+
+        StreamingStroke(String boardId, String strokeId, String color, int width) {
+            this.boardId = boardId;
+            this.strokeId = strokeId;
+            this.color = color;
+            this.width = width;
+            this.startedAt = System.currentTimeMillis();
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package EduJam.AI.handler;
+
+import EduJam.AI.dto.StrokeDto;
+import EduJam.AI.service.BoardMetrics;
+import EduJam.AI.service.BoardTransfer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Iterator;
+
+/**
+ * Sends a board's state to one joining client as a series of bounded messages:
+ * <pre>
+ * {"type":"boardJoinStart","boardId":...,"userId":...,"version":42,"strokeCount":12000,"board":{...settings, "strokes":[]}}
+ * {"type":"boardJoinPage","boardId":...,"version":42,"page":0,"strokes":[...]}
+ * ...
+ * {"type":"boardJoinEnd","boardId":...,"version":42,"pages":24}
+ * </pre>
+ * A page ends once it holds the maximum number of strokes or passes the byte limit,
+ * so it is at most one stroke over the limit. Pages are serialized one at a time as
+ * the session's outbox asks for them; ops broadcast meanwhile wait behind the end
+ * message and all carry a seq after the version.
+ */
+final class BoardStatePages implements SessionOutbox.Stream {
+    private final BoardTransfer transfer;
+    private final String userId;
+    private final ObjectMapper objectMapper;
+    private final int maxStrokes;
+    private final int maxChars;
+    private final BoardMetrics metrics;
+    private Iterator<StrokeDto> strokes;
+    private int pages;
+    private boolean ended;
+
+    BoardStatePages(BoardTransfer transfer, String userId, ObjectMapper objectMapper, int maxStrokes, int maxChars,
+                    BoardMetrics metrics) {
+        this.transfer = transfer;
+        this.userId = userId;
+        this.objectMapper = objectMapper;
+        this.maxStrokes = Math.max(1, maxStrokes);
+        this.maxChars = Math.max(1, maxChars);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public WebSocketMessage<?> next() throws IOException {
+        if (strokes == null) {
+            strokes = transfer.strokes();
+            return start();
+        }
+        if (strokes.hasNext()) {
+            return page();
+        }
+        if (!ended) {
+            ended = true;
+            return end();
+        }
+        return null;
+    }
+
+    private WebSocketMessage<?> start() {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("type", "boardJoinStart");
+        message.put("boardId", transfer.getBoard().getId());
+        message.put("userId", userId);
+        message.put("version", transfer.getVersion());
+        message.put("strokeCount", transfer.getStrokeCount());
+        message.set("board", objectMapper.valueToTree(transfer.getBoard()));
+        return new TextMessage(message.toString());
+    }
+
+    private WebSocketMessage<?> page() throws IOException {
+        StringWriter out = new StringWriter(Math.min(maxChars, 1 << 16) + 1024);
+        int count = 0;
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("type", "boardJoinPage");
+            json.writeStringField("boardId", transfer.getBoard().getId());
+            json.writeNumberField("version", transfer.getVersion());
+            json.writeNumberField("page", pages);
+            json.writeArrayFieldStart("strokes");
+            while (strokes.hasNext() && count < maxStrokes && out.getBuffer().length() < maxChars) {
+                json.writeObject(strokes.next());
+                json.flush();
+                count++;
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        pages++;
+        metrics.increment("board.join.pages");
+        metrics.add("board.join.pageBytes", out.getBuffer().length());
+        return new TextMessage(out.toString());
+    }
+
+    private WebSocketMessage<?> end() {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("type", "boardJoinEnd");
+        message.put("boardId", transfer.getBoard().getId());
+        message.put("version", transfer.getVersion());
+        message.put("pages", pages);
+        return new TextMessage(message.toString());
+    }
+}
@@ -1,5 +1,7 @@
 package EduJam.AI.handler;
 
+import EduJam.AI.codec.InboundMessageDecoder;
+import EduJam.AI.dto.ChatRequest;
 import EduJam.AI.model.ChatMessageModel;
 import EduJam.AI.model.UserSessionModel;
 import EduJam.AI.service.ChatService;
@@ -29,6 +31,7 @@ public class ChatSocketHandler extends TextWebSocketHandler {
     private final UserSessionService sessionService;
     private final FileStorageService fileStorageService;
     private final ObjectMapper objectMapper;
+    private final InboundMessageDecoder messageDecoder;
     private final Map<String, FileUploadState> fileUploads = new ConcurrentHashMap<>();
 
     public ChatSocketHandler(ChatService chatService, UserSessionService sessionService, 
@@ -37,6 +40,7 @@ public class ChatSocketHandler extends TextWebSocketHandler {
         this.sessionService = sessionService;
         this.fileStorageService = fileStorageService;
         this.objectMapper = objectMapper;
+        this.messageDecoder = new InboundMessageDecoder(objectMapper);
     }
 
     @Override
@@ -53,8 +57,8 @@ public class ChatSocketHandler extends TextWebSocketHandler {
         logger.info("Received message from session {}: {}", sessionId, message.getPayload());
 
         try {
-            Map<String, Object> payload = objectMapper.readValue(message.getPayload(), Map.class);
-            String type = (String) payload.get("type");
+            ChatRequest payload = messageDecoder.decode(message.getPayload(), ChatRequest::new);
+            String type = payload.getType();
             logger.info("Message type: {}", type);
 
             switch (type) {
@@ -71,7 +75,7 @@ public class ChatSocketHandler extends TextWebSocketHandler {
                     handleInitFileUpload(session, payload);
                     break;
                 case "fileUploadComplete":
-                    handleFileUploadComplete(session, payload);
+                    handleFileUploadComplete(session, payload.getFileId());
                     break;
                 case "cancelFileUpload":
                     handleCancelFileUpload(session, payload);
@@ -135,11 +139,7 @@ public class ChatSocketHandler extends TextWebSocketHandler {
             // Check if upload is complete
             if (uploadState.getBytesUploaded() >= uploadState.getTotalSize()) {
                 try {
-                    handleFileUploadComplete(session, Map.of(
-                        "fileId", uploadState.getFileId(),
-                        "fileName", uploadState.getFileName(),
-                        "mimeType", uploadState.getMimeType()
-                    ));
+                    handleFileUploadComplete(session, uploadState.getFileId());
                 } catch (Exception e) {
                     logger.error("Error handling file upload completion", e);
                     session.sendMessage(new TextMessage(objectMapper.writeValueAsString(Map.of(
@@ -161,9 +161,9 @@ public class ChatSocketHandler extends TextWebSocketHandler {
         }
     }
 
-    private void handleRegister(WebSocketSession session, Map<String, Object> payload) throws Exception {
-        String sessionId = (String) payload.get("sessionId");
-        String username = (String) payload.get("username");
+    private void handleRegister(WebSocketSession session, ChatRequest payload) throws Exception {
+        String sessionId = payload.getSessionId();
+        String username = payload.getUsername();
         logger.info("Handling register for session {} with username {}", sessionId, username);
 
         if (sessionId == null || username == null) {
@@ -180,9 +180,9 @@ public class ChatSocketHandler extends TextWebSocketHandler {
         ))));
     }
 
-    private void handleMessage(WebSocketSession session, Map<String, Object> payload) throws Exception {
-        String sessionId = (String) payload.get("sessionId");
-        String messageText = (String) payload.get("message");
+    private void handleMessage(WebSocketSession session, ChatRequest payload) throws Exception {
+        String sessionId = payload.getSessionId();
+        String messageText = payload.getMessage();
         logger.info("Handling message for session {}: {}", sessionId, messageText);
 
         if (sessionId == null || messageText == null) {
@@ -251,8 +251,8 @@ public class ChatSocketHandler extends TextWebSocketHandler {
         }
     }
 
-    private void handleGetHistory(WebSocketSession session, Map<String, Object> payload) throws Exception {
-        String sessionId = (String) payload.get("sessionId");
+    private void handleGetHistory(WebSocketSession session, ChatRequest payload) throws Exception {
+        String sessionId = payload.getSessionId();
         logger.info("Getting chat history for session: {}", sessionId);
         
         if (sessionId == null) {
@@ -266,11 +266,14 @@ public class ChatSocketHandler extends TextWebSocketHandler {
         ))));
     }
     
-    private void handleInitFileUpload(WebSocketSession session, Map<String, Object> payload) throws Exception {
+    private void handleInitFileUpload(WebSocketSession session, ChatRequest payload) throws Exception {
         String sessionId = session.getId();
-        String fileName = (String) payload.get("fileName");
-        String mimeType = (String) payload.get("mimeType");
-        Long fileSize = ((Number) payload.get("fileSize")).longValue();
+        String fileName = payload.getFileName();
+        String mimeType = payload.getMimeType();
+        Long fileSize = payload.getFileSize();
+        if (fileSize == null) {
+            throw new IllegalArgumentException("File size is required");
+        }
         
         logger.info("Initializing file upload for session {}: {} ({}, {} bytes)", 
                    sessionId, fileName, mimeType, fileSize);
@@ -303,9 +306,8 @@ public class ChatSocketHandler extends TextWebSocketHandler {
         ))));
     }
     
-    private void handleFileUploadComplete(WebSocketSession session, Map<String, Object> payload) throws Exception {
+    private void handleFileUploadComplete(WebSocketSession session, String fileId) throws Exception {
         String sessionId = session.getId();
-        String fileId = (String) payload.get("fileId");
         
         logger.info("File upload complete for session {}, file ID: {}", sessionId, fileId);
         
@@ -395,9 +397,9 @@ public class ChatSocketHandler extends TextWebSocketHandler {
         fileUploads.remove(sessionId);
     }
     
-    private void handleCancelFileUpload(WebSocketSession session, Map<String, Object> payload) throws Exception {
+    private void handleCancelFileUpload(WebSocketSession session, ChatRequest payload) throws Exception {
         String sessionId = session.getId();
-        String fileId = (String) payload.get("fileId");
+        String fileId = payload.getFileId();
         
         logger.info("Cancelling file upload for session {}, file ID: {}", sessionId, fileId);
         
@@ -0,0 +1,174 @@
+package EduJam.AI.handler;
+
+import EduJam.AI.service.BoardMetrics;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays live cursor positions between the sessions on a board.
+ *
+ * Presence is ephemeral: it never touches the board model, the board's writer or
+ * the op batches, and nothing about it is stored. Each board keeps only the latest
+ * position per user; once per tick the positions that changed are sent to the
+ * board as one "presence" message, serialized once for every session:
+ * {"type":"presence","boardId":...,"cursors":[{"userId":...,"x":10,"y":20}]}.
+ *
+ * Each session may send a limited number of updates per second; updates over the
+ * limit are dropped, as the next one supersedes them anyway.
+ */
+final class PresenceHub {
+    private static final Logger log = LoggerFactory.getLogger(PresenceHub.class);
+
+    /**
+     * Sends a board's presence message to its sessions
+     */
+    interface Publisher {
+        void publish(String boardId, TextMessage message);
+    }
+
+    private final Map<String, BoardPresence> boards = new ConcurrentHashMap<>();
+    private final Map<String, RateLimit> rateLimits = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final long tickMs;
+    private final double maxPerSecond;
+    private final JsonFactory jsonFactory;
+    private final Publisher publisher;
+    private final BoardMetrics metrics;
+
+    /**
+     * @param maxPerSecond updates each session may send per second, also the burst it may send at once
+     */
+    PresenceHub(ScheduledExecutorService scheduler, long tickMs, double maxPerSecond, JsonFactory jsonFactory,
+                Publisher publisher, BoardMetrics metrics) {
+        this.scheduler = scheduler;
+        this.tickMs = tickMs;
+        this.maxPerSecond = maxPerSecond;
+        this.jsonFactory = jsonFactory;
+        this.publisher = publisher;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Records a user's cursor position for the board's next presence message
+     *
+     * @return false if the session is over its rate limit and the update was dropped
+     */
+    boolean update(String boardId, String userId, int x, int y) {
+        RateLimit rateLimit = rateLimits.computeIfAbsent(userId, id -> new RateLimit(maxPerSecond, maxPerSecond));
+        if (!rateLimit.tryAcquire(System.nanoTime())) {
+            metrics.increment("board.presence.throttled");
+            return false;
+        }
+        metrics.increment("board.presence.updates");
+
+        BoardPresence board = boards.computeIfAbsent(boardId, BoardPresence::new);
+        synchronized (board) {
+            if (board.pending.put(userId, new Cursor(x, y)) != null) {
+                metrics.increment("board.presence.coalesced");
+            }
+            if (board.scheduled) {
+                return true;
+            }
+            board.scheduled = true;
+            try {
+                scheduler.schedule(() -> flush(board), tickMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; cursors are not worth delivering
+                board.scheduled = false;
+                board.pending.clear();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Forgets a user who left a board, so a pending position does not bring their cursor back
+     */
+    void leave(String boardId, String userId) {
+        rateLimits.remove(userId);
+        BoardPresence board = boards.get(boardId);
+        if (board != null) {
+            synchronized (board) {
+                board.pending.remove(userId);
+            }
+        }
+    }
+
+    /**
+     * Forgets a board that has no sessions left
+     */
+    void remove(String boardId) {
+        boards.remove(boardId);
+    }
+
+    private void flush(BoardPresence board) {
+        Map<String, Cursor> cursors;
+        synchronized (board) {
+            board.scheduled = false;
+            if (board.pending.isEmpty()) {
+                return;
+            }
+            cursors = board.pending;
+            board.pending = new LinkedHashMap<>();
+        }
+        try {
+            publisher.publish(board.boardId, new TextMessage(toJson(board.boardId, cursors)));
+            metrics.increment("board.presence.flushes");
+        } catch (IOException | RuntimeException e) {
+            log.error("Error publishing presence on board {}", board.boardId, e);
+        }
+    }
+
+    private String toJson(String boardId, Map<String, Cursor> cursors) throws IOException {
+        StringWriter writer = new StringWriter(64 + cursors.size() * 48);
+        try (JsonGenerator gen = jsonFactory.createGenerator(writer)) {
+            gen.writeStartObject();
+            gen.writeStringField("type", "presence");
+            gen.writeStringField("boardId", boardId);
+            gen.writeArrayFieldStart("cursors");
+            for (Map.Entry<String, Cursor> entry : cursors.entrySet()) {
+                gen.writeStartObject();
+                gen.writeStringField("userId", entry.getKey());
+                gen.writeNumberField("x", entry.getValue().x);
+                gen.writeNumberField("y", entry.getValue().y);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+        return writer.toString();
+    }
+
+    private static final class BoardPresence {
+        private final String boardId;
+        // Latest position per user since the last flush, guarded by this
+        private Map<String, Cursor> pending = new LinkedHashMap<>();
+        private boolean scheduled;
+
+        BoardPresence(String boardId) {
+            this.boardId = boardId;
+        }
+    }
+
+    private static final class Cursor {
+        private final int x;
+        private final int y;
+
+        Cursor(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+}
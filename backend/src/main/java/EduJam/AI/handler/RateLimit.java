@@ -0,0 +1,44 @@
+package EduJam.AI.handler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket refilled continuously at the allowed rate
+ */
+final class RateLimit {
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    // Requests refused since the last one that got through
+    private int deniedInARow;
+
+    /**
+     * @param burst requests that may be made at once after a quiet period; at least one
+     */
+    RateLimit(double perSecond, double burst) {
+        this.ratePerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(burst, 1);
+        this.tokens = capacity;
+    }
+
+    synchronized boolean tryAcquire(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * ratePerNano);
+        refilledAt = now;
+        if (tokens < 1) {
+            deniedInARow++;
+            return false;
+        }
+        tokens--;
+        deniedInARow = 0;
+        return true;
+    }
+
+    /**
+     * Number of requests refused since the last one allowed, so a caller can
+     * report only the first refusal of a burst
+     */
+    synchronized int deniedInARow() {
+        return deniedInARow;
+    }
+}
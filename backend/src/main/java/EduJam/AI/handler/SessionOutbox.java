@@ -0,0 +1,508 @@
+package EduJam.AI.handler;
+
+import EduJam.AI.service.BoardMetrics;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded outbound queue for one WebSocket session.
+ *
+ * Every message to the session goes through its outbox, so writes never overlap
+ * (the heartbeat thread used to write concurrently with broadcasts) and a slow
+ * client never blocks the thread that produced the message. Messages are sent in
+ * order by a task on the shared sender pool; only one task per session runs at a time.
+ * Text and binary messages are written with the container's async sends, so the task
+ * gives its thread back while the write is in flight and the completion callback picks
+ * up draining again. A client that stops reading therefore holds no sender thread.
+ *
+ * Broadcast traffic is bounded by message count and bytes. What happens when a
+ * client falls behind depends on the {@link OverflowPolicy}. Replies to the
+ * session's own requests and heartbeats are not counted, since a client only gets
+ * as many of those as it asks for. A send that has not completed within the send
+ * time limit fails the session: the container times out its own writes, and
+ * {@link #checkStalled} catches any send that outlives the limit regardless. Disconnects
+ * run on a separate closer executor, since closing writes a close frame that may wait
+ * behind the stalled send.
+ *
+ * Disconnected clients reconnect with their lastSeq and resume from the board's
+ * op buffer, or get full state if they fell too far behind.
+ *
+ * Presence updates bypass the queue: the outbox holds only the latest one and
+ * sends it once nothing else is waiting, so cursors never delay ops.
+ *
+ * Large state goes out as a {@link Stream}: each part is built only once the one
+ * before it has been written, and everything queued behind the stream waits until
+ * its last part is out.
+ */
+final class SessionOutbox {
+    private static final Logger log = LoggerFactory.getLogger(SessionOutbox.class);
+
+    // Messages one drain task sends before yielding its sender thread to other sessions
+    private static final int MAX_SENDS_PER_RUN = 64;
+
+    // Tomcat session property bounding blocking writes, which include pings and the close frame
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private static final CloseStatus OVERFLOW_STATUS =
+            CloseStatus.SESSION_NOT_RELIABLE.withReason("Outbound queue overflow, reconnect with lastSeq");
+
+    /**
+     * A message sent in parts. The outbox asks for each part only once the previous one
+     * has been written, so a transfer holds one part in memory at a time and goes at the
+     * pace the client reads.
+     */
+    interface Stream {
+        /**
+         * @return the next part, or null once every part has been sent
+         */
+        WebSocketMessage<?> next() throws IOException;
+    }
+
+    /**
+     * What to do when a session's broadcast backlog is full
+     */
+    enum OverflowPolicy {
+        /** Drop the oldest live stroke previews; disconnect if only ops are left */
+        DROP_OLDEST,
+        /** Disconnect at once so the client reconnects and resyncs */
+        DISCONNECT,
+        /** Replace queued ops and previews with one resync notice carrying the last delivered seq */
+        COALESCE;
+
+        /**
+         * Parses a property value such as "drop-oldest"
+         */
+        static OverflowPolicy parse(String value) {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    private final WebSocketSession session;
+    private final Executor sender;
+    private final Executor closer;
+    // Container endpoint for async sends, or null if the session is not a standard one
+    private final RemoteEndpoint.Async asyncRemote;
+    private final OverflowPolicy policy;
+    private final int maxMessages;
+    private final long maxBytes;
+    private final long sendTimeLimitMs;
+    private final BoardMetrics metrics;
+    // Builds the notice that replaces coalesced ops, given the last seq the client still receives
+    private final LongFunction<WebSocketMessage<?>> resyncNotice;
+
+    // Everything below is guarded by this
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    private int boundedCount;
+    private long boundedBytes;
+    private long queuedBytes;
+    private boolean draining;
+    private boolean closed;
+    private Entry pendingResync;
+    // Latest presence update not yet sent
+    private WebSocketMessage<?> pendingPresence;
+
+    // When the send in progress started, or 0 while idle
+    private volatile long sendStartedAt;
+
+    SessionOutbox(WebSocketSession session, Executor sender, Executor closer, OverflowPolicy policy, int maxMessages,
+                  long maxBytes, long sendTimeLimitMs, BoardMetrics metrics,
+                  LongFunction<WebSocketMessage<?>> resyncNotice) {
+        this.session = session;
+        this.sender = sender;
+        this.closer = closer;
+        this.asyncRemote = asyncRemote(session, sendTimeLimitMs);
+        this.policy = policy;
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.metrics = metrics;
+        this.resyncNotice = resyncNotice;
+    }
+
+    /**
+     * Queues a reply or heartbeat; these are never dropped and do not count against the bounds
+     *
+     * @return false if the outbox is closed
+     */
+    boolean send(WebSocketMessage<?> message) {
+        return offer(new Entry(message, -1, false, false));
+    }
+
+    /**
+     * Queues a broadcast message, applying the overflow policy if the backlog is full
+     *
+     * @param seq board sequence number the message carries, or -1
+     * @param preview true for live stroke previews, which are superseded once the stroke is committed
+     * @return false if the outbox is closed, including when this message made it disconnect
+     */
+    boolean broadcast(WebSocketMessage<?> message, long seq, boolean preview) {
+        return offer(new Entry(message, seq, preview, true));
+    }
+
+    /**
+     * Queues a stream. Messages queued after it are held back until its last part is sent.
+     * The parts do not count against the bounds; broadcasts waiting behind the stream do.
+     *
+     * @return false if the outbox is closed
+     */
+    boolean stream(Stream stream) {
+        return offer(new Entry(stream));
+    }
+
+    /**
+     * Sets the presence update to send once the queue is empty, replacing one not sent yet.
+     * Presence does not count against the bounds.
+     *
+     * @return false if the outbox is closed
+     */
+    boolean presence(WebSocketMessage<?> message) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (pendingPresence != null) {
+                metrics.increment("board.presence.superseded");
+            }
+            pendingPresence = message;
+            if (draining) {
+                return true;
+            }
+            draining = true;
+        }
+        sender.execute(this::drain);
+        return true;
+    }
+
+    synchronized int depth() {
+        return queue.size();
+    }
+
+    synchronized long bytes() {
+        return queuedBytes;
+    }
+
+    /**
+     * Disconnects the session if its current send has been in flight longer than the send
+     * time limit. Called periodically, so a stalled client is closed even when nothing new
+     * is queued for it.
+     */
+    void checkStalled(long now) {
+        long startedAt = sendStartedAt;
+        if (startedAt == 0 || now - startedAt <= sendTimeLimitMs) {
+            return;
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            clear();
+        }
+        log.warn("Send to session {} stalled for over {} ms", session.getId(), sendTimeLimitMs);
+        metrics.increment("board.outbound.disconnects");
+        closer.execute(this::closeForResync);
+    }
+
+    /**
+     * Drops everything still queued; called once the session is gone
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            clear();
+        }
+    }
+
+    private boolean offer(Entry entry) {
+        boolean disconnect = false;
+        boolean startDrain = false;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            add(entry);
+            if (isFull() && !relieve()) {
+                disconnect = true;
+            }
+            if (disconnect) {
+                closed = true;
+                clear();
+            } else if (!draining) {
+                draining = true;
+                startDrain = true;
+            }
+        }
+
+        if (disconnect) {
+            metrics.increment("board.outbound.disconnects");
+            closer.execute(this::closeForResync);
+            return false;
+        }
+        if (startDrain) {
+            sender.execute(this::drain);
+        }
+        return true;
+    }
+
+    private void drain() {
+        for (int sent = 0; sent < MAX_SENDS_PER_RUN; sent++) {
+            WebSocketMessage<?> message;
+            Entry streaming = null;
+            synchronized (this) {
+                Entry entry = queue.peekFirst();
+                if (closed || (entry == null && pendingPresence == null)) {
+                    draining = false;
+                    return;
+                }
+                if (entry != null && entry.stream != null) {
+                    // Stays at the head until its last part is out
+                    streaming = entry;
+                    message = null;
+                } else if (entry != null) {
+                    queue.pollFirst();
+                    remove(entry);
+                    if (entry == pendingResync) {
+                        pendingResync = null;
+                    }
+                    message = entry.message;
+                } else {
+                    message = pendingPresence;
+                    pendingPresence = null;
+                }
+            }
+
+            if (streaming != null) {
+                // Built outside the lock; only this drain task reads the head of the queue
+                try {
+                    message = streaming.stream.next();
+                } catch (IOException | RuntimeException e) {
+                    log.error("Failed to build streamed message for session {}", session.getId(), e);
+                    close();
+                    closer.execute(() -> closeQuietly(CloseStatus.SERVER_ERROR));
+                    return;
+                }
+                if (message == null) {
+                    synchronized (this) {
+                        if (queue.peekFirst() == streaming) {
+                            queue.pollFirst();
+                        }
+                    }
+                    continue;
+                }
+            }
+
+            if (!session.isOpen()) {
+                continue;
+            }
+            sendStartedAt = System.currentTimeMillis();
+            if (asyncRemote != null && (message instanceof TextMessage || message instanceof BinaryMessage)) {
+                // Gives the thread back; the completion callback resumes draining
+                sendAsync(message);
+                return;
+            }
+            // Pings, and sessions without an async endpoint; the container bounds these writes
+            try {
+                session.sendMessage(message);
+                metrics.increment("board.outbound.sent");
+            } catch (IOException | IllegalStateException e) {
+                sendFailed(e);
+                return;
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+        // Still draining; requeue so busy sessions share the sender threads
+        sender.execute(this::drain);
+    }
+
+    private void sendAsync(WebSocketMessage<?> message) {
+        SendHandler handler = result -> {
+            sendStartedAt = 0;
+            if (result.isOK()) {
+                metrics.increment("board.outbound.sent");
+                sender.execute(this::drain);
+            } else {
+                sendFailed(result.getException());
+            }
+        };
+        try {
+            if (message instanceof TextMessage) {
+                asyncRemote.sendText(((TextMessage) message).getPayload(), handler);
+            } else {
+                // Broadcast payloads are shared across sessions, so each send gets its own position
+                asyncRemote.sendBinary(((BinaryMessage) message).getPayload().duplicate(), handler);
+            }
+        } catch (IllegalStateException e) {
+            sendStartedAt = 0;
+            sendFailed(e);
+        }
+    }
+
+    private void sendFailed(Throwable e) {
+        synchronized (this) {
+            // Already disconnected, for instance by checkStalled while this send was in flight
+            if (closed) {
+                return;
+            }
+            closed = true;
+            clear();
+        }
+        log.warn("Failed to send message to session {}: {}", session.getId(), e != null ? e.getMessage() : null);
+        metrics.increment("board.outbound.sendErrors");
+        closer.execute(() -> closeQuietly(CloseStatus.SERVER_ERROR));
+    }
+
+    private boolean isFull() {
+        return boundedCount > maxMessages || boundedBytes > maxBytes;
+    }
+
+    /**
+     * Applies the overflow policy to the queued broadcasts
+     *
+     * @return true if the backlog is back within bounds
+     */
+    private boolean relieve() {
+        switch (policy) {
+            case DROP_OLDEST: {
+                int dropped = 0;
+                for (Iterator<Entry> it = queue.iterator(); it.hasNext() && isFull(); ) {
+                    Entry queued = it.next();
+                    if (queued.preview) {
+                        it.remove();
+                        remove(queued);
+                        dropped++;
+                    }
+                }
+                metrics.add("board.outbound.dropped", dropped);
+                return !isFull();
+            }
+            case COALESCE: {
+                long firstDroppedSeq = Long.MAX_VALUE;
+                int coalesced = 0;
+                for (Iterator<Entry> it = queue.iterator(); it.hasNext(); ) {
+                    Entry queued = it.next();
+                    if (queued.preview || queued.seq >= 0) {
+                        it.remove();
+                        remove(queued);
+                        coalesced++;
+                        if (queued.seq >= 0) {
+                            firstDroppedSeq = Math.min(firstDroppedSeq, queued.seq);
+                        }
+                    }
+                }
+                metrics.add("board.outbound.coalesced", coalesced);
+                // A notice already queued points at an earlier seq, so it still covers everything dropped now
+                if (firstDroppedSeq != Long.MAX_VALUE && pendingResync == null) {
+                    pendingResync = new Entry(resyncNotice.apply(firstDroppedSeq - 1), -1, false, false);
+                    add(pendingResync);
+                }
+                return !isFull();
+            }
+            default:
+                return false;
+        }
+    }
+
+    private void add(Entry entry) {
+        queue.addLast(entry);
+        queuedBytes += entry.bytes;
+        if (entry.bounded) {
+            boundedCount++;
+            boundedBytes += entry.bytes;
+        }
+    }
+
+    private void remove(Entry entry) {
+        queuedBytes -= entry.bytes;
+        if (entry.bounded) {
+            boundedCount--;
+            boundedBytes -= entry.bytes;
+        }
+    }
+
+    private void clear() {
+        queue.clear();
+        boundedCount = 0;
+        boundedBytes = 0;
+        queuedBytes = 0;
+        pendingResync = null;
+        pendingPresence = null;
+    }
+
+    private void closeForResync() {
+        log.warn("Disconnecting slow session {} ({} policy)", session.getId(), policy);
+        closeQuietly(OVERFLOW_STATUS);
+    }
+
+    private void closeQuietly(CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Error closing session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the container's async endpoint for a standard session, with its writes bounded
+     * by the send time limit
+     */
+    private static RemoteEndpoint.Async asyncRemote(WebSocketSession session, long sendTimeLimitMs) {
+        if (!(session instanceof NativeWebSocketSession)) {
+            return null;
+        }
+        Session nativeSession = ((NativeWebSocketSession) session).getNativeSession(Session.class);
+        if (nativeSession == null) {
+            return null;
+        }
+        nativeSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeLimitMs);
+        RemoteEndpoint.Async remote = nativeSession.getAsyncRemote();
+        remote.setSendTimeout(sendTimeLimitMs);
+        return remote;
+    }
+
+    private static final class Entry {
+        private final WebSocketMessage<?> message;
+        private final int bytes;
+        private final long seq;
+        private final boolean preview;
+        private final boolean bounded;
+        // Set instead of the message for streams
+        private final Stream stream;
+
+        Entry(Stream stream) {
+            this.message = null;
+            this.bytes = 0;
+            this.seq = -1;
+            this.preview = false;
+            this.bounded = false;
+            this.stream = stream;
+        }
+
+        Entry(WebSocketMessage<?> message, long seq, boolean preview, boolean bounded) {
+            this.stream = null;
+            this.message = message;
+            // Text payloads are shared across sessions, so count characters instead of encoding them again
+            this.bytes = message instanceof TextMessage
+                    ? ((TextMessage) message).getPayload().length()
+                    : message.getPayloadLength();
+            this.seq = seq;
+            this.preview = preview;
+            this.bounded = bounded;
+        }
+    }
+}
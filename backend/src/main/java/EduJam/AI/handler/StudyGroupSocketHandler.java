@@ -1,9 +1,10 @@
 package EduJam.AI.handler;
 
+import EduJam.AI.codec.InboundMessageDecoder;
 import EduJam.AI.dto.StudyGroupDto;
+import EduJam.AI.dto.StudyGroupRequest;
 import EduJam.AI.model.StudyGroupModel;
 import EduJam.AI.service.StudyGroupService;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,12 +36,14 @@ public class StudyGroupSocketHandler extends TextWebSocketHandler {
     
     private final StudyGroupService studyGroupService;
     private final ObjectMapper objectMapper;
+    private final InboundMessageDecoder messageDecoder;
     private final Map<String, WebSocketSession> allSessions = new ConcurrentHashMap<>();
     private final ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor();
     
     public StudyGroupSocketHandler(StudyGroupService studyGroupService, ObjectMapper objectMapper) {
         this.studyGroupService = studyGroupService;
         this.objectMapper = objectMapper;
+        this.messageDecoder = new InboundMessageDecoder(objectMapper);
         
         // Start the heartbeat scheduler
         heartbeatScheduler.scheduleAtFixedRate(this::sendHeartbeats, HEARTBEAT_INTERVAL_MS, HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
@@ -69,8 +72,14 @@ public class StudyGroupSocketHandler extends TextWebSocketHandler {
         String payload = message.getPayload();
         log.info("Received message: {}", payload);
         
-        JsonNode jsonNode = objectMapper.readTree(payload);
-        String type = jsonNode.get("type").asText();
+        StudyGroupRequest request;
+        try {
+            request = messageDecoder.decode(payload, StudyGroupRequest::new);
+        } catch (IOException e) {
+            sendErrorMessage(session, "Malformed message: " + e.getMessage());
+            return;
+        }
+        String type = request.getType();
         
         // Get user ID from session attributes
         String userId = (String) session.getAttributes().get("userId");
@@ -86,19 +95,19 @@ public class StudyGroupSocketHandler extends TextWebSocketHandler {
                 handleListSubjects(session);
                 break;
             case "listGroupsBySubject":
-                handleListGroupsBySubject(session, jsonNode);
+                handleListGroupsBySubject(session, request);
                 break;
             case "createGroup":
-                handleCreateGroup(session, jsonNode, userId);
+                handleCreateGroup(session, request, userId);
                 break;
             case "joinGroup":
-                handleJoinGroup(session, jsonNode, userId);
+                handleJoinGroup(session, request, userId);
                 break;
             case "leaveGroup":
-                handleLeaveGroup(session, jsonNode, userId);
+                handleLeaveGroup(session, request, userId);
                 break;
             case "sendGroupChatMessage":
-                handleSendGroupChatMessage(session, jsonNode, userId);
+                handleSendGroupChatMessage(session, request, userId);
                 break;
             case "ping":
                 // Client ping, respond with pong
@@ -118,8 +127,8 @@ public class StudyGroupSocketHandler extends TextWebSocketHandler {
         session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
     }
     
-    private void handleListGroupsBySubject(WebSocketSession session, JsonNode jsonNode) throws IOException {
-        String subject = jsonNode.get("subject").asText();
+    private void handleListGroupsBySubject(WebSocketSession session, StudyGroupRequest request) throws IOException {
+        String subject = request.getSubject();
         log.info("Listing groups for subject: {}", subject);
         
         List<StudyGroupDto> groups = studyGroupService.getStudyGroupsBySubject(subject);
@@ -132,9 +141,9 @@ public class StudyGroupSocketHandler extends TextWebSocketHandler {
         session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
     }
     
-    private void handleCreateGroup(WebSocketSession session, JsonNode jsonNode, String userId) throws IOException {
-        String name = jsonNode.get("name").asText();
-        String subject = jsonNode.get("subject").asText();
+    private void handleCreateGroup(WebSocketSession session, StudyGroupRequest request, String userId) throws IOException {
+        String name = request.getName();
+        String subject = request.getSubject();
         
         log.info("Creating group '{}' for subject '{}' by user '{}'", name, subject, userId);
         
@@ -153,8 +162,8 @@ public class StudyGroupSocketHandler extends TextWebSocketHandler {
         broadcastGroupListUpdate(subject);
     }
     
-    private void handleJoinGroup(WebSocketSession session, JsonNode jsonNode, String userId) throws IOException {
-        String groupId = jsonNode.get("groupId").asText();
+    private void handleJoinGroup(WebSocketSession session, StudyGroupRequest request, String userId) throws IOException {
+        String groupId = request.getGroupId();
         
         log.info("User '{}' joining group '{}'", userId, groupId);
         
@@ -182,8 +191,8 @@ public class StudyGroupSocketHandler extends TextWebSocketHandler {
         broadcastGroupListUpdate(group.getSubject());
     }
     
-    private void handleLeaveGroup(WebSocketSession session, JsonNode jsonNode, String userId) throws IOException {
-        String groupId = jsonNode.get("groupId").asText();
+    private void handleLeaveGroup(WebSocketSession session, StudyGroupRequest request, String userId) throws IOException {
+        String groupId = request.getGroupId();
         
         log.info("User '{}' leaving group '{}'", userId, groupId);
         
@@ -224,9 +233,9 @@ public class StudyGroupSocketHandler extends TextWebSocketHandler {
         broadcastGroupListUpdate(subject);
     }
     
-    private void handleSendGroupChatMessage(WebSocketSession session, JsonNode jsonNode, String userId) throws IOException {
-        String groupId = jsonNode.get("groupId").asText();
-        String message = jsonNode.get("message").asText();
+    private void handleSendGroupChatMessage(WebSocketSession session, StudyGroupRequest request, String userId) throws IOException {
+        String groupId = request.getGroupId();
+        String message = request.getMessage();
         
         log.info("User '{}' sending message to group '{}'", userId, groupId);
         
@@ -1,20 +1,35 @@
 package EduJam.AI.model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.Stack;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 
 /**
  * Thread-safe model representing a collaborative whiteboard.
- * Uses CopyOnWriteArrayList for thread-safe stroke operations.
+ * Strokes are kept in an append-only {@link StrokeLog}, so undo and redo
+ * only flip a visibility bit instead of searching and copying the stroke list.
+ * Every mutation advances the board version and is described by a {@link BoardOp}.
+ * WebSocket mutations arrive from the board's single writer, so the locks here are
+ * uncontended on that path and mainly order them against readers and persistence.
  */
 public class BoardModel {
-    // Use CopyOnWriteArrayList for thread-safe operations
-    private final List<StrokeModel> strokes;
-    private final Stack<StrokeModel> undoStack;
-    private final Stack<StrokeModel> redoStack;
+    // Append-only stroke log with tombstones; guarded by this board's monitor
+    private final StrokeLog strokes;
+    // Spatial index over the visible strokes, kept in step with the log
+    private final StrokeQuadTree spatialIndex;
+    // Sequence number of the last applied mutation
+    private long version;
+    // Recent ops, so reconnecting clients can catch up without a full snapshot
+    private final BoardOpBuffer recentOps;
+    // Notified of every op, e.g. by the journal; may be null
+    private BoardOpListener opListener;
+    // Set once the board has been hibernated; a retired instance must not be mutated again
+    private boolean retired;
+    // Last time a client or request used this board, for idle detection
+    private volatile long lastAccessedAt = System.currentTimeMillis();
     
     // Board settings
     private int width;
@@ -22,12 +37,38 @@ public class BoardModel {
     private String backgroundColor;
     private boolean showGrid;
     private int gridSize;
+    private double simplifyTolerance;
     private final String id;
 
+    public static final int DEFAULT_OP_BUFFER_SIZE = 1024;
+    public static final double DEFAULT_SIMPLIFY_TOLERANCE = 1.0;
+    public static final double MAX_SIMPLIFY_TOLERANCE = 50.0;
+    public static final int MAX_ERASER_RADIUS = 256;
+
     public BoardModel() {
-        this.strokes = new CopyOnWriteArrayList<>();
-        this.undoStack = new Stack<>();
-        this.redoStack = new Stack<>();
+        this(DEFAULT_OP_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a board that keeps the given number of recent ops for resuming clients
+     */
+    public BoardModel(int opBufferSize) {
+        this(UUID.randomUUID().toString(), opBufferSize);
+    }
+
+    /**
+     * Creates an empty board with a known ID, e.g. when restoring from storage
+     */
+    public BoardModel(String id, int opBufferSize) {
+        this(id, opBufferSize, new StrokeLog(), null);
+    }
+
+    /**
+     * Creates a board around existing stroke storage; a null index is created for the default size
+     */
+    private BoardModel(String id, int opBufferSize, StrokeLog strokes, StrokeQuadTree spatialIndex) {
+        this.strokes = strokes;
+        this.recentOps = new BoardOpBuffer(opBufferSize);
         
         // Default board settings
         this.width = 800;
@@ -35,68 +76,324 @@ public class BoardModel {
         this.backgroundColor = "#FFFFFF";
         this.showGrid = false;
         this.gridSize = 20;
-        this.id = UUID.randomUUID().toString();
+        this.simplifyTolerance = DEFAULT_SIMPLIFY_TOLERANCE;
+        this.id = id;
+        this.spatialIndex = spatialIndex != null ? spatialIndex : new StrokeQuadTree(Math.max(width, height));
+    }
+
+    /**
+     * Rebuilds a board from persisted state, including its redo history
+     */
+    public static BoardModel restore(BoardState state, int opBufferSize) {
+        BoardModel board = new BoardModel(state.getBoardId(), opBufferSize);
+        synchronized (board) {
+            board.applySettings(state.getSettings());
+            board.strokes.restore(state.getVisibleStrokes(), state.getRedoStrokes());
+            for (StrokeModel stroke : state.getVisibleStrokes()) {
+                board.spatialIndex.insert(stroke);
+            }
+            board.version = state.getVersion();
+        }
+        return board;
+    }
+
+    /**
+     * Creates a board with a new ID that starts out as a copy of this one, including
+     * its undo/redo history, e.g. to hand every study group its own board from a template.
+     * Both boards share their stroke log and spatial index until they change, so a copy
+     * costs O(1) and each later change copies only what it touches. The copy keeps this
+     * board's version, since the shared strokes' sequence numbers order its log.
+     */
+    public synchronized BoardModel copy(int opBufferSize) {
+        BoardModel copy = new BoardModel(UUID.randomUUID().toString(), opBufferSize, strokes.copy(), spatialIndex.copy());
+        synchronized (copy) {
+            copy.applySettings(getSettings());
+            copy.version = version;
+        }
+        return copy;
+    }
+
+    /**
+     * Captures everything needed to restore this board later
+     */
+    public synchronized BoardState exportState() {
+        return new BoardState(id, version, getSettings(), strokes.snapshot(), strokes.redoStrokes());
+    }
+
+    /**
+     * Re-applies an op read back from storage. Ops at or below the current
+     * version are already reflected and are skipped.
+     *
+     * @return true if the op was applied
+     * @throws IllegalStateException if the op does not follow the current version
+     *         or does not match the board's undo/redo history
+     */
+    public synchronized boolean replay(BoardOp op) {
+        if (op.getSeq() <= version) {
+            return false;
+        }
+        if (op.getSeq() != version + 1) {
+            throw new IllegalStateException("Gap in ops for board " + id + ": expected seq " + (version + 1) + " but got " + op.getSeq());
+        }
+        
+        BoardOp applied = op;
+        switch (op.getType()) {
+            case STROKE_ADDED:
+                strokes.add(op.getStroke());
+                spatialIndex.insert(op.getStroke());
+                break;
+            case STROKE_REMOVED:
+                StrokeModel removed = expectStroke(strokes.undo(op.getStroke().getSessionId()), op);
+                spatialIndex.remove(removed);
+                // Stored undo/redo ops only carry the stroke ID; keep the full stroke for resuming clients
+                applied = BoardOp.restore(op.getType(), op.getSeq(), op.getTimestamp(), removed, null);
+                break;
+            case STROKE_RESTORED:
+                StrokeModel restored = expectStroke(strokes.redo(op.getStroke().getSessionId()), op);
+                spatialIndex.insert(restored);
+                applied = BoardOp.restore(op.getType(), op.getSeq(), op.getTimestamp(), restored, null);
+                break;
+            case BOARD_CLEARED:
+                strokes.clear();
+                spatialIndex.clear();
+                break;
+            case SETTINGS_UPDATED:
+                applySettings(op.getSettings());
+                break;
+            case STROKES_ERASED:
+                applied = replayErase(op);
+                break;
+            default:
+                throw new IllegalStateException("Unknown op type: " + op.getType());
+        }
+        version = op.getSeq();
+        recentOps.record(applied);
+        return true;
+    }
+
+    /**
+     * Sets the listener that receives every op applied from now on
+     */
+    public synchronized void setOpListener(BoardOpListener opListener) {
+        this.opListener = opListener;
+    }
+
+    /**
+     * Marks this instance as unloaded. Callers holding a stale reference must
+     * check {@link #isRetired()} under the board's monitor before mutating it.
+     */
+    public synchronized void retire() {
+        this.retired = true;
+    }
+
+    public synchronized boolean isRetired() {
+        return retired;
+    }
+
+    /**
+     * Records that the board was just used
+     */
+    public void touch() {
+        lastAccessedAt = System.currentTimeMillis();
+    }
+
+    public long getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+
+    /**
+     * Approximate heap held by this board's strokes, in bytes
+     */
+    public synchronized long getEstimatedBytes() {
+        return strokes.retainedBytes();
+    }
+
+    /**
+     * Approximate heap a stroke adds to a board, on the same scale as {@link #getEstimatedBytes()}
+     */
+    public static long estimateBytes(StrokeModel stroke) {
+        return StrokeLog.estimateBytes(stroke);
     }
 
     /**
-     * Thread-safe method to get all strokes
+     * Thread-safe method to get all visible strokes.
+     * Returns an immutable snapshot that is shared between readers until the next mutation.
      */
-    public List<StrokeModel> getStrokes() {
-        return new ArrayList<>(strokes); // Return a copy for safety
+    public synchronized List<StrokeModel> getStrokes() {
+        return strokes.snapshot();
     }
 
     /**
      * Thread-safe method to add a stroke
+     *
+     * @return the op describing the addition
      */
-    public synchronized void addStroke(StrokeModel stroke) {
+    public synchronized BoardOp addStroke(StrokeModel stroke) {
         if (stroke == null) {
             throw new IllegalArgumentException("Stroke cannot be null");
         }
-        strokes.add(stroke);
-        undoStack.push(stroke);
-        redoStack.clear(); // Clear redo stack when new stroke is added
+        // Whatever can fail runs before the board changes, so a bad stroke leaves no trace
+        BoundingBox bounds = stroke.bounds();
+        stroke.setSeq(++version);
+        strokes.add(stroke); // Also clears the author's redo history
+        spatialIndex.insert(stroke, bounds);
+        return record(BoardOp.strokeAdded(version, stroke));
     }
 
     /**
-     * Undo the last stroke
+     * Undo the author's last visible stroke. Other authors' strokes are never touched.
+     *
+     * @param author session ID the strokes were drawn with, or null for strokes without one
+     * @return the op describing the removal, or null if the author has nothing to undo
      */
-    public synchronized StrokeModel undo() {
-        if (!undoStack.isEmpty()) {
-            StrokeModel stroke = undoStack.pop();
-            strokes.remove(stroke);
-            redoStack.push(stroke);
-            return stroke;
+    public synchronized BoardOp undo(String author) {
+        StrokeModel stroke = strokes.undo(author);
+        if (stroke == null) {
+            return null;
         }
-        return null;
+        spatialIndex.remove(stroke);
+        return record(BoardOp.strokeRemoved(++version, stroke));
     }
 
     /**
-     * Redo the last undone stroke
+     * Redo the author's last undone stroke
+     *
+     * @param author session ID the strokes were drawn with, or null for strokes without one
+     * @return the op describing the restore, or null if the author has nothing to redo
      */
-    public synchronized StrokeModel redo() {
-        if (!redoStack.isEmpty()) {
-            StrokeModel stroke = redoStack.pop();
-            strokes.add(stroke);
-            undoStack.push(stroke);
-            return stroke;
+    public synchronized BoardOp redo(String author) {
+        StrokeModel stroke = strokes.redo(author);
+        if (stroke == null) {
+            return null;
         }
-        return null;
+        spatialIndex.insert(stroke);
+        return record(BoardOp.strokeRestored(++version, stroke));
+    }
+
+    /**
+     * Erases along a path with a round eraser. Strokes the eraser covers entirely
+     * are removed; strokes it only crosses are removed and replaced by the fragments
+     * left on either side. Candidates come from the spatial index, so only strokes
+     * near the path are tested. Erased strokes cannot be brought back with undo.
+     *
+     * @param path eraser positions; a single point erases a dot
+     * @param radius eraser radius, between 1 and {@link #MAX_ERASER_RADIUS}
+     * @return the op describing the erase, or null if the eraser touched nothing
+     * @throws IllegalArgumentException if the path is empty or the radius is out of range
+     */
+    public synchronized BoardOp erase(PackedPoints path, int radius) {
+        return erase(path, radius, (erased, fragments) -> { });
+    }
+
+    /**
+     * Erases like {@link #erase(PackedPoints, int)}, first passing the strokes it would
+     * remove and the fragments it would add to a check. If the check throws, the
+     * board is left unchanged.
+     */
+    public synchronized BoardOp erase(PackedPoints path, int radius,
+                                      BiConsumer<List<StrokeModel>, List<StrokeModel>> check) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("Eraser path cannot be empty");
+        }
+        if (radius < 1 || radius > MAX_ERASER_RADIUS) {
+            throw new IllegalArgumentException("Eraser radius must be between 1 and " + MAX_ERASER_RADIUS);
+        }
+        int[] coords = path.toInterleaved();
+        long seq = version + 1;
+        List<StrokeModel> erased = new ArrayList<>();
+        List<StrokeFragment> fragments = new ArrayList<>();
+        for (StrokeModel stroke : spatialIndex.query(path.bounds().expand(radius))) {
+            int[] runs = StrokeEraser.keptRuns(stroke, coords, radius);
+            if (runs == null) {
+                continue;
+            }
+            erased.add(stroke);
+            for (int i = 0; i < runs.length; i += 2) {
+                fragments.add(StrokeFragment.cut(stroke, UUID.randomUUID().toString(), runs[i], runs[i + 1], seq));
+            }
+        }
+        if (erased.isEmpty()) {
+            return null;
+        }
+        List<StrokeModel> added = new ArrayList<>(fragments.size());
+        for (StrokeFragment fragment : fragments) {
+            added.add(fragment.getStroke());
+        }
+        check.accept(erased, added);
+        applyErase(erased, fragments);
+        version = seq;
+        return record(BoardOp.strokesErased(seq, erased, fragments));
     }
 
     /**
      * Clear all strokes from the board
      */
-    public synchronized void clear() {
+    public synchronized BoardOp clear() {
         strokes.clear();
-        undoStack.clear();
-        redoStack.clear();
+        spatialIndex.clear();
+        return record(BoardOp.boardCleared(++version));
+    }
+
+    /**
+     * Replaces all board settings at once
+     *
+     * @throws IllegalArgumentException if any value is invalid; no setting is changed in that case
+     */
+    public synchronized BoardOp updateSettings(BoardSettings settings) {
+        validateSize(settings.getWidth(), "Width");
+        validateSize(settings.getHeight(), "Height");
+        validateSize(settings.getGridSize(), "Grid size");
+        validateSimplifyTolerance(settings.getSimplifyTolerance());
+        setBackgroundColor(settings.getBackgroundColor());
+        applySettings(settings);
+        return record(BoardOp.settingsUpdated(++version, getSettings()));
+    }
+
+    /**
+     * Returns the ops applied after lastSeq, oldest first
+     *
+     * @return the missed ops, or null if they have aged out of the buffer and a full snapshot is needed
+     */
+    public synchronized List<BoardOp> getOpsSince(long lastSeq) {
+        return recentOps.since(lastSeq, version);
+    }
+
+    public int getOpBufferSize() {
+        return recentOps.capacity();
+    }
+
+    /**
+     * Sequence number of the last mutation applied to this board
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized BoardSettings getSettings() {
+        return new BoardSettings(width, height, backgroundColor, showGrid, gridSize, simplifyTolerance);
+    }
+
+    /**
+     * Returns up to limit visible strokes with a seq after afterSeq, in drawing order, for
+     * reading a board in pages. Fragments of one erase share a seq and are never split
+     * across pages, so a page may hold a few more.
+     */
+    public synchronized List<StrokeModel> getStrokesAfter(long afterSeq, int limit) {
+        return strokes.visibleAfter(afterSeq, limit);
+    }
+
+    /**
+     * Returns the visible strokes whose bounds intersect the given area, in drawing order
+     */
+    public synchronized List<StrokeModel> getStrokesInArea(BoundingBox area) {
+        return spatialIndex.query(area);
     }
 
     /**
      * Thread-safe method to get the number of strokes
      */
-    public int getStrokeCount() {
-        return strokes.size();
+    public synchronized int getStrokeCount() {
+        return strokes.visibleCount();
     }
 
     // Board settings getters and setters
@@ -152,15 +449,106 @@ public class BoardModel {
         this.gridSize = gridSize;
     }
 
+    public synchronized double getSimplifyTolerance() {
+        return simplifyTolerance;
+    }
+
+    public synchronized void setSimplifyTolerance(double simplifyTolerance) {
+        validateSimplifyTolerance(simplifyTolerance);
+        this.simplifyTolerance = simplifyTolerance;
+    }
+
     public String getId() {
         return id;
     }
 
+    private BoardOp record(BoardOp op) {
+        recentOps.record(op);
+        if (opListener != null) {
+            opListener.onOp(this, op);
+        }
+        return op;
+    }
+
+    private void applyErase(List<StrokeModel> erased, List<StrokeFragment> fragments) {
+        // Work out the fragments' bounds before changing anything, so the erase applies entirely or not at all
+        BoundingBox[] fragmentBounds = new BoundingBox[fragments.size()];
+        for (int i = 0; i < fragmentBounds.length; i++) {
+            fragmentBounds[i] = fragments.get(i).getStroke().bounds();
+        }
+        for (StrokeModel stroke : erased) {
+            strokes.erase(stroke);
+            spatialIndex.remove(stroke);
+        }
+        for (int i = 0; i < fragmentBounds.length; i++) {
+            // Fragments stay undoable by the original author without clearing their redo history
+            StrokeModel fragment = fragments.get(i).getStroke();
+            strokes.addFragment(fragment);
+            spatialIndex.insert(fragment, fragmentBounds[i]);
+        }
+    }
+
+    /**
+     * Applies a stored erase, cutting the fragments again from the strokes it names
+     */
+    private BoardOp replayErase(BoardOp op) {
+        List<StrokeModel> erased = new ArrayList<>(op.getErased().size());
+        Map<String, StrokeModel> sources = new HashMap<>();
+        for (StrokeModel ref : op.getErased()) {
+            StrokeModel stroke = strokes.findVisible(ref.getSeq(), ref.getId());
+            if (stroke == null) {
+                throw new IllegalStateException("Op " + op + " erases stroke " + ref.getId() + " not on board " + id);
+            }
+            erased.add(stroke);
+            sources.put(stroke.getId(), stroke);
+        }
+        List<StrokeFragment> fragments = new ArrayList<>(op.getFragments().size());
+        for (StrokeFragment stored : op.getFragments()) {
+            StrokeModel source = sources.get(stored.getSourceId());
+            if (source == null || stored.getFrom() < 0 || stored.getTo() > source.getPoints().size()
+                    || stored.getFrom() >= stored.getTo()) {
+                throw new IllegalStateException("Op " + op + " has an invalid fragment of stroke " + stored.getSourceId());
+            }
+            fragments.add(StrokeFragment.cut(source, stored.getId(), stored.getFrom(), stored.getTo(), op.getSeq()));
+        }
+        applyErase(erased, fragments);
+        return BoardOp.restoreErase(op.getSeq(), op.getTimestamp(), erased, fragments);
+    }
+
+    private void applySettings(BoardSettings settings) {
+        this.width = settings.getWidth();
+        this.height = settings.getHeight();
+        this.backgroundColor = settings.getBackgroundColor();
+        this.showGrid = settings.isShowGrid();
+        this.gridSize = settings.getGridSize();
+        this.simplifyTolerance = settings.getSimplifyTolerance();
+    }
+
+    private static void validateSimplifyTolerance(double tolerance) {
+        // Written as a negated range check so NaN is rejected too
+        if (!(tolerance >= 0 && tolerance <= MAX_SIMPLIFY_TOLERANCE)) {
+            throw new IllegalArgumentException("Simplify tolerance must be between 0 and " + MAX_SIMPLIFY_TOLERANCE);
+        }
+    }
+
+    private StrokeModel expectStroke(StrokeModel actual, BoardOp op) {
+        if (actual == null || !actual.getId().equals(op.getStrokeId())) {
+            throw new IllegalStateException("Op " + op + " does not match the undo/redo history of board " + id);
+        }
+        return actual;
+    }
+
+    private static void validateSize(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be greater than 0");
+        }
+    }
+
     @Override
     public String toString() {
         return "BoardModel{" +
                 "id='" + id + '\'' +
-                ", numberOfStrokes=" + strokes.size() +
+                ", numberOfStrokes=" + getStrokeCount() +
                 ", width=" + width +
                 ", height=" + height +
                 ", backgroundColor='" + backgroundColor + '\'' +
@@ -0,0 +1,157 @@
+package EduJam.AI.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single mutation applied to a board.
+ *
+ * Every mutation gets the next value of the board's monotonic sequence number,
+ * so clients can apply ops in order and detect gaps.
+ */
+public final class BoardOp {
+
+    /**
+     * Kinds of board mutations, with the message type used on the wire
+     */
+    public enum Type {
+        STROKE_ADDED("stroke"),
+        STROKE_REMOVED("strokeRemoved"),
+        STROKE_RESTORED("strokeRestored"),
+        BOARD_CLEARED("boardCleared"),
+        SETTINGS_UPDATED("boardSettingsUpdated"),
+        STROKES_ERASED("strokesErased");
+
+        private final String wireName;
+
+        Type(String wireName) {
+            this.wireName = wireName;
+        }
+
+        public String getWireName() {
+            return wireName;
+        }
+    }
+
+    private final Type type;
+    private final long seq;
+    private final long timestamp;
+    private final StrokeModel stroke;
+    private final BoardSettings settings;
+    private final List<StrokeModel> erased;
+    private final List<StrokeFragment> fragments;
+
+    private BoardOp(Type type, long seq, long timestamp, StrokeModel stroke, BoardSettings settings,
+                    List<StrokeModel> erased, List<StrokeFragment> fragments) {
+        this.type = type;
+        this.seq = seq;
+        this.timestamp = timestamp;
+        this.stroke = stroke;
+        this.settings = settings;
+        this.erased = erased;
+        this.fragments = fragments;
+    }
+
+    private BoardOp(Type type, long seq, long timestamp, StrokeModel stroke, BoardSettings settings) {
+        this(type, seq, timestamp, stroke, settings, Collections.emptyList(), Collections.emptyList());
+    }
+
+    private BoardOp(Type type, long seq, StrokeModel stroke, BoardSettings settings) {
+        this(type, seq, System.currentTimeMillis(), stroke, settings);
+    }
+
+    /**
+     * Recreates an op read back from storage, keeping its original timestamp
+     */
+    public static BoardOp restore(Type type, long seq, long timestamp, StrokeModel stroke, BoardSettings settings) {
+        return new BoardOp(type, seq, timestamp, stroke, settings);
+    }
+
+    /**
+     * Recreates an erase read back from storage. The erased strokes only need their
+     * ID and sequence number, and the fragments have no strokes until replayed.
+     */
+    public static BoardOp restoreErase(long seq, long timestamp, List<StrokeModel> erased,
+                                       List<StrokeFragment> fragments) {
+        return new BoardOp(Type.STROKES_ERASED, seq, timestamp, null, null, erased, fragments);
+    }
+
+    public static BoardOp strokeAdded(long seq, StrokeModel stroke) {
+        return new BoardOp(Type.STROKE_ADDED, seq, stroke, null);
+    }
+
+    public static BoardOp strokeRemoved(long seq, StrokeModel stroke) {
+        return new BoardOp(Type.STROKE_REMOVED, seq, stroke, null);
+    }
+
+    public static BoardOp strokeRestored(long seq, StrokeModel stroke) {
+        return new BoardOp(Type.STROKE_RESTORED, seq, stroke, null);
+    }
+
+    public static BoardOp boardCleared(long seq) {
+        return new BoardOp(Type.BOARD_CLEARED, seq, null, null);
+    }
+
+    public static BoardOp settingsUpdated(long seq, BoardSettings settings) {
+        return new BoardOp(Type.SETTINGS_UPDATED, seq, null, settings);
+    }
+
+    public static BoardOp strokesErased(long seq, List<StrokeModel> erased, List<StrokeFragment> fragments) {
+        return new BoardOp(Type.STROKES_ERASED, seq, System.currentTimeMillis(), null, null,
+                Collections.unmodifiableList(erased), Collections.unmodifiableList(fragments));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * The stroke the op applies to, or null for board-wide ops
+     */
+    public StrokeModel getStroke() {
+        return stroke;
+    }
+
+    public String getStrokeId() {
+        return stroke != null ? stroke.getId() : null;
+    }
+
+    /**
+     * The new settings for settings updates, otherwise null
+     */
+    public BoardSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Strokes removed by an erase, otherwise empty
+     */
+    public List<StrokeModel> getErased() {
+        return erased;
+    }
+
+    /**
+     * What an erase left of the strokes it cut, in drawing order; otherwise empty
+     */
+    public List<StrokeFragment> getFragments() {
+        return fragments;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardOp{" +
+                "type=" + type +
+                ", seq=" + seq +
+                ", strokeId='" + getStrokeId() + '\'' +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package EduJam.AI.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fixed-size ring buffer of the most recent ops applied to a board.
+ *
+ * Board sequence numbers are contiguous, so a reconnecting client that knows
+ * the last seq it saw can be sent exactly the ops it missed, as long as they
+ * have not been overwritten yet.
+ *
+ * This class is not thread-safe; {@link BoardModel} guards every call.
+ */
+final class BoardOpBuffer {
+    private final BoardOp[] ops;
+    // Total number of ops ever recorded; the next write goes to written % capacity
+    private long written;
+
+    BoardOpBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Op buffer capacity must be greater than 0");
+        }
+        this.ops = new BoardOp[capacity];
+    }
+
+    void record(BoardOp op) {
+        ops[(int) (written % ops.length)] = op;
+        written++;
+    }
+
+    int capacity() {
+        return ops.length;
+    }
+
+    /**
+     * Returns the ops with a sequence number greater than lastSeq, oldest first.
+     *
+     * @param lastSeq the last seq the caller has applied
+     * @param currentSeq the board's current version
+     * @return the missed ops, or null if some of them are no longer buffered
+     */
+    List<BoardOp> since(long lastSeq, long currentSeq) {
+        if (lastSeq > currentSeq || lastSeq < 0) {
+            return null;
+        }
+        long missed = currentSeq - lastSeq;
+        if (missed == 0) {
+            return Collections.emptyList();
+        }
+        if (missed > Math.min(written, ops.length)) {
+            return null;
+        }
+
+        List<BoardOp> result = new ArrayList<>((int) missed);
+        for (long i = written - missed; i < written; i++) {
+            result.add(ops[(int) (i % ops.length)]);
+        }
+        return result;
+    }
+}
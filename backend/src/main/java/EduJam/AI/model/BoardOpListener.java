@@ -0,0 +1,12 @@
+package EduJam.AI.model;
+
+/**
+ * Receives every op applied to a board, in sequence order.
+ *
+ * Called while the board's monitor is held, so implementations must only
+ * hand the op off (for example to a queue) and return quickly.
+ */
+@FunctionalInterface
+public interface BoardOpListener {
+    void onOp(BoardModel board, BoardOp op);
+}
@@ -0,0 +1,63 @@
+package EduJam.AI.model;
+
+/**
+ * Immutable snapshot of a board's display settings.
+ */
+public final class BoardSettings {
+    private final int width;
+    private final int height;
+    private final String backgroundColor;
+    private final boolean showGrid;
+    private final int gridSize;
+    private final double simplifyTolerance;
+
+    /**
+     * @param simplifyTolerance how far, in board units, stored stroke points may
+     *        deviate from the drawn ones; 0 keeps every point
+     */
+    public BoardSettings(int width, int height, String backgroundColor, boolean showGrid, int gridSize,
+                         double simplifyTolerance) {
+        this.width = width;
+        this.height = height;
+        this.backgroundColor = backgroundColor;
+        this.showGrid = showGrid;
+        this.gridSize = gridSize;
+        this.simplifyTolerance = simplifyTolerance;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public String getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    public boolean isShowGrid() {
+        return showGrid;
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public double getSimplifyTolerance() {
+        return simplifyTolerance;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardSettings{" +
+                "width=" + width +
+                ", height=" + height +
+                ", backgroundColor='" + backgroundColor + '\'' +
+                ", showGrid=" + showGrid +
+                ", gridSize=" + gridSize +
+                ", simplifyTolerance=" + simplifyTolerance +
+                '}';
+    }
+}
@@ -0,0 +1,51 @@
+package EduJam.AI.model;
+
+import java.util.List;
+
+/**
+ * Complete, self-contained state of a board at one version, used to persist
+ * and restore boards.
+ *
+ * Besides the visible strokes it carries the strokes that can still be redone,
+ * so undo/redo keeps working after a board is restored.
+ */
+public final class BoardState {
+    private final String boardId;
+    private final long version;
+    private final BoardSettings settings;
+    private final List<StrokeModel> visibleStrokes;
+    private final List<StrokeModel> redoStrokes;
+
+    /**
+     * @param visibleStrokes visible strokes in drawing order
+     * @param redoStrokes undone strokes that can be redone, bottom of the redo stack first
+     */
+    public BoardState(String boardId, long version, BoardSettings settings,
+                      List<StrokeModel> visibleStrokes, List<StrokeModel> redoStrokes) {
+        this.boardId = boardId;
+        this.version = version;
+        this.settings = settings;
+        this.visibleStrokes = visibleStrokes;
+        this.redoStrokes = redoStrokes;
+    }
+
+    public String getBoardId() {
+        return boardId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public BoardSettings getSettings() {
+        return settings;
+    }
+
+    public List<StrokeModel> getVisibleStrokes() {
+        return visibleStrokes;
+    }
+
+    public List<StrokeModel> getRedoStrokes() {
+        return redoStrokes;
+    }
+}
@@ -0,0 +1,82 @@
+package EduJam.AI.model;
+
+/**
+ * Immutable axis-aligned rectangle in board coordinates. Both corners are inclusive.
+ */
+public final class BoundingBox {
+    private final int minX;
+    private final int minY;
+    private final int maxX;
+    private final int maxY;
+
+    public BoundingBox(int minX, int minY, int maxX, int maxY) {
+        if (maxX < minX || maxY < minY) {
+            throw new IllegalArgumentException("Invalid bounding box: " + minX + "," + minY + " - " + maxX + "," + maxY);
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Creates a box from a viewport origin and size, as sent by clients
+     */
+    public static BoundingBox ofViewport(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Viewport width and height must be greater than 0");
+        }
+        return new BoundingBox(x, y, x + width - 1, y + height - 1);
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public boolean intersects(BoundingBox other) {
+        return minX <= other.maxX && other.minX <= maxX
+                && minY <= other.maxY && other.minY <= maxY;
+    }
+
+    public boolean contains(BoundingBox other) {
+        return minX <= other.minX && other.maxX <= maxX
+                && minY <= other.minY && other.maxY <= maxY;
+    }
+
+    /**
+     * Returns a copy grown by the given margin on every side, stopping at the int range
+     */
+    public BoundingBox expand(int margin) {
+        if (margin == 0) {
+            return this;
+        }
+        return new BoundingBox(saturate((long) minX - margin), saturate((long) minY - margin),
+                saturate((long) maxX + margin), saturate((long) maxY + margin));
+    }
+
+    private static int saturate(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{" +
+                "minX=" + minX +
+                ", minY=" + minY +
+                ", maxX=" + maxX +
+                ", maxY=" + maxY +
+                '}';
+    }
+}
@@ -0,0 +1,247 @@
+package EduJam.AI.model;
+
+import EduJam.AI.codec.PackedPointsDeserializer;
+import EduJam.AI.codec.PackedPointsSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, compact list of stroke points.
+ *
+ * The first point is stored as absolute coordinates and every following point
+ * as an interleaved (dx, dy) delta from its predecessor. Freehand strokes move
+ * a few pixels per sample, so the deltas are kept in a short[] whenever they
+ * fit and only fall back to an int[] for strokes with large jumps.
+ *
+ * Instances are shared between DTOs and models without copying.
+ */
+@JsonSerialize(using = PackedPointsSerializer.class)
+@JsonDeserialize(using = PackedPointsDeserializer.class)
+public final class PackedPoints {
+    public static final PackedPoints EMPTY = new PackedPoints(0, 0, 0, null, null);
+
+    private final int count;
+    private final int originX;
+    private final int originY;
+    // Exactly one of these holds the deltas for points 1..count-1 (both null when count <= 1)
+    private final short[] shortDeltas;
+    private final int[] intDeltas;
+    // Computed on first use; racing threads compute the same value
+    private BoundingBox bounds;
+
+    private PackedPoints(int count, int originX, int originY, short[] shortDeltas, int[] intDeltas) {
+        this.count = count;
+        this.originX = originX;
+        this.originY = originY;
+        this.shortDeltas = shortDeltas;
+        this.intDeltas = intDeltas;
+    }
+
+    /**
+     * Packs absolute coordinates given as x0, y0, x1, y1, ...
+     *
+     * @param coords interleaved absolute coordinates
+     * @param count number of points to take from the array
+     */
+    public static PackedPoints of(int[] coords, int count) {
+        if (count < 0 || count * 2 > coords.length) {
+            throw new IllegalArgumentException("Invalid point count: " + count);
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        boolean fitsShort = true;
+        for (int i = 2; i < count * 2 && fitsShort; i++) {
+            int delta = coords[i] - coords[i - 2];
+            fitsShort = delta >= Short.MIN_VALUE && delta <= Short.MAX_VALUE;
+        }
+
+        int deltaLength = (count - 1) * 2;
+        if (deltaLength == 0) {
+            return new PackedPoints(count, coords[0], coords[1], null, null);
+        }
+        if (fitsShort) {
+            short[] deltas = new short[deltaLength];
+            for (int i = 0; i < deltaLength; i++) {
+                deltas[i] = (short) (coords[i + 2] - coords[i]);
+            }
+            return new PackedPoints(count, coords[0], coords[1], deltas, null);
+        }
+        int[] deltas = new int[deltaLength];
+        for (int i = 0; i < deltaLength; i++) {
+            deltas[i] = coords[i + 2] - coords[i];
+        }
+        return new PackedPoints(count, coords[0], coords[1], null, deltas);
+    }
+
+    /**
+     * Number of points in the stroke
+     */
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Visits every point in order with absolute coordinates.
+     */
+    public void forEach(PointConsumer consumer) {
+        if (count == 0) {
+            return;
+        }
+        int x = originX;
+        int y = originY;
+        consumer.accept(x, y);
+        for (int i = 0; i < (count - 1) * 2; i += 2) {
+            x += delta(i);
+            y += delta(i + 1);
+            consumer.accept(x, y);
+        }
+    }
+
+    /**
+     * Decodes the points into a new array of absolute coordinates x0, y0, x1, y1, ...
+     */
+    public int[] toInterleaved() {
+        int[] coords = new int[count * 2];
+        if (count == 0) {
+            return coords;
+        }
+        coords[0] = originX;
+        coords[1] = originY;
+        for (int i = 2; i < coords.length; i++) {
+            coords[i] = coords[i - 2] + delta(i - 2);
+        }
+        return coords;
+    }
+
+    /**
+     * Returns the points from index from up to but not including to
+     */
+    public PackedPoints slice(int from, int to) {
+        if (from < 0 || to > count || from > to) {
+            throw new IndexOutOfBoundsException("Invalid range " + from + ".." + to + " of " + count + " points");
+        }
+        if (from == 0 && to == count) {
+            return this;
+        }
+        int[] coords = toInterleaved();
+        return of(Arrays.copyOfRange(coords, from * 2, to * 2), to - from);
+    }
+
+    /**
+     * Smallest box containing every point, or null for an empty stroke
+     */
+    public BoundingBox bounds() {
+        BoundingBox result = bounds;
+        if (result == null && count > 0) {
+            int minX = originX, minY = originY, maxX = originX, maxY = originY;
+            int x = originX;
+            int y = originY;
+            for (int i = 0; i < (count - 1) * 2; i += 2) {
+                x += delta(i);
+                y += delta(i + 1);
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+            }
+            result = new BoundingBox(minX, minY, maxX, maxY);
+            bounds = result;
+        }
+        return result;
+    }
+
+    /**
+     * Approximate heap footprint of the packed coordinates in bytes
+     */
+    public int byteSize() {
+        if (shortDeltas != null) {
+            return 8 + shortDeltas.length * Short.BYTES;
+        }
+        if (intDeltas != null) {
+            return 8 + intDeltas.length * Integer.BYTES;
+        }
+        return count == 0 ? 0 : 8;
+    }
+
+    private int delta(int index) {
+        return shortDeltas != null ? shortDeltas[index] : intDeltas[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PackedPoints)) return false;
+        return Arrays.equals(toInterleaved(), ((PackedPoints) o).toInterleaved());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toInterleaved());
+    }
+
+    @Override
+    public String toString() {
+        return "PackedPoints{" +
+                "size=" + count +
+                ", wide=" + (intDeltas != null) +
+                '}';
+    }
+
+    /**
+     * Receives absolute point coordinates during iteration
+     */
+    @FunctionalInterface
+    public interface PointConsumer {
+        void accept(int x, int y);
+    }
+
+    /**
+     * Growable buffer used by decoders to collect points before packing them.
+     */
+    public static final class Builder {
+        private int[] coords;
+        private int count;
+
+        public Builder() {
+            this(32);
+        }
+
+        public Builder(int expectedPoints) {
+            this.coords = new int[Math.max(2, expectedPoints * 2)];
+        }
+
+        public Builder add(int x, int y) {
+            if (count * 2 == coords.length) {
+                coords = Arrays.copyOf(coords, coords.length * 2);
+            }
+            coords[count * 2] = x;
+            coords[count * 2 + 1] = y;
+            count++;
+            return this;
+        }
+
+        /**
+         * Appends every point of an already packed batch
+         */
+        public Builder addAll(PackedPoints points) {
+            points.forEach(this::add);
+            return this;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public PackedPoints build() {
+            return PackedPoints.of(coords, count);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package EduJam.AI.model;
+
+import java.util.Arrays;
+
+/**
+ * Works out what an eraser stroke leaves of a drawn stroke.
+ *
+ * The eraser is a polyline swept with a round brush of the given radius. A point
+ * of the stroke is erased when the brush covers any of its ink, i.e. when it lies
+ * within the radius plus half the stroke's width of the eraser line. The points
+ * that survive form runs; a run is also cut where the eraser passes between two
+ * surviving points. Single points left over from a longer stroke are dropped,
+ * since on their own they would draw as dots the stroke never had.
+ *
+ * Runs are always whole ranges of the original points, so fragments never carry
+ * coordinates the stroke did not already have.
+ */
+final class StrokeEraser {
+
+    private StrokeEraser() {
+    }
+
+    /**
+     * Splits a stroke into the runs of points the eraser leaves standing
+     *
+     * @param path eraser positions as interleaved coordinates x0, y0, x1, y1, ...; a single position erases a dot
+     * @return from/to index pairs of the runs to keep, empty if the whole stroke is erased,
+     *         or null if the eraser does not touch the stroke
+     */
+    static int[] keptRuns(StrokeModel stroke, int[] path, int radius) {
+        PackedPoints points = stroke.getPoints();
+        int count = points.size();
+        if (count == 0 || path.length < 2) {
+            return null;
+        }
+        double reach = radius + Math.max(stroke.getThickness(), 0) / 2.0;
+        double reachSq = reach * reach;
+        int[] segments = nearbySegments(path, stroke.bounds().expand((int) Math.ceil(reach)));
+        if (segments.length == 0) {
+            return null;
+        }
+
+        int[] coords = points.toInterleaved();
+        int[] runs = new int[8];
+        int runCount = 0;
+        int start = -1;
+        boolean touched = false;
+        for (int i = 0; i < count; i++) {
+            int x = coords[i * 2];
+            int y = coords[i * 2 + 1];
+            if (pointNear(x, y, path, segments, reachSq)) {
+                touched = true;
+                if (start >= 0) {
+                    runs = addRun(runs, runCount++, start, i, count);
+                    start = -1;
+                }
+                continue;
+            }
+            if (start < 0) {
+                start = i;
+            } else if (segmentNear(coords[i * 2 - 2], coords[i * 2 - 1], x, y, path, segments, reachSq)) {
+                touched = true;
+                runs = addRun(runs, runCount++, start, i, count);
+                start = i;
+            }
+        }
+        if (!touched) {
+            return null;
+        }
+        if (start >= 0) {
+            runs = addRun(runs, runCount++, start, count, count);
+        }
+        int kept = 0;
+        for (int i = 0; i < runCount; i++) {
+            if (runs[i * 2] >= 0) {
+                runs[kept * 2] = runs[i * 2];
+                runs[kept * 2 + 1] = runs[i * 2 + 1];
+                kept++;
+            }
+        }
+        return Arrays.copyOf(runs, kept * 2);
+    }
+
+    /**
+     * Records a run, or a placeholder of -1 when it is a lone point of a longer stroke
+     */
+    private static int[] addRun(int[] runs, int index, int from, int to, int count) {
+        if (index * 2 == runs.length) {
+            runs = Arrays.copyOf(runs, runs.length * 2);
+        }
+        boolean keep = to - from >= 2 || count == 1;
+        runs[index * 2] = keep ? from : -1;
+        runs[index * 2 + 1] = keep ? to : -1;
+        return runs;
+    }
+
+    /**
+     * Returns the start indexes of the eraser segments whose box meets the area,
+     * so long erase paths are only tested where they pass the stroke
+     */
+    private static int[] nearbySegments(int[] path, BoundingBox area) {
+        int positions = path.length / 2;
+        int segmentCount = Math.max(positions - 1, 1);
+        int[] nearby = new int[segmentCount];
+        int found = 0;
+        for (int s = 0; s < segmentCount; s++) {
+            int end = Math.min(s + 1, positions - 1);
+            int ax = path[s * 2];
+            int ay = path[s * 2 + 1];
+            int bx = path[end * 2];
+            int by = path[end * 2 + 1];
+            if (Math.min(ax, bx) <= area.getMaxX() && Math.max(ax, bx) >= area.getMinX()
+                    && Math.min(ay, by) <= area.getMaxY() && Math.max(ay, by) >= area.getMinY()) {
+                nearby[found++] = s;
+            }
+        }
+        return Arrays.copyOf(nearby, found);
+    }
+
+    private static boolean pointNear(int x, int y, int[] path, int[] segments, double reachSq) {
+        int last = path.length / 2 - 1;
+        for (int s : segments) {
+            int end = Math.min(s + 1, last);
+            if (pointSegmentDistSq(x, y, path[s * 2], path[s * 2 + 1], path[end * 2], path[end * 2 + 1]) <= reachSq) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean segmentNear(int ax, int ay, int bx, int by, int[] path, int[] segments, double reachSq) {
+        int last = path.length / 2 - 1;
+        for (int s : segments) {
+            int end = Math.min(s + 1, last);
+            int cx = path[s * 2];
+            int cy = path[s * 2 + 1];
+            int dx = path[end * 2];
+            int dy = path[end * 2 + 1];
+            if (segmentsIntersect(ax, ay, bx, by, cx, cy, dx, dy)
+                    || pointSegmentDistSq(cx, cy, ax, ay, bx, by) <= reachSq
+                    || pointSegmentDistSq(dx, dy, ax, ay, bx, by) <= reachSq
+                    || pointSegmentDistSq(ax, ay, cx, cy, dx, dy) <= reachSq
+                    || pointSegmentDistSq(bx, by, cx, cy, dx, dy) <= reachSq) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double pointSegmentDistSq(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSq = dx * dx + dy * dy;
+        double t = lengthSq == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSq;
+        t = Math.max(0, Math.min(1, t));
+        double ex = ax + t * dx - px;
+        double ey = ay + t * dy - py;
+        return ex * ex + ey * ey;
+    }
+
+    private static boolean segmentsIntersect(long ax, long ay, long bx, long by, long cx, long cy, long dx, long dy) {
+        long d1 = cross(cx, cy, dx, dy, ax, ay);
+        long d2 = cross(cx, cy, dx, dy, bx, by);
+        long d3 = cross(ax, ay, bx, by, cx, cy);
+        long d4 = cross(ax, ay, bx, by, dx, dy);
+        // Touching and collinear cases are within reach anyway and caught by the distance checks
+        return ((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0));
+    }
+
+    private static long cross(long ox, long oy, long ax, long ay, long bx, long by) {
+        return (ax - ox) * (by - oy) - (ay - oy) * (bx - ox);
+    }
+}
@@ -0,0 +1,75 @@
+package EduJam.AI.model;
+
+/**
+ * The part of a partly erased stroke that is left standing: the source stroke's
+ * points from index {@code from} up to but not including {@code to}, kept as a
+ * stroke of its own with the source's color, width, author and timestamp.
+ *
+ * Clients already hold the source stroke, so a fragment is described to them
+ * (and stored) by its range alone; the points are cut out again on the other side.
+ */
+public final class StrokeFragment {
+    private final String id;
+    private final String sourceId;
+    private final int from;
+    private final int to;
+    // The fragment as a stroke; null for fragments read back from storage until they are replayed
+    private final StrokeModel stroke;
+
+    /**
+     * Describes a fragment without its stroke, e.g. when reading it back from storage
+     */
+    public StrokeFragment(String id, String sourceId, int from, int to) {
+        this(id, sourceId, from, to, null);
+    }
+
+    private StrokeFragment(String id, String sourceId, int from, int to, StrokeModel stroke) {
+        this.id = id;
+        this.sourceId = sourceId;
+        this.from = from;
+        this.to = to;
+        this.stroke = stroke;
+    }
+
+    /**
+     * Cuts a range of points out of a stroke as a new stroke
+     *
+     * @param seq sequence number of the erase that produced the fragment
+     */
+    static StrokeFragment cut(StrokeModel source, String id, int from, int to, long seq) {
+        StrokeModel stroke = new StrokeModel();
+        stroke.setId(id);
+        stroke.setBoardId(source.getBoardId());
+        stroke.setSessionId(source.getSessionId());
+        stroke.setColor(source.getColor());
+        stroke.setThickness(source.getThickness());
+        stroke.setTool(source.getTool());
+        stroke.setTimestamp(source.getTimestamp());
+        stroke.setSeq(seq);
+        stroke.setPoints(source.getPoints().slice(from, to));
+        return new StrokeFragment(id, source.getId(), from, to, stroke);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * ID of the erased stroke the fragment was cut from
+     */
+    public String getSourceId() {
+        return sourceId;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public StrokeModel getStroke() {
+        return stroke;
+    }
+}
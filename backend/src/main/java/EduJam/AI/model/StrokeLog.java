@@ -0,0 +1,494 @@
+package EduJam.AI.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of the strokes drawn on a board.
+ *
+ * Strokes are never moved or removed in place. Undo clears the stroke's visibility
+ * bit (a tombstone) and redo sets it again. The strokes and their bits live in a
+ * persistent {@link StrokeVector}, so add, undo and redo are O(log32 n), clear is
+ * O(1), and both {@link #snapshot()} and {@link #copy()} are O(1): they share the
+ * vector and only the nodes changed afterwards get copied. Tombstones that can no
+ * longer be redone are compacted away once they make up more than half of the log.
+ *
+ * Undo and redo are per author: every author (the stroke's session ID) has its
+ * own stacks, so undoing only ever hides that author's latest stroke and drawing
+ * only clears that author's redo history. Erasing a stroke hides it outside of
+ * undo and redo; the fragments left of it join their author's undo history but,
+ * since anyone may erase, leave the author's redo history alone.
+ *
+ * This class is not thread-safe; {@link BoardModel} guards every call.
+ */
+final class StrokeLog {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MIN_COMPACTION_SIZE = 1024;
+    // Rough heap cost of a stroke besides its points: object headers, ID strings, color, tool
+    private static final int STROKE_OVERHEAD_BYTES = 256;
+
+    private StrokeVector entries;
+    private int visibleCount;
+    // Estimated heap held by every stroke in the log, including tombstones
+    private long retainedBytes;
+
+    // Undo/redo stacks per author; null is the author of strokes without a session
+    private Map<String, AuthorHistory> histories;
+    // Entries across all redo stacks, i.e. tombstones that must survive compaction
+    private int redoableCount;
+    // Histories stamped with another token are shared with a copy of the log and copied before writing
+    private Object edit;
+
+    // Cached read view, dropped on every mutation
+    private Snapshot snapshot;
+
+    StrokeLog() {
+        reset();
+    }
+
+    private StrokeLog(StrokeLog source) {
+        this.entries = source.entries.share();
+        this.visibleCount = source.visibleCount;
+        this.retainedBytes = source.retainedBytes;
+        this.histories = new HashMap<>(source.histories);
+        this.redoableCount = source.redoableCount;
+        this.edit = new Object();
+        // Both logs now share the histories, so the source has to copy them before writing as well
+        source.edit = new Object();
+    }
+
+    /**
+     * Returns a log with the same strokes and undo/redo history that shares its
+     * storage with this one. Later changes to either log are not seen by the other.
+     */
+    StrokeLog copy() {
+        return new StrokeLog(this);
+    }
+
+    /**
+     * Appends a stroke and makes it visible. Clears its author's redo history.
+     */
+    void add(StrokeModel stroke) {
+        int index = append(stroke);
+        AuthorHistory history = historyOf(stroke.getSessionId());
+        history.pushUndo(index);
+        redoableCount -= history.redoTop;
+        history.redoTop = 0;
+        snapshot = null;
+        compactIfSparse();
+    }
+
+    /**
+     * Appends a fragment left by an erase and makes it visible. It joins its author's
+     * undo history like a new stroke, but the author's redo history is kept: the erase
+     * may have been someone else's.
+     */
+    void addFragment(StrokeModel fragment) {
+        int index = append(fragment);
+        historyOf(fragment.getSessionId()).pushUndo(index);
+        snapshot = null;
+        compactIfSparse();
+    }
+
+    /**
+     * Hides a visible stroke for good, e.g. because it was erased. The stroke is
+     * dropped from its author's undo history and can never be redone.
+     *
+     * @return false if the stroke is not visible in the log
+     */
+    boolean erase(StrokeModel stroke) {
+        int index = indexOf(stroke.getSeq(), stroke, null);
+        if (index < 0) {
+            return false;
+        }
+        entries.setVisible(index, false);
+        visibleCount--;
+        // Undo stacks hold the author's visible strokes in log order, so the position can be searched
+        AuthorHistory history = writableHistory(stroke.getSessionId());
+        int position = Arrays.binarySearch(history.undo, 0, history.undoTop, index);
+        System.arraycopy(history.undo, position + 1, history.undo, position, history.undoTop - position - 1);
+        history.undoTop--;
+        snapshot = null;
+        compactIfSparse();
+        return true;
+    }
+
+    /**
+     * Looks up a visible stroke by its sequence number and ID
+     *
+     * @return the stroke, or null if no visible stroke matches
+     */
+    StrokeModel findVisible(long seq, String id) {
+        int index = indexOf(seq, null, id);
+        return index >= 0 ? entries.get(index) : null;
+    }
+
+    /**
+     * Hides the author's most recently added visible stroke.
+     *
+     * @return the hidden stroke, or null if the author has nothing to undo
+     */
+    StrokeModel undo(String author) {
+        AuthorHistory history = histories.get(author);
+        if (history == null || history.undoTop == 0) {
+            return null;
+        }
+        history = writableHistory(author);
+        int index = history.undo[--history.undoTop];
+        entries.setVisible(index, false);
+        visibleCount--;
+        history.pushRedo(index);
+        redoableCount++;
+        snapshot = null;
+        return entries.get(index);
+    }
+
+    /**
+     * Makes the author's most recently undone stroke visible again.
+     *
+     * @return the restored stroke, or null if the author has nothing to redo
+     */
+    StrokeModel redo(String author) {
+        AuthorHistory history = histories.get(author);
+        if (history == null || history.redoTop == 0) {
+            return null;
+        }
+        history = writableHistory(author);
+        int index = history.redo[--history.redoTop];
+        redoableCount--;
+        entries.setVisible(index, true);
+        visibleCount++;
+        // Fragments added since the undo may sit above it, so keep the undo stack in log order
+        history.insertUndo(index);
+        snapshot = null;
+        return entries.get(index);
+    }
+
+    /**
+     * Drops every stroke and all undo/redo history.
+     */
+    void clear() {
+        // Snapshots and copies still share the old vector, so start fresh instead of wiping it
+        reset();
+    }
+
+    int visibleCount() {
+        return visibleCount;
+    }
+
+    /**
+     * Approximate heap footprint of the log in bytes
+     */
+    long retainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Strokes that can currently be redone, grouped by author with the bottom of
+     * each author's redo stack first
+     */
+    List<StrokeModel> redoStrokes() {
+        List<StrokeModel> redoable = new ArrayList<>(redoableCount);
+        for (AuthorHistory history : histories.values()) {
+            for (int i = 0; i < history.redoTop; i++) {
+                redoable.add(entries.get(history.redo[i]));
+            }
+        }
+        return redoable;
+    }
+
+    /**
+     * Rebuilds the log from persisted state. Each author's undo stack always
+     * mirrors their visible strokes in log order, so only the redo stacks need
+     * to be stored.
+     *
+     * @param visibleStrokes visible strokes in drawing order
+     * @param redoStrokes redoable strokes, each author's bottom of the redo stack first
+     */
+    void restore(List<StrokeModel> visibleStrokes, List<StrokeModel> redoStrokes) {
+        reset();
+        // Redoable strokes sit between visible ones in the log; sequence numbers give the order.
+        // Fragments of one erase share a number, and an author can only have undone the later ones.
+        List<StrokeModel> hidden = new ArrayList<>(redoStrokes);
+        hidden.sort(Comparator.comparingLong(StrokeModel::getSeq));
+        Map<StrokeModel, Integer> positions = new IdentityHashMap<>();
+
+        int v = 0;
+        int h = 0;
+        while (v < visibleStrokes.size() || h < hidden.size()) {
+            boolean takeVisible = h == hidden.size()
+                    || (v < visibleStrokes.size() && visibleStrokes.get(v).getSeq() <= hidden.get(h).getSeq());
+            StrokeModel stroke = takeVisible ? visibleStrokes.get(v++) : hidden.get(h++);
+            int index = entries.size();
+            entries.add(stroke);
+            retainedBytes += estimateBytes(stroke);
+            if (takeVisible) {
+                visibleCount++;
+                historyOf(stroke.getSessionId()).pushUndo(index);
+            } else {
+                entries.setVisible(index, false);
+                positions.put(stroke, index);
+            }
+        }
+        for (StrokeModel stroke : redoStrokes) {
+            historyOf(stroke.getSessionId()).pushRedo(positions.get(stroke));
+            redoableCount++;
+        }
+    }
+
+    /**
+     * Returns an immutable view of the visible strokes in drawing order.
+     * The view shares the log's vector and is reused until the next mutation.
+     */
+    Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = new Snapshot(entries.share(), visibleCount);
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the visible strokes with a sequence number after afterSeq, in drawing order.
+     * Stops after limit strokes, but never between fragments that share a sequence number,
+     * so a reader resuming after the last one's number misses none of them.
+     */
+    List<StrokeModel> visibleAfter(long afterSeq, int limit) {
+        List<StrokeModel> page = new ArrayList<>(Math.min(limit, visibleCount));
+        if (afterSeq == Long.MAX_VALUE) {
+            return page;
+        }
+        for (int i = entries.nextVisible(firstIndexOf(afterSeq + 1)); i >= 0; i = entries.nextVisible(i + 1)) {
+            StrokeModel stroke = entries.get(i);
+            if (page.size() >= limit && stroke.getSeq() != page.get(page.size() - 1).getSeq()) {
+                break;
+            }
+            page.add(stroke);
+        }
+        return page;
+    }
+
+    /**
+     * Finds the log position of a visible stroke, matching either the instance or its ID.
+     * The log is ordered by sequence number; only fragments cut by one erase share one.
+     */
+    private int indexOf(long seq, StrokeModel stroke, String id) {
+        int size = entries.size();
+        for (int i = firstIndexOf(seq); i < size; i++) {
+            StrokeModel candidate = entries.get(i);
+            if (candidate.getSeq() != seq) {
+                break;
+            }
+            if (entries.isVisible(i) && (candidate == stroke || (id != null && id.equals(candidate.getId())))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first log position whose sequence number is at least seq, or the log size
+     */
+    private int firstIndexOf(long seq) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries.get(mid).getSeq() < seq) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void compactIfSparse() {
+        int size = entries.size();
+        if (size - visibleCount - redoableCount > Math.max(MIN_COMPACTION_SIZE, size / 2)) {
+            compact();
+        }
+    }
+
+    /**
+     * Adds a visible stroke to the end of the log
+     *
+     * @return its position
+     */
+    private int append(StrokeModel stroke) {
+        int index = entries.size();
+        entries.add(stroke);
+        visibleCount++;
+        retainedBytes += estimateBytes(stroke);
+        return index;
+    }
+
+    private void reset() {
+        entries = new StrokeVector();
+        visibleCount = 0;
+        retainedBytes = 0;
+        histories = new HashMap<>();
+        redoableCount = 0;
+        edit = new Object();
+        snapshot = null;
+    }
+
+    /**
+     * Returns the author's history, ready to be written, creating it if needed
+     */
+    private AuthorHistory historyOf(String author) {
+        if (!histories.containsKey(author)) {
+            AuthorHistory history = new AuthorHistory(edit);
+            histories.put(author, history);
+            return history;
+        }
+        return writableHistory(author);
+    }
+
+    /**
+     * Returns the author's existing history, copied first if a copy of the log shares it
+     */
+    private AuthorHistory writableHistory(String author) {
+        AuthorHistory history = histories.get(author);
+        if (history.edit != edit) {
+            history = history.copy(edit);
+            histories.put(author, history);
+        }
+        return history;
+    }
+
+    /**
+     * Rewrites the log without dead tombstones, keeping visible strokes and
+     * every stroke an author can still redo.
+     */
+    private void compact() {
+        int size = entries.size();
+        boolean[] redoable = new boolean[size];
+        for (AuthorHistory history : histories.values()) {
+            for (int i = 0; i < history.redoTop; i++) {
+                redoable[history.redo[i]] = true;
+            }
+        }
+
+        StrokeVector compacted = new StrokeVector();
+        int[] remap = new int[size];
+        retainedBytes = 0;
+        for (int i = 0; i < size; i++) {
+            boolean shown = entries.isVisible(i);
+            if (shown || redoable[i]) {
+                StrokeModel stroke = entries.get(i);
+                remap[i] = compacted.size();
+                compacted.add(stroke);
+                if (!shown) {
+                    compacted.setVisible(remap[i], false);
+                }
+                retainedBytes += estimateBytes(stroke);
+            }
+        }
+        for (String author : new ArrayList<>(histories.keySet())) {
+            AuthorHistory history = writableHistory(author);
+            for (int i = 0; i < history.undoTop; i++) {
+                history.undo[i] = remap[history.undo[i]];
+            }
+            for (int i = 0; i < history.redoTop; i++) {
+                history.redo[i] = remap[history.redo[i]];
+            }
+        }
+        entries = compacted;
+        snapshot = null;
+    }
+
+    static long estimateBytes(StrokeModel stroke) {
+        return STROKE_OVERHEAD_BYTES + stroke.getPoints().byteSize();
+    }
+
+    private static int[] push(int[] stack, int top, int value) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+        }
+        stack[top] = value;
+        return stack;
+    }
+
+    /**
+     * One author's undo and redo stacks. They hold positions in the log, not the strokes themselves.
+     */
+    private static final class AuthorHistory {
+        // Token of the log allowed to write these stacks in place
+        private final Object edit;
+        private int[] undo = new int[INITIAL_CAPACITY];
+        private int undoTop;
+        private int[] redo = new int[INITIAL_CAPACITY];
+        private int redoTop;
+
+        private AuthorHistory(Object edit) {
+            this.edit = edit;
+        }
+
+        private AuthorHistory copy(Object edit) {
+            AuthorHistory copy = new AuthorHistory(edit);
+            copy.undo = Arrays.copyOf(undo, Math.max(undoTop, INITIAL_CAPACITY));
+            copy.undoTop = undoTop;
+            copy.redo = Arrays.copyOf(redo, Math.max(redoTop, INITIAL_CAPACITY));
+            copy.redoTop = redoTop;
+            return copy;
+        }
+
+        private void pushUndo(int index) {
+            undo = push(undo, undoTop++, index);
+        }
+
+        private void insertUndo(int index) {
+            int position = -Arrays.binarySearch(undo, 0, undoTop, index) - 1;
+            undo = push(undo, undoTop, index);
+            System.arraycopy(undo, position, undo, position + 1, undoTop - position);
+            undo[position] = index;
+            undoTop++;
+        }
+
+        private void pushRedo(int index) {
+            redo = push(redo, redoTop++, index);
+        }
+    }
+
+    /**
+     * Read-only list of the visible strokes at the time it was taken.
+     * Iteration walks the shared vector a leaf at a time and skips tombstones by
+     * their visibility bits; positional access counts them a leaf at a time and is linear.
+     */
+    static final class Snapshot extends AbstractList<StrokeModel> {
+        private final StrokeVector entries;
+        private final int count;
+
+        private Snapshot(StrokeVector entries, int count) {
+            this.entries = entries;
+            this.count = count;
+        }
+
+        @Override
+        public StrokeModel get(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+            }
+            return entries.get(entries.nthVisible(index));
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public Iterator<StrokeModel> iterator() {
+            return entries.visibleIterator();
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package EduJam.AI.model;
 
-import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -13,11 +11,12 @@ public class StrokeModel {
     private String id;
     private String boardId;
     private String sessionId;
-    private List<Map<String, Integer>> points;
+    private PackedPoints points;
     private String color;
     private int thickness;
     private String tool;
     private long timestamp;
+    private long seq;
 
     /**
      * Default constructor. Creates an empty stroke model with generated ID, current timestamp,
@@ -25,13 +24,14 @@ public class StrokeModel {
      */
     public StrokeModel() {
         this.id = UUID.randomUUID().toString();
+        this.points = PackedPoints.EMPTY;
         this.timestamp = System.currentTimeMillis();
     }
 
     /**
      * Creates a new stroke model with the specified parameters.
      */
-    public StrokeModel(String boardId, String sessionId, List<Map<String, Integer>> points, 
+    public StrokeModel(String boardId, String sessionId, PackedPoints points, 
                        String color, int thickness, String tool) {
         this.id = UUID.randomUUID().toString();
         this.boardId = boardId;
@@ -68,11 +68,11 @@ public class StrokeModel {
         this.sessionId = sessionId;
     }
 
-    public List<Map<String, Integer>> getPoints() {
+    public PackedPoints getPoints() {
         return points;
     }
 
-    public void setPoints(List<Map<String, Integer>> points) {
+    public void setPoints(PackedPoints points) {
         this.points = points;
     }
 
@@ -108,6 +108,30 @@ public class StrokeModel {
         this.timestamp = timestamp;
     }
 
+    /**
+     * Position of this stroke in its board's drawing order, assigned when it is added
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    /**
+     * Area covered by this stroke including half the brush thickness,
+     * or null when the stroke has no points
+     */
+    public BoundingBox bounds() {
+        BoundingBox pointBounds = points != null ? points.bounds() : null;
+        if (pointBounds == null) {
+            return null;
+        }
+        // Widened so a thickness near Integer.MAX_VALUE cannot overflow the margin
+        return pointBounds.expand((int) ((Math.max(thickness, 0) + 1L) / 2));
+    }
+
     @Override
     public String toString() {
         return "StrokeModel{" +
@@ -119,6 +143,7 @@ public class StrokeModel {
                 ", thickness=" + thickness +
                 ", tool='" + tool + '\'' +
                 ", timestamp=" + timestamp +
+                ", seq=" + seq +
                 '}';
     }
 }
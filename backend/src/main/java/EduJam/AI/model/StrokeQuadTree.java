@@ -0,0 +1,311 @@
+package EduJam.AI.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Quadtree over the bounding boxes of the visible strokes on a board.
+ *
+ * Each stroke lives in the smallest node whose square fully contains its box,
+ * so strokes that straddle a split line stay in the parent. The root grows
+ * outward by doubling whenever a stroke lands outside it, which keeps the
+ * index valid for strokes drawn beyond the configured canvas size.
+ *
+ * Nodes are copy-on-write: each is stamped with the edit token of the tree that
+ * created it, and a tree only changes its own nodes in place. {@link #copy()} shares
+ * the whole tree in O(1); afterwards an insert or remove in either tree copies just
+ * the nodes on the path it touches.
+ *
+ * This class is not thread-safe; {@link BoardModel} guards every call.
+ */
+final class StrokeQuadTree {
+    private static final int NODE_CAPACITY = 16;
+    private static final int MIN_NODE_SIZE = 64;
+    private static final int MAX_ROOT_SIZE = 1 << 30;
+
+    private final int initialSize;
+    private Node root;
+    // Strokes too far out for the root to grow around; always checked by queries
+    private final List<Entry> outliers;
+    private int count;
+    // Nodes stamped with another token are shared with a copy of the tree
+    private Object edit = new Object();
+
+    StrokeQuadTree(int initialSize) {
+        this.initialSize = Integer.highestOneBit(Math.max(MIN_NODE_SIZE, initialSize - 1)) << 1;
+        this.root = new Node(0, 0, this.initialSize, edit);
+        this.outliers = new ArrayList<>();
+    }
+
+    private StrokeQuadTree(StrokeQuadTree source) {
+        this.initialSize = source.initialSize;
+        this.root = source.root;
+        this.outliers = new ArrayList<>(source.outliers);
+        this.count = source.count;
+        // The source's nodes are shared from now on, so it has to copy them before writing as well
+        source.edit = new Object();
+    }
+
+    /**
+     * Returns a tree with the same strokes that shares every node with this one.
+     * Later changes to either tree are not seen by the other.
+     */
+    StrokeQuadTree copy() {
+        return new StrokeQuadTree(this);
+    }
+
+    /**
+     * Indexes a stroke. Query results are ordered by the stroke's sequence number.
+     */
+    void insert(StrokeModel stroke) {
+        insert(stroke, stroke.bounds());
+    }
+
+    /**
+     * Indexes a stroke whose bounds the caller has already worked out
+     */
+    void insert(StrokeModel stroke, BoundingBox bounds) {
+        if (bounds == null) {
+            return;
+        }
+        Entry entry = new Entry(stroke, bounds, stroke.getSeq());
+        while (!root.contains(bounds) && root.size < MAX_ROOT_SIZE) {
+            growToward(bounds);
+        }
+        if (root.contains(bounds)) {
+            root = root.writable(edit);
+            root.insert(entry, edit);
+        } else {
+            outliers.add(entry);
+        }
+        count++;
+    }
+
+    void remove(StrokeModel stroke) {
+        BoundingBox bounds = stroke.bounds();
+        if (bounds == null) {
+            return;
+        }
+        // A stroke is only ever stored on the path of nodes containing its box, so find its depth first
+        int depth = 0;
+        Node node = root.contains(bounds) ? root : null;
+        while (node != null && !node.holds(stroke)) {
+            node = node.existingChild(bounds);
+            depth++;
+        }
+        if (node == null) {
+            if (outliers.removeIf(entry -> entry.stroke == stroke)) {
+                count--;
+            }
+            return;
+        }
+        // Then copy the nodes on that path this tree does not own yet
+        root = root.writable(edit);
+        node = root;
+        for (int i = 0; i < depth; i++) {
+            node = node.writableChild(node.quadrantOf(bounds.getMinX(), bounds.getMinY()), edit);
+        }
+        node.entries.removeIf(entry -> entry.stroke == stroke);
+        count--;
+    }
+
+    void clear() {
+        root = new Node(0, 0, initialSize, edit);
+        outliers.clear();
+        count = 0;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Collects every indexed stroke whose box intersects the area, ordered by insertion order.
+     */
+    List<StrokeModel> query(BoundingBox area) {
+        List<Entry> hits = new ArrayList<>();
+        root.query(area, hits::add);
+        for (Entry outlier : outliers) {
+            if (outlier.bounds.intersects(area)) {
+                hits.add(outlier);
+            }
+        }
+        hits.sort((a, b) -> Long.compare(a.order, b.order));
+
+        List<StrokeModel> strokes = new ArrayList<>(hits.size());
+        for (Entry hit : hits) {
+            strokes.add(hit.stroke);
+        }
+        return strokes;
+    }
+
+    private void growToward(BoundingBox bounds) {
+        int size = root.size;
+        // Grow left/up when the stroke sticks out on that side, otherwise right/down
+        int x = bounds.getMinX() < root.x ? root.x - size : root.x;
+        int y = bounds.getMinY() < root.y ? root.y - size : root.y;
+        Node grown = new Node(x, y, size * 2, edit);
+        grown.children = new Node[4];
+        grown.children[grown.quadrantOf(root.x, root.y)] = root;
+        root = grown;
+    }
+
+    private static final class Entry {
+        private final StrokeModel stroke;
+        private final BoundingBox bounds;
+        private final long order;
+
+        private Entry(StrokeModel stroke, BoundingBox bounds, long order) {
+            this.stroke = stroke;
+            this.bounds = bounds;
+            this.order = order;
+        }
+    }
+
+    private static final class Node {
+        private final int x;
+        private final int y;
+        private final int size;
+        private final BoundingBox box;
+        // Token of the tree allowed to change this node in place
+        private final Object edit;
+        private final List<Entry> entries;
+        // Null while this node is a leaf; individual children are created on demand
+        private Node[] children;
+
+        private Node(int x, int y, int size, Object edit) {
+            this(x, y, size, edit, new ArrayList<>(), null);
+        }
+
+        private Node(int x, int y, int size, Object edit, List<Entry> entries, Node[] children) {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+            this.box = new BoundingBox(x, y, x + size - 1, y + size - 1);
+            this.edit = edit;
+            this.entries = entries;
+            this.children = children;
+        }
+
+        private boolean contains(BoundingBox bounds) {
+            return box.contains(bounds);
+        }
+
+        /**
+         * Returns this node if the tree with the token owns it, otherwise a copy it owns.
+         * The copy shares the children, which are copied in turn when written.
+         */
+        private Node writable(Object edit) {
+            if (this.edit == edit) {
+                return this;
+            }
+            return new Node(x, y, size, edit, new ArrayList<>(entries), children == null ? null : children.clone());
+        }
+
+        /**
+         * Inserts below this node, which the tree with the token must own
+         */
+        private void insert(Entry entry, Object edit) {
+            Node node = this;
+            while (true) {
+                if (node.children == null) {
+                    if (node.entries.size() < NODE_CAPACITY || node.size <= MIN_NODE_SIZE) {
+                        node.entries.add(entry);
+                        return;
+                    }
+                    node.split(edit);
+                }
+                Node child = node.childContaining(entry.bounds, edit);
+                if (child == null) {
+                    node.entries.add(entry);
+                    return;
+                }
+                node = child;
+            }
+        }
+
+        private boolean holds(StrokeModel stroke) {
+            for (Entry entry : entries) {
+                if (entry.stroke == stroke) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void split(Object edit) {
+            children = new Node[4];
+            List<Entry> current = new ArrayList<>(entries);
+            entries.clear();
+            for (Entry entry : current) {
+                Node child = childContaining(entry.bounds, edit);
+                (child != null ? child : this).entries.add(entry);
+            }
+        }
+
+        /**
+         * Returns the child that fully contains the box, creating it or making it
+         * the tree's own if needed, or null when the box straddles a split line.
+         */
+        private Node childContaining(BoundingBox bounds, Object edit) {
+            int quadrant = quadrantOf(bounds.getMinX(), bounds.getMinY());
+            if (quadrant != quadrantOf(bounds.getMaxX(), bounds.getMaxY())) {
+                return null;
+            }
+            return writableChild(quadrant, edit);
+        }
+
+        private Node writableChild(int quadrant, Object edit) {
+            Node child = children[quadrant];
+            if (child == null) {
+                int half = size / 2;
+                int childX = (quadrant & 1) == 0 ? x : x + half;
+                int childY = (quadrant & 2) == 0 ? y : y + half;
+                child = new Node(childX, childY, half, edit);
+            } else {
+                child = child.writable(edit);
+            }
+            children[quadrant] = child;
+            return child;
+        }
+
+        /**
+         * Returns the existing child that fully contains the box without changing anything,
+         * or null if there is none
+         */
+        private Node existingChild(BoundingBox bounds) {
+            if (children == null) {
+                return null;
+            }
+            int quadrant = quadrantOf(bounds.getMinX(), bounds.getMinY());
+            if (quadrant != quadrantOf(bounds.getMaxX(), bounds.getMaxY())) {
+                return null;
+            }
+            return children[quadrant];
+        }
+
+        private int quadrantOf(int px, int py) {
+            int half = size / 2;
+            return (px - x < half ? 0 : 1) | (py - y < half ? 0 : 2);
+        }
+
+        private void query(BoundingBox area, Consumer<Entry> hits) {
+            if (!box.intersects(area)) {
+                return;
+            }
+            for (Entry entry : entries) {
+                if (entry.bounds.intersects(area)) {
+                    hits.accept(entry);
+                }
+            }
+            if (children != null) {
+                for (Node child : children) {
+                    if (child != null) {
+                        child.query(area, hits);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package EduJam.AI.model;
+
+/**
+ * Reduces the number of points in a stroke with the Ramer-Douglas-Peucker algorithm.
+ *
+ * A point is dropped when it lies within the tolerance of the segment between
+ * the points kept around it, so long runs of nearly collinear samples collapse
+ * to their end points while corners survive. The first and last points are
+ * always kept. Runs without recursion, so very long strokes cannot overflow the stack.
+ */
+public final class StrokeSimplifier {
+
+    private StrokeSimplifier() {
+    }
+
+    /**
+     * @param tolerance maximum distance, in board units, between a dropped point
+     *        and the simplified line; 0 or less returns the points unchanged
+     * @return the simplified points, or the same instance if nothing was dropped
+     */
+    public static PackedPoints simplify(PackedPoints points, double tolerance) {
+        int count = points.size();
+        if (tolerance <= 0 || count <= 2) {
+            return points;
+        }
+
+        int[] coords = points.toInterleaved();
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        double toleranceSquared = tolerance * tolerance;
+
+        // Pending ranges as (first, last) index pairs; ranges never overlap, so count - 1 pairs is enough
+        int[] ranges = new int[2 * count];
+        int top = 0;
+        ranges[top++] = 0;
+        ranges[top++] = count - 1;
+        int kept = 2;
+        while (top > 0) {
+            int last = ranges[--top];
+            int first = ranges[--top];
+
+            int farthest = -1;
+            double farthestDistance = toleranceSquared;
+            for (int i = first + 1; i < last; i++) {
+                double distance = distanceToSegmentSquared(coords, i, first, last);
+                if (distance > farthestDistance) {
+                    farthestDistance = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest < 0) {
+                continue;
+            }
+            keep[farthest] = true;
+            kept++;
+            if (farthest - first > 1) {
+                ranges[top++] = first;
+                ranges[top++] = farthest;
+            }
+            if (last - farthest > 1) {
+                ranges[top++] = farthest;
+                ranges[top++] = last;
+            }
+        }
+
+        if (kept == count) {
+            return points;
+        }
+        int[] simplified = new int[kept * 2];
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                simplified[next++] = coords[i * 2];
+                simplified[next++] = coords[i * 2 + 1];
+            }
+        }
+        return PackedPoints.of(simplified, kept);
+    }
+
+    /**
+     * Squared distance from point p to the segment a-b, all given as point indexes.
+     * Measures to the segment rather than the infinite line, so strokes that
+     * double back on themselves keep their turning points.
+     */
+    private static double distanceToSegmentSquared(int[] coords, int p, int a, int b) {
+        double px = coords[p * 2], py = coords[p * 2 + 1];
+        double ax = coords[a * 2], ay = coords[a * 2 + 1];
+        double bx = coords[b * 2], by = coords[b * 2 + 1];
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+}
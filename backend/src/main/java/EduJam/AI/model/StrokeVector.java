@@ -0,0 +1,211 @@
+package EduJam.AI.model;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Persistent, structurally shared vector of strokes with a visibility bit per slot.
+ *
+ * The strokes sit in a trie of 32-slot nodes: leaves hold the strokes and a bitmask
+ * of which are visible, inner nodes hold up to 32 children. Nodes are stamped with
+ * the edit token of the vector that created them and are only changed in place by
+ * that vector. {@link #share()} gives the vector a new token, so from then on both
+ * it and the returned vector copy the nodes on the path to a slot before changing
+ * it and leave everything else shared. Copying a vector is therefore O(1), and a
+ * change after sharing costs one copied leaf plus one node per level.
+ *
+ * This class is not thread-safe. A vector returned by {@link #share()} may be read
+ * from any thread once published, as long as nobody changes it.
+ */
+final class StrokeVector {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private Node root;
+    // Bit offset of the root's level; 0 while the root is a leaf
+    private int shift;
+    private int size;
+    private Object edit;
+
+    StrokeVector() {
+        this.edit = new Object();
+        this.root = new Node(edit);
+    }
+
+    private StrokeVector(Node root, int shift, int size) {
+        this.edit = new Object();
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    StrokeModel get(int index) {
+        return (StrokeModel) leafFor(index).slots[index & MASK];
+    }
+
+    boolean isVisible(int index) {
+        return (leafFor(index).visible & (1 << (index & MASK))) != 0;
+    }
+
+    /**
+     * Appends a visible stroke
+     */
+    void add(StrokeModel stroke) {
+        if (size == 1 << (shift + BITS)) {
+            Node grown = new Node(edit);
+            grown.slots[0] = root;
+            root = grown;
+            shift += BITS;
+        }
+        Node leaf = writableLeaf(size);
+        leaf.slots[size & MASK] = stroke;
+        leaf.visible |= 1 << (size & MASK);
+        size++;
+    }
+
+    void setVisible(int index, boolean visible) {
+        Node leaf = writableLeaf(index);
+        if (visible) {
+            leaf.visible |= 1 << (index & MASK);
+        } else {
+            leaf.visible &= ~(1 << (index & MASK));
+        }
+    }
+
+    /**
+     * Returns the first visible slot at or after from, or -1 if there is none
+     */
+    int nextVisible(int from) {
+        while (from < size) {
+            int bits = leafFor(from).visible & (-1 << (from & MASK));
+            if (bits != 0) {
+                return (from & ~MASK) | Integer.numberOfTrailingZeros(bits);
+            }
+            from = (from & ~MASK) + WIDTH;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot of the n-th visible stroke, counting from 0, or -1 if there are fewer
+     */
+    int nthVisible(int n) {
+        for (int base = 0; base < size; base += WIDTH) {
+            int bits = leafFor(base).visible;
+            int count = Integer.bitCount(bits);
+            if (n < count) {
+                for (int i = 0; i < n; i++) {
+                    bits &= bits - 1;
+                }
+                return base | Integer.numberOfTrailingZeros(bits);
+            }
+            n -= count;
+        }
+        return -1;
+    }
+
+    /**
+     * Iterates over the visible strokes in order, a leaf at a time.
+     * The vector must not change while the iterator is in use.
+     */
+    Iterator<StrokeModel> visibleIterator() {
+        return new Iterator<>() {
+            private int base = -WIDTH;
+            private Node leaf;
+            // Visible slots of the current leaf not returned yet
+            private int bits;
+
+            @Override
+            public boolean hasNext() {
+                while (bits == 0) {
+                    base += WIDTH;
+                    if (base >= size) {
+                        return false;
+                    }
+                    leaf = leafFor(base);
+                    bits = leaf.visible;
+                }
+                return true;
+            }
+
+            @Override
+            public StrokeModel next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int slot = Integer.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                return (StrokeModel) leaf.slots[slot];
+            }
+        };
+    }
+
+    /**
+     * Returns a vector with the same contents that shares every node with this one.
+     * Neither vector sees the other's later changes.
+     */
+    StrokeVector share() {
+        edit = new Object();
+        return new StrokeVector(root, shift, size);
+    }
+
+    private Node leafFor(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.slots[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    /**
+     * Makes every node on the path to a slot this vector's own, creating missing ones
+     *
+     * @return the leaf holding the slot
+     */
+    private Node writableLeaf(int index) {
+        root = writable(root);
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            int slot = (index >>> level) & MASK;
+            Node child = (Node) node.slots[slot];
+            child = child == null ? new Node(edit) : writable(child);
+            node.slots[slot] = child;
+            node = child;
+        }
+        return node;
+    }
+
+    private Node writable(Node node) {
+        return node.edit == edit ? node : node.copy(edit);
+    }
+
+    private static final class Node {
+        private final Object edit;
+        // Strokes in a leaf, child nodes in an inner node
+        private final Object[] slots;
+        // Leaves only: bit i is set while the stroke in slot i is visible
+        private int visible;
+
+        private Node(Object edit) {
+            this(edit, new Object[WIDTH], 0);
+        }
+
+        private Node(Object edit, Object[] slots, int visible) {
+            this.edit = edit;
+            this.slots = slots;
+            this.visible = visible;
+        }
+
+        private Node copy(Object edit) {
+            return new Node(edit, slots.clone(), visible);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package EduJam.AI.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the work for each board on a single writer, one task at a time.
+ *
+ * Every board has a lock-free mailbox. Submitting a task appends it and, if the
+ * mailbox is idle, schedules the mailbox on its shard: one of a fixed set of
+ * single-threaded executors, picked by board ID. Tasks for one board therefore
+ * never run concurrently and run in submission order, so a mutation and the
+ * broadcast that follows it happen as one ordered step for every client.
+ *
+ * A mailbox runs a bounded number of tasks per turn and then goes to the back of
+ * its shard's queue, so a hot board shares its thread fairly with the quiet boards
+ * on the same shard and cannot touch the threads of other shards.
+ */
+@Component
+public class BoardActors {
+    private static final Logger logger = LoggerFactory.getLogger(BoardActors.class);
+
+    // Number of shard threads; 0 uses one per available processor
+    @Value("${app.board.actors.threads:0}")
+    private int threads;
+
+    // Tasks a mailbox runs before yielding its shard thread
+    @Value("${app.board.actors.tasks-per-turn:64}")
+    private int tasksPerTurn;
+
+    private final BoardMetrics metrics;
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicLong pending = new AtomicLong();
+    private ExecutorService[] shards;
+
+    public BoardActors(BoardMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    public void start() {
+        int shardCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        shards = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String name = "board-actor-" + i;
+            shards[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        metrics.registerGauge("board.actors.pending", pending::get);
+        metrics.registerGauge("board.actors.mailboxes", () -> mailboxes.size());
+        logger.info("Board actors running on {} shards", shardCount);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (shards == null) {
+            return;
+        }
+        for (ExecutorService shard : shards) {
+            shard.shutdown();
+        }
+        try {
+            for (ExecutorService shard : shards) {
+                shard.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues a task to run on the board's writer after every task submitted before it.
+     * Exceptions thrown by the task are logged and do not affect later tasks.
+     */
+    public void execute(String boardId, Runnable task) {
+        Mailbox mailbox = mailboxes.computeIfAbsent(boardId, Mailbox::new);
+        mailbox.tasks.offer(task);
+        pending.incrementAndGet();
+        mailbox.schedule();
+    }
+
+    /**
+     * Drops the mailbox of a board that is no longer in use, unless it still has work
+     */
+    public void release(String boardId) {
+        mailboxes.computeIfPresent(boardId, (id, mailbox) -> mailbox.isIdle() ? null : mailbox);
+    }
+
+    private ExecutorService shardFor(String boardId) {
+        return shards[Math.floorMod(boardId.hashCode(), shards.length)];
+    }
+
+    private final class Mailbox implements Runnable {
+        private final String boardId;
+        private final ExecutorService shard;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Mailbox(String boardId) {
+            this.boardId = boardId;
+            this.shard = shardFor(boardId);
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                shard.execute(this);
+            }
+        }
+
+        boolean isIdle() {
+            return !scheduled.get() && tasks.isEmpty();
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < tasksPerTurn; i++) {
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    break;
+                }
+                pending.decrementAndGet();
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    metrics.increment("board.actors.errors");
+                    logger.error("Task failed on board {}", boardId, e);
+                }
+            }
+            metrics.increment("board.actors.turns");
+            scheduled.set(false);
+            // A task may have arrived after the last poll but before the flag was cleared
+            if (!tasks.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package EduJam.AI.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A board export at a given version, ready to be streamed.
+ * Nothing is rendered until {@link #writeTo} is called.
+ */
+public final class BoardExport {
+
+    /**
+     * Export formats, by file extension
+     */
+    public enum Format {
+        PNG("png", "image/png"),
+        SVG("svg", "image/svg+xml"),
+        PDF("pdf", "application/pdf");
+
+        private final String extension;
+        private final String mediaType;
+
+        Format(String extension, String mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * @return the format for the extension, or null if it is not supported
+         */
+        public static Format fromExtension(String extension) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(extension)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Produces the export's bytes
+     */
+    interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final String boardId;
+    private final long version;
+    private final Format format;
+    private final long contentLength;
+    private final Body body;
+
+    BoardExport(String boardId, long version, Format format, long contentLength, Body body) {
+        this.boardId = boardId;
+        this.version = version;
+        this.format = format;
+        this.contentLength = contentLength;
+        this.body = body;
+    }
+
+    public String getBoardId() {
+        return boardId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Size in bytes if the export is already cached, otherwise -1
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Streams the export; the stream is not closed
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        body.writeTo(out);
+    }
+}
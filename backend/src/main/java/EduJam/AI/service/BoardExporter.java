@@ -0,0 +1,296 @@
+package EduJam.AI.service;
+
+import EduJam.AI.model.BoardModel;
+import EduJam.AI.model.BoardSettings;
+import EduJam.AI.model.StrokeModel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports boards to PNG, SVG and PDF, streaming the render straight to the client.
+ *
+ * Export reads the board's strokes and settings at one version under its monitor
+ * and renders them outside it, as the client reads. The writers hold at most a
+ * band of pixels or a single stroke at a time, so memory does not grow with the
+ * size of the board. While the render streams to the client it is also written
+ * to a file in the cache directory; once complete, the file serves every later
+ * download of the same version, copied to the client without rendering.
+ *
+ * Cached files are named by board, version and format and are evicted least
+ * recently used first once they exceed the byte budget. A hibernated board keeps
+ * its version, so its exports stay valid while it is on disk. A file being copied
+ * to a client is only deleted once the copy finishes; one dropped from the cache
+ * before its copy starts is rendered again instead, which gives the same bytes.
+ */
+@Component
+public class BoardExporter {
+    private static final Logger logger = LoggerFactory.getLogger(BoardExporter.class);
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    @Value("${app.board.export.cache-dir:./board-exports}")
+    private String cacheDir;
+
+    @Value("${app.board.export.cache-max-bytes:268435456}")
+    private long maxCachedBytes;
+
+    private final BoardMetrics metrics;
+    // Latest cached export per board and format, access-ordered and guarded by itself
+    private final LinkedHashMap<String, CachedFile> files = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+    private Path root;
+
+    public BoardExporter(BoardMetrics metrics) {
+        this.metrics = metrics;
+        metrics.registerGauge("board.export.cachedBytes", () -> {
+            synchronized (files) {
+                return cachedBytes;
+            }
+        });
+    }
+
+    /**
+     * Creates the cache directory and clears files left by a previous run
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        root = Paths.get(cacheDir).toAbsolutePath();
+        Files.createDirectories(root);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(root)) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        }
+        logger.info("Board exports cached in {}", root);
+    }
+
+    /**
+     * Prepares an export of the board's current version
+     */
+    BoardExport export(BoardModel board, BoardExport.Format format) {
+        String key = board.getId() + "." + format.getExtension();
+        CachedFile cached;
+        synchronized (files) {
+            cached = files.get(key);
+        }
+
+        long version;
+        BoardSettings settings;
+        List<StrokeModel> strokes;
+        synchronized (board) {
+            version = board.getVersion();
+            settings = board.getSettings();
+            strokes = board.getStrokes();
+        }
+
+        String boardId = board.getId();
+        if (cached != null && cached.version == version) {
+            metrics.increment("board.export.hits");
+            return new BoardExport(boardId, version, format, cached.size, out -> {
+                if (!copy(key, cached, out)) {
+                    render(key, boardId, version, format, settings, strokes, out);
+                }
+            });
+        }
+        return new BoardExport(boardId, version, format, -1,
+                out -> render(key, boardId, version, format, settings, strokes, out));
+    }
+
+    /**
+     * Deletes the cached exports of a board
+     */
+    void evict(String boardId) {
+        List<Path> deleted = new ArrayList<>();
+        synchronized (files) {
+            for (BoardExport.Format format : BoardExport.Format.values()) {
+                CachedFile file = files.remove(boardId + "." + format.getExtension());
+                if (file != null) {
+                    cachedBytes -= file.size;
+                    drop(file, deleted);
+                }
+            }
+        }
+        deleted.forEach(this::delete);
+    }
+
+    /**
+     * Copies a cached file to the client, keeping it on disk until the copy is done
+     *
+     * @return false if the file was dropped from the cache before the copy could start
+     */
+    private boolean copy(String key, CachedFile file, OutputStream out) throws IOException {
+        synchronized (files) {
+            if (files.get(key) != file) {
+                metrics.increment("board.export.lostHits");
+                return false;
+            }
+            file.readers++;
+        }
+        try {
+            Files.copy(file.path, out);
+            return true;
+        } finally {
+            boolean delete;
+            synchronized (files) {
+                file.readers--;
+                CachedFile current = files.get(key);
+                // A render of the same version may have replaced the file under the same name
+                delete = file.dropped && file.readers == 0 && (current == null || !current.path.equals(file.path));
+            }
+            if (delete) {
+                delete(file.path);
+            }
+        }
+    }
+
+    /**
+     * Marks a file that has left the cache for deletion, deferred while clients are still copying it.
+     * Called with the cache lock held.
+     */
+    private static void drop(CachedFile file, List<Path> deleted) {
+        if (file.readers > 0) {
+            file.dropped = true;
+        } else {
+            deleted.add(file.path);
+        }
+    }
+
+    private void render(String key, String boardId, long version, BoardExport.Format format,
+                        BoardSettings settings, List<StrokeModel> strokes, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        Path temp = Files.createTempFile(root, key + "-", TEMP_SUFFIX);
+        boolean complete = false;
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                TeeOutputStream tee = new TeeOutputStream(out, file);
+                switch (format) {
+                    case PNG:
+                        BoardPngWriter.write(settings, strokes, tee);
+                        break;
+                    case SVG:
+                        BoardSvgWriter.write(settings, strokes, tee);
+                        break;
+                    case PDF:
+                        BoardPdfWriter.write(settings, strokes, tee);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unsupported export format: " + format);
+                }
+            }
+            Path target = root.resolve(boardId + "-" + version + "." + format.getExtension());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            complete = true;
+            store(key, new CachedFile(target, version, Files.size(target)));
+        } finally {
+            if (!complete) {
+                // The client went away or the render failed; nothing is cached
+                delete(temp);
+            }
+        }
+        metrics.increment("board.export.renders");
+        metrics.add("board.export.renderMs", System.currentTimeMillis() - started);
+    }
+
+    private void store(String key, CachedFile file) {
+        List<Path> deleted = new ArrayList<>();
+        synchronized (files) {
+            CachedFile existing = files.get(key);
+            if (existing != null && existing.version > file.version) {
+                // A newer version finished first
+                deleted.add(file.path);
+            } else {
+                if (existing != null && !existing.path.equals(file.path)) {
+                    drop(existing, deleted);
+                }
+                if (existing != null) {
+                    cachedBytes -= existing.size;
+                }
+                files.put(key, file);
+                cachedBytes += file.size;
+            }
+
+            Iterator<Map.Entry<String, CachedFile>> it = files.entrySet().iterator();
+            while (cachedBytes > maxCachedBytes && it.hasNext()) {
+                CachedFile eldest = it.next().getValue();
+                if (eldest == file) {
+                    continue;
+                }
+                cachedBytes -= eldest.size;
+                drop(eldest, deleted);
+                it.remove();
+                metrics.increment("board.export.evictions");
+            }
+        }
+        deleted.forEach(this::delete);
+    }
+
+    private void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete cached export {}", path, e);
+        }
+    }
+
+    private static final class CachedFile {
+        private final Path path;
+        private final long version;
+        private final long size;
+        // Clients copying the file, and whether it left the cache meanwhile; guarded by the cache lock
+        private int readers;
+        private boolean dropped;
+
+        private CachedFile(Path path, long version, long size) {
+            this.path = path;
+            this.version = version;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Writes everything to the client and to the cache file
+     */
+    private static final class TeeOutputStream extends OutputStream {
+        private final OutputStream client;
+        private final OutputStream file;
+
+        private TeeOutputStream(OutputStream client, OutputStream file) {
+            this.client = client;
+            this.file = file;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            client.write(b);
+            file.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            client.write(b, off, len);
+            file.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            client.flush();
+            file.flush();
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package EduJam.AI.service;
+
+import EduJam.AI.codec.BinaryReader;
+import EduJam.AI.codec.BinaryWriter;
+import EduJam.AI.codec.BoardBinaryCodec;
+import EduJam.AI.model.BoardModel;
+import EduJam.AI.model.BoardOp;
+import EduJam.AI.model.BoardState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * The complete op history of one board, kept next to its journal for replay.
+ *
+ * Layout under {boardId}/history:
+ * - ops.log: every op the board applied, as [length][crc32][op] records; unlike the
+ *   journal it is never compacted
+ * - keyframe-{seq}.bin: the full board state at seq, written every few hundred ops
+ * - keyframes.idx: one fixed-size entry per keyframe holding its seq, the timestamp of
+ *   the op at that seq and the offset in ops.log where the ops after it begin
+ *
+ * Seeking loads the last keyframe before the target and replays the ops from its
+ * offset, so it costs one keyframe plus at most one keyframe interval of ops no
+ * matter how long the board has been in use.
+ *
+ * Only the journal's writer thread appends. Readers open the files on their own and
+ * stop at the first incomplete record, so they never wait for the writer.
+ */
+final class BoardHistory implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(BoardHistory.class);
+
+    static final String DIRECTORY = "history";
+    private static final String LOG_FILE = "ops.log";
+    private static final String INDEX_FILE = "keyframes.idx";
+    private static final String KEYFRAME_TEMP_FILE = "keyframe.tmp";
+    // Record length and CRC, as in the journal
+    private static final int RECORD_HEADER_SIZE = 8;
+    // Seq, timestamp and offset
+    private static final int INDEX_ENTRY_SIZE = 24;
+
+    private final Path dir;
+    private final FileChannel log;
+    private final FileChannel index;
+    private final int keyframeIntervalOps;
+    // Records and keyframe entries buffered until the next flush
+    private ByteBuffer pendingRecords = ByteBuffer.allocate(8192);
+    private final List<Keyframe> pendingKeyframes = new ArrayList<>();
+    private long logSize;
+    // Seq of the last op in the log, or of the latest keyframe if that is newer
+    private long lastSeq = -1;
+    private long lastTimestamp;
+    private int opsSinceKeyframe;
+    // A keyframe already on disk whose entry waits for the op at its seq to reach the log, or -1
+    private long unindexedKeyframe = -1;
+
+    private BoardHistory(Path dir, FileChannel log, FileChannel index, int keyframeIntervalOps) {
+        this.dir = dir;
+        this.log = log;
+        this.index = index;
+        this.keyframeIntervalOps = keyframeIntervalOps;
+    }
+
+    /**
+     * Opens the history of a board for appending and lines it up with the board.
+     * Ops the board no longer has, because a crash lost them from its journal, are
+     * cut off. If the board is ahead of the log, or the history is new, a keyframe
+     * of the board's current state is written so replay can carry on from there.
+     *
+     * @param current the board's current state; only taken if a keyframe is needed
+     */
+    static BoardHistory open(Path dir, int keyframeIntervalOps, Supplier<BoardState> current) throws IOException {
+        Files.createDirectories(dir);
+        List<Keyframe> keyframes = readIndex(dir);
+        FileChannel log = FileChannel.open(dir.resolve(LOG_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel index;
+        try {
+            index = FileChannel.open(dir.resolve(INDEX_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            log.close();
+            throw e;
+        }
+        BoardHistory history = new BoardHistory(dir, log, index, keyframeIntervalOps);
+        try {
+            history.recover(keyframes, current.get());
+        } catch (IOException | RuntimeException e) {
+            history.closeChannels();
+            throw e;
+        }
+        return history;
+    }
+
+    private void recover(List<Keyframe> keyframes, BoardState state) throws IOException {
+        long version = state.getVersion();
+        // Keyframes past the board's version describe ops it never kept
+        while (!keyframes.isEmpty() && keyframes.get(keyframes.size() - 1).seq > version) {
+            Files.deleteIfExists(keyframePath(dir, keyframes.remove(keyframes.size() - 1).seq));
+        }
+        index.truncate((long) keyframes.size() * INDEX_ENTRY_SIZE);
+
+        Keyframe latest = keyframes.isEmpty() ? null : keyframes.get(keyframes.size() - 1);
+        long end = latest != null ? Math.min(latest.offset, log.size()) : 0;
+        if (latest != null) {
+            lastSeq = latest.seq;
+            lastTimestamp = latest.timestamp;
+            try (RecordReader reader = new RecordReader(dir.resolve(LOG_FILE), end)) {
+                BoardOp op;
+                while ((op = reader.next()) != null && op.getSeq() <= version) {
+                    lastSeq = op.getSeq();
+                    lastTimestamp = op.getTimestamp();
+                    end = reader.position();
+                    opsSinceKeyframe++;
+                }
+            }
+        }
+        log.truncate(end);
+        logSize = end;
+
+        if (lastSeq != version) {
+            // A new history, a board from before histories were kept, or ops lost in a crash
+            long seq = writeKeyframe(state);
+            lastSeq = seq;
+            lastTimestamp = System.currentTimeMillis();
+            pendingKeyframes.add(new Keyframe(seq, lastTimestamp, logSize));
+            flush();
+        }
+    }
+
+    /**
+     * Buffers an op for the next flush, and writes a keyframe of the board once
+     * enough ops have gone by since the last one
+     *
+     * @param record the op as encoded by {@link BoardBinaryCodec#writeOp}
+     * @return the number of bytes added to the log
+     */
+    int append(BoardModel board, BoardOp op, byte[] record, int length, CRC32 crc) throws IOException {
+        // Ops up to the latest keyframe are already part of it
+        if (op.getSeq() <= lastSeq) {
+            return 0;
+        }
+        crc.reset();
+        crc.update(record, 0, length);
+        ensurePending(RECORD_HEADER_SIZE + length);
+        pendingRecords.putInt(length).putInt((int) crc.getValue()).put(record, 0, length);
+        lastSeq = op.getSeq();
+        lastTimestamp = op.getTimestamp();
+
+        if (lastSeq == unindexedKeyframe) {
+            indexKeyframe(lastSeq);
+            unindexedKeyframe = -1;
+        }
+        if (++opsSinceKeyframe >= keyframeIntervalOps && unindexedKeyframe < 0) {
+            // The board may be ahead of the log; its entry then waits for the ops in between
+            long seq = writeKeyframe(board.exportState());
+            if (seq == lastSeq) {
+                indexKeyframe(seq);
+            } else {
+                unindexedKeyframe = seq;
+            }
+        }
+        return RECORD_HEADER_SIZE + length;
+    }
+
+    /**
+     * Writes the buffered records to the log and then the entries of the keyframes they complete
+     */
+    void flush() throws IOException {
+        if (pendingRecords.position() > 0) {
+            pendingRecords.flip();
+            while (pendingRecords.hasRemaining()) {
+                logSize += log.write(pendingRecords, logSize);
+            }
+            pendingRecords.clear();
+            log.force(false);
+        }
+        if (!pendingKeyframes.isEmpty()) {
+            ByteBuffer entries = ByteBuffer.allocate(pendingKeyframes.size() * INDEX_ENTRY_SIZE);
+            for (Keyframe keyframe : pendingKeyframes) {
+                entries.putLong(keyframe.seq).putLong(keyframe.timestamp).putLong(keyframe.offset);
+            }
+            entries.flip();
+            long position = index.size();
+            while (entries.hasRemaining()) {
+                position += index.write(entries, position);
+            }
+            index.force(false);
+            pendingKeyframes.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } catch (IOException e) {
+            logger.warn("Failed to flush history in {}", dir, e);
+        }
+        closeChannels();
+    }
+
+    private void closeChannels() {
+        try {
+            log.close();
+            index.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close history in {}", dir, e);
+        }
+    }
+
+    private void indexKeyframe(long seq) {
+        pendingKeyframes.add(new Keyframe(seq, lastTimestamp, logSize + pendingRecords.position()));
+    }
+
+    /**
+     * Writes a keyframe file, replacing a leftover one for the same seq
+     *
+     * @return the seq the keyframe covers
+     */
+    private long writeKeyframe(BoardState state) throws IOException {
+        BinaryWriter out = new BinaryWriter(4096);
+        BoardBinaryCodec.writeState(out, state);
+        Path temp = dir.resolve(KEYFRAME_TEMP_FILE);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(out.buffer(), 0, out.size()));
+            channel.force(true);
+        }
+        Files.move(temp, keyframePath(dir, state.getVersion()), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        opsSinceKeyframe = 0;
+        return state.getVersion();
+    }
+
+    private void ensurePending(int needed) {
+        if (pendingRecords.remaining() < needed) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pendingRecords.capacity() * 2, pendingRecords.position() + needed));
+            pendingRecords.flip();
+            grown.put(pendingRecords);
+            pendingRecords = grown;
+        }
+    }
+
+    /**
+     * Reads one page of a board's history, either seeking to a point in time or
+     * carrying on after a seq the reader has already applied.
+     *
+     * @param dir the board's history directory
+     * @param from epoch millis to seek to, or null to continue after afterSeq
+     * @param afterSeq last seq the reader has applied; ignored when seeking
+     * @param limit most ops in the page, at least 1
+     * @return the page, or null if the board has no history yet
+     * @throws IllegalArgumentException if afterSeq lies before the start of the history
+     * @throws IllegalStateException if the history does not replay cleanly
+     */
+    static BoardReplay read(Path dir, Long from, long afterSeq, int limit) throws IOException {
+        List<Keyframe> keyframes = readIndex(dir);
+        if (keyframes.isEmpty()) {
+            return null;
+        }
+        int start = 0;
+        for (int i = 1; i < keyframes.size(); i++) {
+            Keyframe keyframe = keyframes.get(i);
+            if (from != null ? keyframe.timestamp < from : keyframe.seq <= afterSeq) {
+                start = i;
+            } else {
+                break;
+            }
+        }
+        Keyframe keyframe = keyframes.get(start);
+        if (from == null && afterSeq < keyframe.seq) {
+            throw new IllegalArgumentException("History of this board starts at seq " + keyframe.seq);
+        }
+
+        // The op buffer of the scratch board collects the page with full strokes for undo and redo
+        BoardModel board = readKeyframe(dir, keyframe.seq, limit);
+        boolean reset = from != null;
+        long fromSeq = -1;
+        BoardState startState = null;
+        int count = 0;
+        boolean hasMore = false;
+        try (RecordReader reader = new RecordReader(dir.resolve(LOG_FILE), keyframe.offset)) {
+            BoardOp op;
+            while ((op = reader.next()) != null) {
+                if (op.getSeq() <= board.getVersion()) {
+                    continue;
+                }
+                if (op.getSeq() != board.getVersion() + 1) {
+                    // Ops lost in a crash; the history goes on from the keyframe written when the board came back
+                    Keyframe bridge = find(keyframes, op.getSeq() - 1);
+                    if (count > 0 || bridge == null) {
+                        hasMore = bridge != null;
+                        break;
+                    }
+                    board = readKeyframe(dir, bridge.seq, limit);
+                    reset = true;
+                    fromSeq = -1;
+                }
+                boolean beforeTarget = from != null ? op.getTimestamp() < from : op.getSeq() <= afterSeq;
+                if (fromSeq < 0 && beforeTarget) {
+                    board.replay(op);
+                    continue;
+                }
+                if (fromSeq < 0) {
+                    fromSeq = board.getVersion();
+                    startState = reset ? board.exportState() : null;
+                }
+                if (count == limit) {
+                    hasMore = true;
+                    break;
+                }
+                board.replay(op);
+                count++;
+            }
+        }
+        if (fromSeq < 0) {
+            if (!reset && board.getVersion() < afterSeq) {
+                // The reader is ahead of what has been flushed so far
+                return new BoardReplay(null, afterSeq, Collections.emptyList(), false);
+            }
+            fromSeq = board.getVersion();
+            startState = reset ? board.exportState() : null;
+        }
+        return new BoardReplay(startState, fromSeq, board.getOpsSince(fromSeq), hasMore);
+    }
+
+    private static BoardModel readKeyframe(Path dir, long seq, int opBufferSize) throws IOException {
+        BoardState state = BoardBinaryCodec.readState(new BinaryReader(Files.readAllBytes(keyframePath(dir, seq))));
+        return BoardModel.restore(state, opBufferSize);
+    }
+
+    private static Keyframe find(List<Keyframe> keyframes, long seq) {
+        for (Keyframe keyframe : keyframes) {
+            if (keyframe.seq == seq) {
+                return keyframe;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the keyframe entries in seq order, ignoring a torn entry at the end
+     */
+    private static List<Keyframe> readIndex(Path dir) throws IOException {
+        Path file = dir.resolve(INDEX_FILE);
+        List<Keyframe> keyframes = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return keyframes;
+        }
+        ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (entries.remaining() >= INDEX_ENTRY_SIZE) {
+            keyframes.add(new Keyframe(entries.getLong(), entries.getLong(), entries.getLong()));
+        }
+        return keyframes;
+    }
+
+    private static Path keyframePath(Path dir, long seq) {
+        return dir.resolve("keyframe-" + seq + ".bin");
+    }
+
+    private static final class Keyframe {
+        private final long seq;
+        private final long timestamp;
+        private final long offset;
+
+        private Keyframe(long seq, long timestamp, long offset) {
+            this.seq = seq;
+            this.timestamp = timestamp;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Reads log records in order from an offset, stopping at the end marker of
+     * a torn write or a CRC mismatch, like journal replay
+     */
+    private static final class RecordReader implements Closeable {
+        private final DataInputStream in;
+        private final long end;
+        private final CRC32 crc = new CRC32();
+        private long position;
+
+        RecordReader(Path file, long offset) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.end = channel.size();
+            this.position = offset;
+            channel.position(offset);
+            this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 65536));
+        }
+
+        /**
+         * @return the next intact op, or null at the end of the log
+         */
+        BoardOp next() throws IOException {
+            if (end - position < RECORD_HEADER_SIZE) {
+                return null;
+            }
+            try {
+                int length = in.readInt();
+                int expectedCrc = in.readInt();
+                if (length <= 0 || length > end - position - RECORD_HEADER_SIZE) {
+                    return null;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != expectedCrc) {
+                    return null;
+                }
+                BoardOp op = BoardBinaryCodec.readOp(new BinaryReader(payload));
+                position += RECORD_HEADER_SIZE + length;
+                return op;
+            } catch (EOFException | IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Offset just past the last record returned
+         */
+        long position() {
+            return position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
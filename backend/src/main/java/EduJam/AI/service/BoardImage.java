@@ -0,0 +1,43 @@
+package EduJam.AI.service;
+
+/**
+ * A rendered PNG of a board tile or thumbnail at a given board version.
+ */
+public final class BoardImage {
+    private final String boardId;
+    private final long version;
+    private final long contentVersion;
+    private final byte[] png;
+
+    BoardImage(String boardId, long version, long contentVersion, byte[] png) {
+        this.boardId = boardId;
+        this.version = version;
+        this.contentVersion = contentVersion;
+        this.png = png;
+    }
+
+    public String getBoardId() {
+        return boardId;
+    }
+
+    /**
+     * Board version the image is current for
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Board version at which the image last changed; ops elsewhere on the board leave it alone
+     */
+    public long getContentVersion() {
+        return contentVersion;
+    }
+
+    /**
+     * The PNG bytes; shared by every caller, so they must not be modified
+     */
+    public byte[] getPng() {
+        return png;
+    }
+}
@@ -0,0 +1,675 @@
+package EduJam.AI.service;
+
+import EduJam.AI.codec.BinaryReader;
+import EduJam.AI.codec.BinaryWriter;
+import EduJam.AI.codec.BoardBinaryCodec;
+import EduJam.AI.model.BoardModel;
+import EduJam.AI.model.BoardOp;
+import EduJam.AI.model.BoardState;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable storage for boards: a compacted snapshot plus an append-only op journal per board.
+ *
+ * Layout under the data directory:
+ * - {boardId}/snapshot.bin: the full board state at some version
+ * - {boardId}/journal.log: ops after that version, as [length][crc32][op] records
+ *
+ * Boards hand every op to {@link #onOp} while holding their monitor; that only
+ * enqueues it. A single writer thread drains the queue in batches, appends to the
+ * memory-mapped journals and forces each touched journal once per batch (group
+ * commit). Every few thousand ops the writer takes a fresh snapshot and starts the
+ * journal over, so recovery replays at most one snapshot interval per board.
+ *
+ * The same files back board hibernation: an idle board is snapshotted, its journal
+ * closed and the board dropped from the heap, then {@link #load} brings it back.
+ *
+ * The writer also appends every op to the board's {@link BoardHistory}, which is never
+ * compacted and carries periodic keyframes, so {@link #replay} can page through
+ * everything that happened on a board.
+ */
+@Component
+public class BoardJournal {
+    private static final Logger logger = LoggerFactory.getLogger(BoardJournal.class);
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.tmp";
+    private static final String JOURNAL_FILE = "journal.log";
+    private static final int INITIAL_JOURNAL_SIZE = 256 * 1024;
+    // Record length and CRC
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_BATCH_SIZE = 4096;
+
+    @Value("${app.board.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.board.journal.dir:./board-data}")
+    private String dataDir;
+
+    // Group commit window: ops arriving within it share one force to disk
+    @Value("${app.board.journal.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${app.board.journal.snapshot-interval-ops:5000}")
+    private int snapshotIntervalOps;
+
+    @Value("${app.board.history.enabled:true}")
+    private boolean historyEnabled;
+
+    // Ops between the keyframes replay seeks from
+    @Value("${app.board.history.keyframe-interval-ops:1000}")
+    private int keyframeIntervalOps;
+
+    private final BoardMetrics metrics;
+    private final BlockingQueue<Event> queue = new LinkedBlockingQueue<>();
+    // Open journals by board ID; written by the writer thread, and by recovery before it starts handing out boards
+    private final Map<String, JournalFile> journals = new ConcurrentHashMap<>();
+    // Hibernations handed to the writer but not yet on disk; loads of those boards wait for them
+    private final Map<String, CompletableFuture<Void>> pendingHibernations = new ConcurrentHashMap<>();
+    private final BinaryWriter recordBuffer = new BinaryWriter(4096);
+    private final CRC32 crc = new CRC32();
+    private Path root;
+    private Thread writer;
+
+    public BoardJournal(BoardMetrics metrics) {
+        this.metrics = metrics;
+        metrics.registerGauge("board.journal.queue", queue::size);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            logger.info("Board journal disabled; boards will not survive a restart");
+            return;
+        }
+        root = Paths.get(dataDir).toAbsolutePath();
+        Files.createDirectories(root);
+        writer = new Thread(this::runWriter, "board-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Board journal writing to {}", root);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts persisting a newly created board. Its current state is written as
+     * the initial snapshot and every later op is journaled.
+     */
+    public void register(BoardModel board) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (board) {
+            // Taken together with attaching the listener, so the history starts exactly where the ops do
+            queue.add(Event.created(board, board.exportState()));
+            board.setOpListener(this::onOp);
+        }
+    }
+
+    /**
+     * Stops persisting a board and deletes its files
+     *
+     * @param board the resident board, or null if it is not loaded
+     */
+    public void delete(String boardId, BoardModel board) {
+        if (!enabled) {
+            return;
+        }
+        if (board == null) {
+            queue.add(Event.deleted(boardId));
+            return;
+        }
+        synchronized (board) {
+            board.setOpListener(null);
+            queue.add(Event.deleted(boardId));
+        }
+    }
+
+    /**
+     * Writes a final snapshot of a retired board and closes its journal, so the
+     * board can be dropped from the heap. Completes once the snapshot is on disk.
+     */
+    public CompletableFuture<Void> hibernate(BoardModel board) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (board) {
+            board.setOpListener(null);
+            pendingHibernations.put(board.getId(), done);
+            queue.add(Event.hibernated(board, done));
+        }
+        return done;
+    }
+
+    /**
+     * Whether a board with this ID has been persisted
+     */
+    public boolean contains(String boardId) {
+        return enabled && isValidBoardId(boardId) && Files.exists(root.resolve(boardId).resolve(SNAPSHOT_FILE));
+    }
+
+    /**
+     * Loads a persisted board back into memory, waiting for its hibernation to
+     * finish if one is still in flight.
+     *
+     * @return the board, or null if it was never persisted or cannot be read
+     */
+    public BoardModel load(String boardId, int opBufferSize) {
+        if (!enabled || !isValidBoardId(boardId)) {
+            return null;
+        }
+        CompletableFuture<Void> pending = pendingHibernations.get(boardId);
+        if (pending != null) {
+            pending.join();
+        }
+        Path dir = root.resolve(boardId);
+        if (!Files.isDirectory(dir)) {
+            return null;
+        }
+        try {
+            return recoverBoard(dir, opBufferSize);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to load board {}", boardId, e);
+            metrics.increment("board.journal.errors");
+            return null;
+        }
+    }
+
+    /**
+     * Reads a page of a board's op history for replay
+     *
+     * @param from epoch millis to seek to, or null to continue after afterSeq
+     * @param afterSeq last seq the reader has applied; ignored when seeking
+     * @param limit most ops in the page, at least 1
+     * @return the page, or null if the board keeps no history or it cannot be read
+     * @throws IllegalArgumentException if afterSeq lies before the start of the history
+     */
+    public BoardReplay replay(String boardId, Long from, long afterSeq, int limit) {
+        if (!enabled || !historyEnabled || !isValidBoardId(boardId)) {
+            return null;
+        }
+        Path dir = root.resolve(boardId).resolve(BoardHistory.DIRECTORY);
+        if (!Files.isDirectory(dir)) {
+            return null;
+        }
+        long started = System.nanoTime();
+        try {
+            BoardReplay replay = BoardHistory.read(dir, from, afterSeq, limit);
+            metrics.increment("board.history.replays");
+            metrics.add("board.history.replayMicros", (System.nanoTime() - started) / 1000);
+            return replay;
+        } catch (IOException | IllegalStateException e) {
+            logger.error("Failed to read history of board {}", boardId, e);
+            metrics.increment("board.history.errors");
+            return null;
+        }
+    }
+
+    /**
+     * Queues an op for the writer thread. Called under the board's monitor, so
+     * ops of one board are enqueued in sequence order.
+     */
+    public void onOp(BoardModel board, BoardOp op) {
+        queue.add(Event.op(board, op));
+    }
+
+    /**
+     * Loads every persisted board: its snapshot plus the intact part of its journal.
+     * Each recovered board is re-snapshotted and journaled from then on.
+     */
+    public List<BoardModel> recover(int opBufferSize) {
+        List<BoardModel> boards = new ArrayList<>();
+        if (!enabled) {
+            return boards;
+        }
+
+        long started = System.currentTimeMillis();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                try {
+                    BoardModel board = recoverBoard(dir, opBufferSize);
+                    if (board != null) {
+                        boards.add(board);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Failed to recover board from {}", dir, e);
+                    metrics.increment("board.journal.errors");
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to list board data in {}", root, e);
+            metrics.increment("board.journal.errors");
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        metrics.add("board.journal.recoveredBoards", boards.size());
+        metrics.add("board.journal.recoveryMs", elapsed);
+        logger.info("Recovered {} boards in {} ms", boards.size(), elapsed);
+        return boards;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        queue.add(Event.shutdown());
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (JournalFile journal : journals.values()) {
+            journal.close();
+        }
+        journals.clear();
+    }
+
+    private BoardModel recoverBoard(Path dir, int opBufferSize) throws IOException {
+        Path snapshotFile = dir.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshotFile)) {
+            logger.warn("Skipping {}: no snapshot", dir);
+            return null;
+        }
+        BoardState state = BoardBinaryCodec.readState(new BinaryReader(Files.readAllBytes(snapshotFile)));
+        BoardModel board = BoardModel.restore(state, opBufferSize);
+
+        // New ops are appended after the intact tail; the writer compacts it as usual
+        JournalFile journal = JournalFile.open(board, dir.resolve(JOURNAL_FILE));
+        journal.snapshotVersion = state.getVersion();
+        long replayed = journal.replayInto(board, new CRC32());
+        metrics.add("board.journal.replayedOps", replayed);
+        journal.history = openHistory(dir, board::exportState);
+        journals.put(board.getId(), journal);
+        board.setOpListener(this::onOp);
+        return board;
+    }
+
+    private void runWriter() {
+        List<Event> batch = new ArrayList<>();
+        Map<JournalFile, Boolean> dirty = new IdentityHashMap<>();
+        boolean running = true;
+        while (running) {
+            try {
+                Event first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                if (first.kind != Event.Kind.SHUTDOWN && flushIntervalMs > 0) {
+                    // Let concurrent ops pile up so they share a single force
+                    Thread.sleep(flushIntervalMs);
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE);
+
+                for (Event event : batch) {
+                    if (event.kind == Event.Kind.SHUTDOWN) {
+                        running = false;
+                        continue;
+                    }
+                    JournalFile touched = apply(event);
+                    if (touched != null) {
+                        dirty.put(touched, Boolean.TRUE);
+                    }
+                }
+                for (JournalFile journal : dirty.keySet()) {
+                    journal.force();
+                    flushHistory(journal);
+                }
+                metrics.increment("board.journal.batches");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Board journal writer failed on batch of {} events", batch.size(), e);
+                metrics.increment("board.journal.errors");
+            } finally {
+                batch.clear();
+                dirty.clear();
+            }
+        }
+    }
+
+    /**
+     * Handles one event on the writer thread
+     *
+     * @return the journal that needs forcing, or null
+     */
+    private JournalFile apply(Event event) {
+        String boardId = event.boardId;
+        try {
+            switch (event.kind) {
+                case CREATE: {
+                    Path dir = root.resolve(boardId);
+                    Files.createDirectories(dir);
+                    JournalFile journal = JournalFile.open(event.board, dir.resolve(JOURNAL_FILE));
+                    BoardState state = event.state;
+                    journal.snapshotVersion = writeSnapshot(dir, state);
+                    journal.reset();
+                    journal.history = openHistory(dir, () -> state);
+                    journals.put(boardId, journal);
+                    return journal;
+                }
+                case HIBERNATE: {
+                    JournalFile journal = journals.remove(boardId);
+                    try {
+                        writeSnapshot(root.resolve(boardId), event.board.exportState());
+                        // If the snapshot fails, the old snapshot and the journal still describe the board
+                        if (journal != null) {
+                            journal.reset();
+                        }
+                        metrics.increment("board.journal.hibernations");
+                    } finally {
+                        if (journal != null) {
+                            journal.close();
+                        }
+                        pendingHibernations.remove(boardId, event.done);
+                        event.done.complete(null);
+                    }
+                    return null;
+                }
+                case DELETE: {
+                    JournalFile journal = journals.remove(boardId);
+                    if (journal != null) {
+                        journal.close();
+                    }
+                    deleteDirectory(root.resolve(boardId));
+                    return null;
+                }
+                case OP: {
+                    JournalFile journal = journals.get(boardId);
+                    if (journal == null) {
+                        return null;
+                    }
+                    recordBuffer.reset();
+                    BoardBinaryCodec.writeOp(recordBuffer, event.op);
+                    appendHistory(journal, event);
+                    // Ops already covered by the latest snapshot need no journal entry
+                    if (event.op.getSeq() <= journal.snapshotVersion) {
+                        return journal;
+                    }
+                    journal.append(recordBuffer.buffer(), recordBuffer.size(), crc);
+                    metrics.add("board.journal.bytes", recordBuffer.size() + RECORD_HEADER_SIZE);
+                    if (++journal.opsSinceSnapshot >= snapshotIntervalOps) {
+                        // Any ops still queued up to the snapshot's version are skipped above
+                        journal.force();
+                        journal.snapshotVersion = writeSnapshot(root.resolve(boardId), event.board.exportState());
+                        journal.reset();
+                    }
+                    return journal;
+                }
+                default:
+                    return null;
+            }
+        } catch (IOException e) {
+            logger.error("Failed to persist {} for board {}", event.kind, boardId, e);
+            metrics.increment("board.journal.errors");
+            return null;
+        }
+    }
+
+    /**
+     * Opens a board's history, or returns null if histories are off or it cannot be
+     * opened; the board is still journaled either way
+     */
+    private BoardHistory openHistory(Path boardDir, Supplier<BoardState> current) {
+        if (!historyEnabled) {
+            return null;
+        }
+        try {
+            return BoardHistory.open(boardDir.resolve(BoardHistory.DIRECTORY), keyframeIntervalOps, current);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to open history in {}; replay will not cover this board", boardDir, e);
+            metrics.increment("board.history.errors");
+            return null;
+        }
+    }
+
+    /**
+     * Adds the op in the record buffer to the board's history
+     */
+    private void appendHistory(JournalFile journal, Event event) {
+        if (journal.history == null) {
+            return;
+        }
+        try {
+            metrics.add("board.history.bytes",
+                    journal.history.append(event.board, event.op, recordBuffer.buffer(), recordBuffer.size(), crc));
+        } catch (IOException e) {
+            logger.error("Failed to write history of board {}", event.boardId, e);
+            metrics.increment("board.history.errors");
+        }
+    }
+
+    private void flushHistory(JournalFile journal) {
+        if (journal.history == null) {
+            return;
+        }
+        try {
+            journal.history.flush();
+        } catch (IOException e) {
+            logger.error("Failed to flush history of board {}", journal.board.getId(), e);
+            metrics.increment("board.history.errors");
+        }
+    }
+
+    /**
+     * Writes a snapshot next to the journal, replacing the previous one atomically
+     *
+     * @return the version the snapshot covers
+     */
+    private long writeSnapshot(Path dir, BoardState state) throws IOException {
+        BinaryWriter out = new BinaryWriter(4096);
+        BoardBinaryCodec.writeState(out, state);
+        Path temp = dir.resolve(SNAPSHOT_TEMP_FILE);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(out.buffer(), 0, out.size()));
+            channel.force(true);
+        }
+        Files.move(temp, dir.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        metrics.increment("board.journal.snapshots");
+        return state.getVersion();
+    }
+
+    // Board IDs come from clients and double as directory names
+    private static boolean isValidBoardId(String boardId) {
+        return boardId != null && !boardId.isEmpty() && boardId.chars()
+                .allMatch(c -> (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-');
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Memory-mapped journal of one board. Only touched by the writer thread once registered.
+     */
+    private static final class JournalFile {
+        private final BoardModel board;
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        private int position;
+        private long snapshotVersion;
+        private int opsSinceSnapshot;
+        // Null when histories are off or this board's could not be opened
+        private BoardHistory history;
+
+        private JournalFile(BoardModel board, FileChannel channel, MappedByteBuffer buffer) {
+            this.board = board;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static JournalFile open(BoardModel board, Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = Math.max(INITIAL_JOURNAL_SIZE, channel.size());
+            return new JournalFile(board, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        /**
+         * Applies every intact record to the board. Stops at the end marker, a
+         * torn write or a CRC mismatch; anything after that was never acknowledged.
+         *
+         * @return the number of ops applied
+         */
+        long replayInto(BoardModel target, CRC32 crc) {
+            long applied = 0;
+            int pos = 0;
+            int limit = buffer.capacity();
+            while (limit - pos >= RECORD_HEADER_SIZE) {
+                int length = buffer.getInt(pos);
+                if (length <= 0 || length > limit - pos - RECORD_HEADER_SIZE) {
+                    break;
+                }
+                int expectedCrc = buffer.getInt(pos + 4);
+                byte[] payload = new byte[length];
+                buffer.get(pos + RECORD_HEADER_SIZE, payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != expectedCrc) {
+                    logger.warn("Journal of board {} has a corrupt record at offset {}; ignoring the rest", target.getId(), pos);
+                    break;
+                }
+                try {
+                    if (target.replay(BoardBinaryCodec.readOp(new BinaryReader(payload)))) {
+                        applied++;
+                    }
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    logger.warn("Stopping replay of board {} at offset {}: {}", target.getId(), pos, e.getMessage());
+                    break;
+                }
+                pos += RECORD_HEADER_SIZE + length;
+            }
+            position = pos;
+            opsSinceSnapshot = (int) applied;
+            return applied;
+        }
+
+        void append(byte[] payload, int length, CRC32 crc) throws IOException {
+            // Leave room for the end marker after the record
+            int needed = RECORD_HEADER_SIZE + length + Integer.BYTES;
+            if (position + needed > buffer.capacity()) {
+                long size = buffer.capacity();
+                while (position + needed > size) {
+                    size *= 2;
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+            crc.reset();
+            crc.update(payload, 0, length);
+            buffer.putInt(position, length);
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.put(position + RECORD_HEADER_SIZE, payload, 0, length);
+            position += RECORD_HEADER_SIZE + length;
+            // Records from before the last reset may follow; a zero length marks the end
+            buffer.putInt(position, 0);
+        }
+
+        /**
+         * Empties the journal after a snapshot has made its records redundant
+         */
+        void reset() {
+            position = 0;
+            opsSinceSnapshot = 0;
+            buffer.putInt(0, 0);
+            buffer.force();
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void close() {
+            if (history != null) {
+                history.close();
+            }
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close journal of board {}", board.getId(), e);
+            }
+        }
+    }
+
+    private static final class Event {
+        enum Kind { CREATE, OP, HIBERNATE, DELETE, SHUTDOWN }
+
+        private final Kind kind;
+        private final String boardId;
+        private final BoardModel board;
+        private final BoardOp op;
+        private final CompletableFuture<Void> done;
+        // State of a created board when it was registered
+        private final BoardState state;
+
+        private Event(Kind kind, String boardId, BoardModel board, BoardOp op, CompletableFuture<Void> done,
+                      BoardState state) {
+            this.kind = kind;
+            this.boardId = boardId;
+            this.board = board;
+            this.op = op;
+            this.done = done;
+            this.state = state;
+        }
+
+        static Event created(BoardModel board, BoardState state) {
+            return new Event(Kind.CREATE, board.getId(), board, null, null, state);
+        }
+
+        static Event op(BoardModel board, BoardOp op) {
+            return new Event(Kind.OP, board.getId(), board, op, null, null);
+        }
+
+        static Event hibernated(BoardModel board, CompletableFuture<Void> done) {
+            return new Event(Kind.HIBERNATE, board.getId(), board, null, done, null);
+        }
+
+        static Event deleted(String boardId) {
+            return new Event(Kind.DELETE, boardId, null, null, null, null);
+        }
+
+        static Event shutdown() {
+            return new Event(Kind.SHUTDOWN, null, null, null, null, null);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package EduJam.AI.service;
+
+import EduJam.AI.model.BoardSettings;
+import EduJam.AI.model.PackedPoints;
+import EduJam.AI.model.StrokeModel;
+
+import java.awt.Color;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Streams a board as a single-page vector PDF.
+ *
+ * The page's content stream is deflated on the fly and its length is written as
+ * a separate object after it, so nothing has to be buffered; the writer only
+ * tracks the byte offset of each object for the cross-reference table. Boards
+ * larger than the page size PDF readers accept are scaled down to fit.
+ */
+final class BoardPdfWriter {
+    // Largest page side, in points, that PDF readers accept
+    private static final double MAX_PAGE_SIZE = 14400;
+    private static final Color DEFAULT_BACKGROUND = Color.WHITE;
+    private static final Color DEFAULT_STROKE_COLOR = Color.BLACK;
+    private static final Color GRID_COLOR = new Color(0xE0E0E0);
+    private static final int OBJECT_COUNT = 5;
+
+    private BoardPdfWriter() {
+    }
+
+    static void write(BoardSettings settings, List<StrokeModel> strokes, OutputStream out) throws IOException {
+        CountingOutputStream pdf = new CountingOutputStream(out);
+        long[] offsets = new long[OBJECT_COUNT + 1];
+        int width = settings.getWidth();
+        int height = settings.getHeight();
+        double scale = Math.min(1.0, MAX_PAGE_SIZE / Math.max(width, height));
+
+        write(pdf, "%PDF-1.4\n%âãÏÓ\n");
+        offsets[1] = pdf.count;
+        write(pdf, "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n");
+        offsets[2] = pdf.count;
+        write(pdf, "2 0 obj\n<< /Type /Pages /Kids [3 0 R] /Count 1 >>\nendobj\n");
+        offsets[3] = pdf.count;
+        write(pdf, "3 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + number(width * scale) + " "
+                + number(height * scale) + "] /Contents 4 0 R /Resources << >> >>\nendobj\n");
+        offsets[4] = pdf.count;
+        write(pdf, "4 0 obj\n<< /Length 5 0 R /Filter /FlateDecode >>\nstream\n");
+
+        long streamStart = pdf.count;
+        Deflater deflater = new Deflater();
+        try {
+            DeflaterOutputStream content = new DeflaterOutputStream(pdf, deflater, 16 * 1024);
+            writeContent(content, settings, scale, strokes);
+            // Ends the deflate stream without closing the document underneath
+            content.finish();
+        } finally {
+            deflater.end();
+        }
+        long streamLength = pdf.count - streamStart;
+
+        write(pdf, "\nendstream\nendobj\n");
+        offsets[5] = pdf.count;
+        write(pdf, "5 0 obj\n" + streamLength + "\nendobj\n");
+
+        long xref = pdf.count;
+        StringBuilder table = new StringBuilder("xref\n0 " + (OBJECT_COUNT + 1) + "\n0000000000 65535 f \n");
+        for (int i = 1; i <= OBJECT_COUNT; i++) {
+            table.append(String.format("%010d 00000 n \n", offsets[i]));
+        }
+        table.append("trailer\n<< /Size ").append(OBJECT_COUNT + 1).append(" /Root 1 0 R >>\nstartxref\n")
+                .append(xref).append("\n%%EOF\n");
+        write(pdf, table.toString());
+        pdf.flush();
+    }
+
+    private static void writeContent(OutputStream out, BoardSettings settings, double scale,
+                                     List<StrokeModel> strokes) throws IOException {
+        int width = settings.getWidth();
+        int height = settings.getHeight();
+        // Board coordinates grow downwards; flip the page so they can be written as they are
+        write(out, number(scale) + " 0 0 " + number(-scale) + " 0 " + number(height * scale) + " cm\n");
+        write(out, fillColor(BoardRenderer.parseColor(settings.getBackgroundColor(), DEFAULT_BACKGROUND))
+                + "0 0 " + width + " " + height + " re f\n");
+        if (settings.isShowGrid() && settings.getGridSize() > 0) {
+            int grid = settings.getGridSize();
+            StringBuilder lines = new StringBuilder(strokeColor(GRID_COLOR)).append("1 w\n");
+            for (int x = grid; x < width; x += grid) {
+                lines.append(x).append(" 0 m ").append(x).append(' ').append(height).append(" l\n");
+                flushIfFull(out, lines);
+            }
+            for (int y = grid; y < height; y += grid) {
+                lines.append("0 ").append(y).append(" m ").append(width).append(' ').append(y).append(" l\n");
+                flushIfFull(out, lines);
+            }
+            write(out, lines.append("S\n").toString());
+        }
+        // Round caps and joins; a single point then draws as a dot
+        write(out, "1 J 1 j\n");
+        StringBuilder path = new StringBuilder();
+        for (StrokeModel stroke : strokes) {
+            PackedPoints points = stroke.getPoints();
+            if (points == null || points.isEmpty()) {
+                continue;
+            }
+            int[] coords = points.toInterleaved();
+            path.setLength(0);
+            path.append(strokeColor(BoardRenderer.parseColor(stroke.getColor(), DEFAULT_STROKE_COLOR)))
+                    .append(Math.max(stroke.getThickness(), 1)).append(" w\n")
+                    .append(coords[0]).append(' ').append(coords[1]).append(" m");
+            if (coords.length == 2) {
+                path.append(' ').append(coords[0]).append(' ').append(coords[1]).append(" l");
+            }
+            for (int i = 2; i < coords.length; i += 2) {
+                path.append(' ').append(coords[i]).append(' ').append(coords[i + 1]).append(" l");
+            }
+            write(out, path.append(" S\n").toString());
+        }
+    }
+
+    /**
+     * Writes out a large grid in pieces; the lines form one path until it is stroked
+     */
+    private static void flushIfFull(OutputStream out, StringBuilder text) throws IOException {
+        if (text.length() >= 8192) {
+            write(out, text.toString());
+            text.setLength(0);
+        }
+    }
+
+    private static String fillColor(Color color) {
+        return rgb(color) + " rg ";
+    }
+
+    private static String strokeColor(Color color) {
+        return rgb(color) + " RG ";
+    }
+
+    private static String rgb(Color color) {
+        return number(color.getRed() / 255.0) + " " + number(color.getGreen() / 255.0) + " " + number(color.getBlue() / 255.0);
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value)) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Counts the bytes written so object offsets are known without buffering
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package EduJam.AI.service;
+
+import EduJam.AI.model.BoardSettings;
+import EduJam.AI.model.BoundingBox;
+import EduJam.AI.model.StrokeModel;
+
+import java.awt.image.BufferedImage;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streams a PNG of a whole board without holding the whole image.
+ *
+ * The board is rendered in horizontal bands of at most {@link #BAND_PIXELS}
+ * pixels. Each band's rows are filtered and fed to a single deflate stream, and
+ * the compressed data goes out in IDAT chunks as it is produced, so memory stays
+ * at one band plus one chunk whatever the size of the board. Boards with a side
+ * longer than {@link #MAX_SIDE} pixels are scaled down by a whole factor to fit,
+ * which keeps the row buffers bounded too.
+ */
+final class BoardPngWriter {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int BAND_PIXELS = 1 << 20;
+    private static final int MAX_SIDE = 16384;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    // 8-bit truecolor without alpha
+    private static final int COLOR_TYPE_RGB = 2;
+    private static final int FILTER_SUB = 1;
+
+    private BoardPngWriter() {
+    }
+
+    static void write(BoardSettings settings, List<StrokeModel> strokes, OutputStream out) throws IOException {
+        int boardWidth = settings.getWidth();
+        int boardHeight = settings.getHeight();
+        // A whole factor keeps every band starting on an exact board row
+        int factor = (int) ((Math.max(boardWidth, boardHeight) + (long) MAX_SIDE - 1) / MAX_SIDE);
+        int width = (int) ((boardWidth + (long) factor - 1) / factor);
+        int height = (int) ((boardHeight + (long) factor - 1) / factor);
+        double scale = 1.0 / factor;
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(SIGNATURE);
+
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;
+        header[9] = COLOR_TYPE_RGB;
+        writeChunk(data, "IHDR", header, header.length);
+
+        int bandHeight = Math.max(1, Math.min(height, BAND_PIXELS / width));
+        int[] pixels = new int[width];
+        byte[] row = new byte[1 + width * 3];
+        IdatWriter idat = new IdatWriter(data);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            for (int top = 0; top < height; top += bandHeight) {
+                int rows = Math.min(bandHeight, height - top);
+                BoundingBox band = new BoundingBox(0, top * factor, boardWidth - 1,
+                        (int) Math.min((long) (top + rows) * factor - 1, boardHeight - 1));
+                BufferedImage image = BoardRenderer.render(settings, band, scale, width, rows, strokesIn(strokes, band));
+                for (int y = 0; y < rows; y++) {
+                    image.getRGB(0, y, width, 1, pixels, 0, width);
+                    filterRow(pixels, row);
+                    deflater.setInput(row);
+                    while (!deflater.needsInput()) {
+                        idat.deflate(deflater);
+                    }
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                idat.deflate(deflater);
+            }
+            idat.flush();
+        } finally {
+            deflater.end();
+        }
+        writeChunk(data, "IEND", new byte[0], 0);
+        data.flush();
+    }
+
+    /**
+     * Strokes that reach into the band, in drawing order
+     */
+    private static List<StrokeModel> strokesIn(List<StrokeModel> strokes, BoundingBox band) {
+        BoundingBox drawn = band.expand(1);
+        List<StrokeModel> result = new ArrayList<>();
+        for (StrokeModel stroke : strokes) {
+            BoundingBox bounds = stroke.bounds();
+            if (bounds != null && bounds.intersects(drawn)) {
+                result.add(stroke);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes one scanline with the Sub filter, which suits long runs of background well
+     */
+    private static void filterRow(int[] pixels, byte[] row) {
+        row[0] = FILTER_SUB;
+        int prev = 0;
+        for (int x = 0, i = 1; x < pixels.length; x++, i += 3) {
+            int rgb = pixels[x];
+            row[i] = (byte) ((rgb >> 16) - (prev >> 16));
+            row[i + 1] = (byte) ((rgb >> 8) - (prev >> 8));
+            row[i + 2] = (byte) (rgb - prev);
+            prev = rgb;
+        }
+    }
+
+    private static void writeChunk(DataOutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Collects deflated bytes and writes them as IDAT chunks of {@link #CHUNK_SIZE} bytes
+     */
+    private static final class IdatWriter {
+        private final DataOutputStream out;
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int filled;
+
+        private IdatWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void deflate(Deflater deflater) throws IOException {
+            filled += deflater.deflate(buffer, filled, buffer.length - filled);
+            if (filled == buffer.length) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            if (filled > 0) {
+                writeChunk(out, "IDAT", buffer, filled);
+                filled = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package EduJam.AI.service;
+
+import EduJam.AI.model.BoardSettings;
+import EduJam.AI.model.BoundingBox;
+import EduJam.AI.model.PackedPoints;
+import EduJam.AI.model.StrokeModel;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Rasterizes board strokes with Java2D, the way the canvas client draws them:
+ * round caps and joins, the stroke width as the pen diameter, in drawing order.
+ *
+ * An image shows one area of the board at a scale; the area's top-left corner
+ * maps to the image origin.
+ */
+final class BoardRenderer {
+    private static final Color DEFAULT_BACKGROUND = Color.WHITE;
+    private static final Color DEFAULT_STROKE_COLOR = Color.BLACK;
+    private static final Color GRID_COLOR = new Color(0xE0E0E0);
+    // Grids denser than this many pixels per cell are left out, as they would only tint the image
+    private static final double MIN_GRID_SPACING_PX = 4.0;
+
+    private BoardRenderer() {
+    }
+
+    /**
+     * Creates an image of the area with the board's background and grid and the given strokes
+     */
+    static BufferedImage render(BoardSettings settings, BoundingBox area, double scale,
+                                int width, int height, List<StrokeModel> strokes) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = createGraphics(image, area, scale);
+        try {
+            g.setColor(parseColor(settings.getBackgroundColor(), DEFAULT_BACKGROUND));
+            g.fillRect(area.getMinX(), area.getMinY(), area.getMaxX() - area.getMinX() + 1, area.getMaxY() - area.getMinY() + 1);
+            if (settings.isShowGrid()) {
+                drawGrid(g, area, scale, settings.getGridSize());
+            }
+            drawStrokes(g, strokes);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Draws strokes on top of an image created by {@link #render} for the same area and scale
+     */
+    static void draw(BufferedImage image, BoundingBox area, double scale, List<StrokeModel> strokes) {
+        Graphics2D g = createGraphics(image, area, scale);
+        try {
+            drawStrokes(g, strokes);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Parses "#RRGGBB" or "#RGB", returning the fallback for anything else
+     */
+    static Color parseColor(String value, Color fallback) {
+        if (value == null || value.isEmpty() || value.charAt(0) != '#') {
+            return fallback;
+        }
+        try {
+            if (value.length() == 7) {
+                return new Color(Integer.parseInt(value.substring(1), 16));
+            }
+            if (value.length() == 4) {
+                int r = Character.digit(value.charAt(1), 16);
+                int g = Character.digit(value.charAt(2), 16);
+                int b = Character.digit(value.charAt(3), 16);
+                if (r >= 0 && g >= 0 && b >= 0) {
+                    return new Color(r * 17, g * 17, b * 17);
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the fallback
+        }
+        return fallback;
+    }
+
+    private static Graphics2D createGraphics(BufferedImage image, BoundingBox area, double scale) {
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        g.scale(scale, scale);
+        g.translate(-area.getMinX(), -area.getMinY());
+        return g;
+    }
+
+    private static void drawGrid(Graphics2D g, BoundingBox area, double scale, int gridSize) {
+        if (gridSize <= 0 || gridSize * scale < MIN_GRID_SPACING_PX) {
+            return;
+        }
+        g.setColor(GRID_COLOR);
+        g.setStroke(new BasicStroke((float) (1.0 / scale)));
+        int firstX = Math.floorDiv(area.getMinX() + gridSize - 1, gridSize) * gridSize;
+        int firstY = Math.floorDiv(area.getMinY() + gridSize - 1, gridSize) * gridSize;
+        Line2D.Double line = new Line2D.Double();
+        for (int x = firstX; x <= area.getMaxX(); x += gridSize) {
+            line.setLine(x, area.getMinY(), x, area.getMaxY() + 1);
+            g.draw(line);
+        }
+        for (int y = firstY; y <= area.getMaxY(); y += gridSize) {
+            line.setLine(area.getMinX(), y, area.getMaxX() + 1, y);
+            g.draw(line);
+        }
+    }
+
+    private static void drawStrokes(Graphics2D g, List<StrokeModel> strokes) {
+        for (StrokeModel stroke : strokes) {
+            PackedPoints points = stroke.getPoints();
+            if (points == null || points.isEmpty()) {
+                continue;
+            }
+            float width = Math.max(stroke.getThickness(), 1);
+            g.setColor(parseColor(stroke.getColor(), DEFAULT_STROKE_COLOR));
+            int[] coords = points.toInterleaved();
+            if (coords.length == 2) {
+                // A single point is a dot the size of the pen
+                g.fill(new Ellipse2D.Float(coords[0] - width / 2, coords[1] - width / 2, width, width));
+                continue;
+            }
+            Path2D.Float path = new Path2D.Float(Path2D.WIND_NON_ZERO, coords.length / 2);
+            path.moveTo(coords[0], coords[1]);
+            for (int i = 2; i < coords.length; i += 2) {
+                path.lineTo(coords[i], coords[i + 1]);
+            }
+            g.setStroke(new BasicStroke(width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            g.draw(path);
+        }
+    }
+}
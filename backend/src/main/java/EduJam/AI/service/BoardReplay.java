@@ -0,0 +1,52 @@
+package EduJam.AI.service;
+
+import EduJam.AI.model.BoardOp;
+import EduJam.AI.model.BoardState;
+
+import java.util.List;
+
+/**
+ * One page of a board's op history, read back for replay.
+ */
+public final class BoardReplay {
+    private final BoardState start;
+    private final long fromSeq;
+    private final List<BoardOp> ops;
+    private final boolean hasMore;
+
+    BoardReplay(BoardState start, long fromSeq, List<BoardOp> ops, boolean hasMore) {
+        this.start = start;
+        this.fromSeq = fromSeq;
+        this.ops = ops;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * The board's state at {@link #getFromSeq()} when the reader has to start over from it,
+     * i.e. after a seek; null when the page carries on from the reader's own state
+     */
+    public BoardState getStart() {
+        return start;
+    }
+
+    /**
+     * Seq the ops of the page follow
+     */
+    public long getFromSeq() {
+        return fromSeq;
+    }
+
+    /**
+     * The ops after {@link #getFromSeq()}, oldest first; undo and redo ops carry their full stroke
+     */
+    public List<BoardOp> getOps() {
+        return ops;
+    }
+
+    /**
+     * Whether the history has more ops after this page
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -2,26 +2,104 @@ package EduJam.AI.service;
 
 import EduJam.AI.model.Board;
 import EduJam.AI.model.BoardModel;
+import EduJam.AI.model.BoardOp;
+import EduJam.AI.model.BoardSettings;
+import EduJam.AI.model.BoardState;
+import EduJam.AI.model.BoundingBox;
+import EduJam.AI.model.PackedPoints;
 import EduJam.AI.model.StrokeModel;
+import EduJam.AI.model.StrokeSimplifier;
 import EduJam.AI.dto.BoardDto;
+import EduJam.AI.dto.BoardMetadataDto;
+import EduJam.AI.dto.BoardOpDto;
+import EduJam.AI.dto.BoardReplayDto;
+import EduJam.AI.dto.BoardStrokePageDto;
 import EduJam.AI.dto.StrokeDto;
+import EduJam.AI.dto.StrokeFragmentDto;
 import EduJam.AI.exception.BoardNotFoundException;
 import EduJam.AI.exception.InvalidStrokeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.Map;
 import java.util.Stack;
 import java.util.stream.Collectors;
 
 @Service
 public class BoardService {
-    // Store active boards in memory with thread-safe map
+    private static final Logger logger = LoggerFactory.getLogger(BoardService.class);
+    
+    // Store active boards in memory with thread-safe map; hibernated boards are loaded back on demand
     private final Map<String, BoardModel> activeBoards = new ConcurrentHashMap<>();
     
+    // Number of WebSocket sessions attached to each board; boards with sessions are never hibernated
+    private final Map<String, AtomicInteger> connectedSessions = new ConcurrentHashMap<>();
+    
+    // Number of recent ops each board keeps for reconnecting clients
+    @Value("${app.board.op-buffer-size:1024}")
+    private int opBufferSize;
+    
+    @Value("${app.board.simplify.enabled:true}")
+    private boolean simplifyEnabled;
+    
+    // Tolerance new boards start with; each board can change it through its settings
+    @Value("${app.board.simplify.default-tolerance:1.0}")
+    private double defaultSimplifyTolerance;
+    
+    @Value("${app.board.hibernation.enabled:true}")
+    private boolean hibernationEnabled;
+    
+    // How long a board without sessions stays in memory
+    @Value("${app.board.hibernation.idle-ms:600000}")
+    private long hibernationIdleMs;
+    
+    // Idle boards are hibernated early, least recently used first, while the estimate exceeds this
+    @Value("${app.board.hibernation.max-resident-bytes:268435456}")
+    private long maxResidentBytes;
+    
+    // Ops per replay page when the client does not ask for a size, and the most it may ask for
+    @Value("${app.board.history.page-size:200}")
+    private int replayPageSize;
+    
+    @Value("${app.board.history.max-page-size:1000}")
+    private int maxReplayPageSize;
+    
+    // Strokes per page of a paged board read when the client does not ask for a size, and the most it may ask for
+    @Value("${app.board.rest.page-size:500}")
+    private int strokePageSize;
+    
+    @Value("${app.board.rest.max-page-size:5000}")
+    private int maxStrokePageSize;
+    
+    private final BoardMetrics metrics;
+    
+    // Serialized full-state snapshots shared by all readers of the same board version
+    private final BoardSnapshotCache snapshotCache;
+    
+    // Persists boards so they survive restarts
+    private final BoardJournal journal;
+    
+    // Rendered PNG tiles and thumbnails, kept per board version
+    private final BoardTileCache tileCache;
+    
+    // PNG, SVG and PDF downloads, cached on disk per board version
+    private final BoardExporter exporter;
+    
+    // Size checks and quotas every stroke passes before it is stored
+    private final StrokeAdmission admission;
+    
     // Store strokes for each board
     private final Map<String, List<StrokeModel>> boardStrokes = new ConcurrentHashMap<>();
     
@@ -29,128 +107,394 @@ public class BoardService {
     private final Map<String, Stack<StrokeModel>> undoStacks = new ConcurrentHashMap<>();
     private final Map<String, Stack<StrokeModel>> redoStacks = new ConcurrentHashMap<>();
     
+    public BoardService(BoardMetrics metrics, ObjectMapper objectMapper, BoardJournal journal, BoardTileCache tileCache,
+                        BoardExporter exporter, StrokeAdmission admission) {
+        this.metrics = metrics;
+        this.journal = journal;
+        this.tileCache = tileCache;
+        this.exporter = exporter;
+        this.admission = admission;
+        this.snapshotCache = new BoardSnapshotCache(objectMapper, this::convertToStrokeDto, metrics);
+        metrics.registerGauge("board.opBuffer.size", () -> opBufferSize);
+        metrics.registerGauge("board.active", activeBoards::size);
+        metrics.registerGauge("board.resident.bytes", this::residentBytes);
+    }
+    
+    /**
+     * Loads the boards persisted by a previous run
+     */
+    @PostConstruct
+    public void recoverBoards() {
+        for (BoardModel board : journal.recover(opBufferSize)) {
+            activeBoards.put(board.getId(), board);
+        }
+    }
+    
     /**
      * Creates a new board
      */
     public BoardModel createBoard() {
-        BoardModel board = new BoardModel();
+        BoardModel board = new BoardModel(opBufferSize);
+        board.setSimplifyTolerance(defaultSimplifyTolerance);
         activeBoards.put(board.getId(), board);
+        journal.register(board);
         return board;
     }
-    
+
+    /**
+     * Creates a new board that starts out as a copy of an existing one, e.g. a template
+     * handed to every new study group. The copy shares the template's strokes until
+     * either board changes, so cloning does not depend on how much is drawn on it.
+     *
+     * @return the new board, or null if the template does not exist
+     */
+    public BoardModel cloneBoard(String templateBoardId) {
+        BoardModel template = findBoard(templateBoardId);
+        if (template == null) {
+            return null;
+        }
+
+        BoardModel board = template.copy(opBufferSize);
+        activeBoards.put(board.getId(), board);
+        journal.register(board);
+        metrics.increment("board.clones");
+        logger.debug("Cloned board {} from template {}", board.getId(), templateBoardId);
+        return board;
+    }
+
+    /**
+     * Captures a board's current state for sending in pages, e.g. to a client joining a
+     * large board. Costs the same for any board size; strokes are converted as they are sent.
+     *
+     * @return the captured state, or null if the board does not exist
+     */
+    public BoardTransfer beginTransfer(String boardId) {
+        BoardModel boardModel = findBoard(boardId);
+        if (boardModel == null) {
+            return null;
+        }
+
+        // Hold the board's monitor so the version matches the strokes and settings
+        synchronized (boardModel) {
+            return new BoardTransfer(convertToBoardDto(boardModel, List.of()), boardModel.getStrokes(),
+                    stroke -> convertToStrokeDto(boardId, stroke));
+        }
+    }
+
     /**
      * Get a board by ID
      */
     public BoardDto getBoardById(String boardId) {
-        BoardModel boardModel = activeBoards.get(boardId);
+        BoardModel boardModel = findBoard(boardId);
         if (boardModel == null) {
             return null;
         }
         
-        // Convert BoardModel to BoardDto
-        BoardDto dto = new BoardDto();
-        dto.setId(boardModel.getId());
-        dto.setWidth(boardModel.getWidth());
-        dto.setHeight(boardModel.getHeight());
-        dto.setBackgroundColor(boardModel.getBackgroundColor());
-        dto.setShowGrid(boardModel.isShowGrid());
-        dto.setGridSize(boardModel.getGridSize());
+        // Hold the board's monitor so the version matches the strokes and settings
+        synchronized (boardModel) {
+            return convertToBoardDto(boardModel, boardModel.getStrokes());
+        }
+    }
+    
+    /**
+     * Get a board's current version, which changes with every mutation, e.g. to
+     * answer a conditional request without reading the board
+     *
+     * @return the version, or null if the board does not exist
+     */
+    public Long getBoardVersion(String boardId) {
+        BoardModel boardModel = findBoard(boardId);
+        return boardModel != null ? boardModel.getVersion() : null;
+    }
+    
+    /**
+     * Get a board's settings, version and stroke count without its strokes
+     *
+     * @return the metadata, or null if the board does not exist
+     */
+    public BoardMetadataDto getBoardMetadata(String boardId) {
+        BoardModel boardModel = findBoard(boardId);
+        if (boardModel == null) {
+            return null;
+        }
         
-        // Convert StrokeModels to StrokeDtos
-        List<StrokeDto> strokeDtos = boardModel.getStrokes().stream()
-                .map(this::convertToStrokeDto)
-                .collect(Collectors.toList());
-        dto.setStrokes(strokeDtos);
+        BoardMetadataDto dto = new BoardMetadataDto();
+        // Hold the board's monitor so the version matches the settings and count
+        synchronized (boardModel) {
+            dto.setId(boardModel.getId());
+            dto.setVersion(boardModel.getVersion());
+            dto.setStrokeCount(boardModel.getStrokeCount());
+            dto.setWidth(boardModel.getWidth());
+            dto.setHeight(boardModel.getHeight());
+            dto.setBackgroundColor(boardModel.getBackgroundColor());
+            dto.setShowGrid(boardModel.isShowGrid());
+            dto.setGridSize(boardModel.getGridSize());
+            dto.setSimplifyTolerance(boardModel.getSimplifyTolerance());
+        }
+        return dto;
+    }
+    
+    /**
+     * Get one page of a board's visible strokes: those drawn after afterSeq, in drawing
+     * order. Pass the page's lastSeq as afterSeq to read the next one. Each page reflects
+     * the board at the version it carries; strokes undone or erased after an earlier page
+     * was read are not reported, so readers that need an exact copy should check that
+     * the versions match or follow up with the board's ops.
+     *
+     * @param limit most strokes in the page, or null for the default page size
+     * @return the page, or null if the board does not exist
+     */
+    public BoardStrokePageDto getStrokePage(String boardId, long afterSeq, Integer limit) {
+        BoardModel boardModel = findBoard(boardId);
+        if (boardModel == null) {
+            return null;
+        }
+        
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : strokePageSize, maxStrokePageSize));
+        List<StrokeModel> strokes;
+        long version;
+        boolean hasMore;
+        synchronized (boardModel) {
+            version = boardModel.getVersion();
+            strokes = boardModel.getStrokesAfter(afterSeq, pageSize);
+            long lastSeq = strokes.isEmpty() ? afterSeq : strokes.get(strokes.size() - 1).getSeq();
+            hasMore = !boardModel.getStrokesAfter(lastSeq, 1).isEmpty();
+        }
         
+        BoardStrokePageDto dto = new BoardStrokePageDto();
+        dto.setBoardId(boardId);
+        dto.setVersion(version);
+        dto.setStrokes(strokes.stream()
+                .map(stroke -> convertToStrokeDto(boardId, stroke))
+                .collect(Collectors.toList()));
+        dto.setLastSeq(strokes.isEmpty() ? afterSeq : strokes.get(strokes.size() - 1).getSeq());
+        dto.setHasMore(hasMore);
         return dto;
     }
     
     /**
-     * Get all strokes for a board
+     * Get the pre-serialized full state of a board.
+     * The JSON is built once per board version and reused until the next mutation.
+     *
+     * @return the snapshot, or null if the board does not exist
      */
-    public List<StrokeModel> getStrokesForBoard(String boardId) {
-        return boardStrokes.getOrDefault(boardId, new ArrayList<>());
+    public BoardSnapshot getBoardSnapshot(String boardId) {
+        BoardModel boardModel = findBoard(boardId);
+        if (boardModel == null) {
+            return null;
+        }
+        
+        return snapshotCache.get(boardModel);
     }
     
     /**
-     * Add a stroke to a board
+     * Get a rendered tile of a board. Tiles are squares of {@link BoardTileCache#getTileSize()}
+     * pixels at full scale; column x and row y count from the top-left corner.
+     *
+     * @return the tile, or null if the board does not exist or the tile lies outside it
      */
-    public void addStroke(String boardId, StrokeDto strokeDto) {
-        BoardModel board = activeBoards.get(boardId);
-        if (board == null) {
-            throw new IllegalArgumentException("Board not found: " + boardId);
+    public BoardImage getBoardTile(String boardId, int x, int y) {
+        BoardModel boardModel = findBoard(boardId);
+        if (boardModel == null) {
+            return null;
         }
         
-        StrokeModel strokeModel = convertToStrokeModel(strokeDto);
-        strokeModel.setBoardId(boardId);
-        board.addStroke(strokeModel);
+        return tileCache.getTile(boardModel, x, y);
     }
     
     /**
-     * Undo the last stroke on a board
+     * Get a rendered thumbnail of a whole board
+     *
+     * @return the thumbnail, or null if the board does not exist
      */
-    public boolean undoLastStroke(String boardId) {
-        BoardModel board = activeBoards.get(boardId);
-        if (board == null) {
-            throw new IllegalArgumentException("Board not found: " + boardId);
+    public BoardImage getBoardThumbnail(String boardId) {
+        BoardModel boardModel = findBoard(boardId);
+        if (boardModel == null) {
+            return null;
         }
         
-        return board.undo() != null;
+        return tileCache.getThumbnail(boardModel);
     }
     
     /**
-     * Redo the last undone stroke on a board
+     * Get an export of a board's current version in the given format.
+     * The export is rendered while it is streamed, or copied from the cache if
+     * this version was exported before.
+     *
+     * @return the export, or null if the board does not exist
      */
-    public StrokeDto redoLastStroke(String boardId) {
-        BoardModel board = activeBoards.get(boardId);
-        if (board == null) {
-            throw new IllegalArgumentException("Board not found: " + boardId);
+    public BoardExport exportBoard(String boardId, BoardExport.Format format) {
+        BoardModel boardModel = findBoard(boardId);
+        if (boardModel == null) {
+            return null;
         }
         
-        StrokeModel redoneStroke = board.redo();
-        if (redoneStroke == null) {
+        return exporter.export(boardModel, format);
+    }
+    
+    /**
+     * Get a board by ID with only the strokes that intersect the given viewport
+     */
+    public BoardDto getBoardViewport(String boardId, BoundingBox viewport) {
+        BoardModel boardModel = findBoard(boardId);
+        if (boardModel == null) {
             return null;
         }
         
-        return convertToStrokeDto(redoneStroke);
+        synchronized (boardModel) {
+            return convertToBoardDto(boardModel, boardModel.getStrokesInArea(viewport));
+        }
     }
     
     /**
-     * Clear a board
+     * Get the ops a reconnecting client missed since the last seq it applied
+     *
+     * @return the missed ops oldest first, or null if the board is unknown or the
+     *         ops have aged out of the buffer and a full snapshot must be sent
      */
-    public void clearBoard(String boardId) {
-        BoardModel board = activeBoards.get(boardId);
-        if (board == null) {
-            throw new IllegalArgumentException("Board not found: " + boardId);
+    public List<BoardOpDto> getOpsSince(String boardId, long lastSeq) {
+        BoardModel boardModel = findBoard(boardId);
+        if (boardModel == null) {
+            return null;
+        }
+        
+        List<BoardOp> ops = boardModel.getOpsSince(lastSeq);
+        if (ops == null) {
+            metrics.increment("board.opBuffer.misses");
+            return null;
         }
+        metrics.increment("board.opBuffer.hits");
         
-        board.clear();
+        return ops.stream()
+                .map(op -> convertToBoardOpDto(boardId, op))
+                .collect(Collectors.toList());
     }
     
     /**
-     * Update board settings
+     * Get a page of a board's history for replay. Seeking with a start time gives the
+     * board as it was at that moment, rebuilt from the nearest keyframe, followed by
+     * the ops from then on; with afterSeq the page only holds the ops after that seq.
+     *
+     * @param from epoch millis to seek to, or null to continue after afterSeq
+     * @param limit most ops in the page, or null for the default page size
+     * @return the page, or null if the board does not exist or keeps no history
+     * @throws IllegalArgumentException if neither from nor afterSeq is given, or afterSeq
+     *         lies before the start of the history
      */
-    public void updateBoardSettings(String boardId, int width, int height, String backgroundColor, 
-                                   boolean showGrid, int gridSize) {
-        BoardModel board = activeBoards.get(boardId);
-        if (board == null) {
-            throw new IllegalArgumentException("Board not found: " + boardId);
+    public BoardReplayDto replay(String boardId, Long from, Long afterSeq, Integer limit) {
+        if (from == null && afterSeq == null) {
+            throw new IllegalArgumentException("Either from or afterSeq is required");
+        }
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : replayPageSize, maxReplayPageSize));
+        BoardReplay replay = journal.replay(boardId, from, afterSeq != null ? afterSeq : 0, pageSize);
+        if (replay == null) {
+            return null;
         }
         
-        board.setWidth(width);
-        board.setHeight(height);
-        board.setBackgroundColor(backgroundColor);
-        board.setShowGrid(showGrid);
-        board.setGridSize(gridSize);
+        BoardReplayDto dto = new BoardReplayDto();
+        dto.setBoardId(boardId);
+        if (replay.getStart() != null) {
+            dto.setBoard(convertToBoardDto(replay.getStart()));
+        }
+        dto.setFromSeq(replay.getFromSeq());
+        List<BoardOpDto> ops = new ArrayList<>(replay.getOps().size());
+        for (BoardOp op : replay.getOps()) {
+            BoardOpDto opDto = convertToBoardOpDto(boardId, op);
+            opDto.setTimestamp(op.getTimestamp());
+            ops.add(opDto);
+        }
+        dto.setOps(ops);
+        dto.setLastSeq(replay.getFromSeq() + ops.size());
+        dto.setHasMore(replay.hasMore());
+        return dto;
+    }
+    
+    /**
+     * Get all strokes for a board
+     */
+    public List<StrokeModel> getStrokesForBoard(String boardId) {
+        return boardStrokes.getOrDefault(boardId, new ArrayList<>());
+    }
+    
+    /**
+     * Add a stroke to a board. Points are clipped to the board and simplified with
+     * the board's tolerance first, so storage and every broadcast carry the reduced stroke.
+     *
+     * @param sessionId session that drew the stroke; only that session can undo it
+     * @return the resulting op, carrying the stroke's sequence number
+     * @throws InvalidStrokeException if the stroke has too many points, an invalid width, or the board
+     *         is over its quotas
+     */
+    public BoardOpDto addStroke(String boardId, String sessionId, StrokeDto strokeDto) {
+        StrokeModel strokeModel = convertToStrokeModel(strokeDto);
+        admission.checkPoints(strokeModel.getPoints().size());
+        admission.checkWidth(strokeModel.getThickness());
+        strokeModel.setBoardId(boardId);
+        strokeModel.setSessionId(sessionId);
+        clipAndSimplify(boardId, strokeModel);
+        return convertToBoardOpDto(boardId, mutate(boardId, board -> {
+            admission.checkQuota(board, strokeModel);
+            return board.addStroke(strokeModel);
+        }));
+    }
+    
+    /**
+     * Undo the session's last stroke on a board, leaving everyone else's strokes alone
+     *
+     * @return the removal op, or null if the session had nothing to undo
+     */
+    public BoardOpDto undoLastStroke(String boardId, String sessionId) {
+        return convertToBoardOpDto(boardId, mutate(boardId, board -> board.undo(sessionId)));
+    }
+    
+    /**
+     * Redo the session's last undone stroke on a board
+     *
+     * @return the restore op including the stroke, or null if the session had nothing to redo
+     */
+    public BoardOpDto redoLastStroke(String boardId, String sessionId) {
+        return convertToBoardOpDto(boardId, mutate(boardId, board -> board.redo(sessionId)));
+    }
+    
+    /**
+     * Erase along a path with a round eraser; a single point erases a dot. Strokes the
+     * eraser crosses are split, and the op only carries the IDs of removed strokes and
+     * the point ranges of the fragments left.
+     *
+     * @return the erase op, or null if the eraser touched no stroke
+     * @throws InvalidStrokeException if the fragments would take the board over its quotas
+     */
+    public BoardOpDto erase(String boardId, PackedPoints path, int radius) {
+        return convertToBoardOpDto(boardId, mutate(boardId, board -> board.erase(path, radius,
+                (erased, fragments) -> admission.checkEraseQuota(board, erased, fragments))));
+    }
+    
+    /**
+     * Clear a board
+     */
+    public BoardOpDto clearBoard(String boardId) {
+        return convertToBoardOpDto(boardId, mutate(boardId, BoardModel::clear));
+    }
+    
+    /**
+     * Update board settings
+     */
+    public BoardOpDto updateBoardSettings(String boardId, int width, int height, String backgroundColor, 
+                                   boolean showGrid, int gridSize, Double simplifyTolerance) {
+        return convertToBoardOpDto(boardId, mutate(boardId, board -> {
+            // A missing tolerance keeps the board's current one
+            double tolerance = simplifyTolerance != null ? simplifyTolerance : board.getSimplifyTolerance();
+            return board.updateSettings(new BoardSettings(width, height, backgroundColor, showGrid, gridSize, tolerance));
+        }));
     }
 
     /**
      * Get the stroke count for a board
      */
     public int getStrokeCount(String boardId) {
-        BoardModel board = activeBoards.get(boardId);
+        BoardModel board = findBoard(boardId);
         if (board == null) {
-            throw new IllegalArgumentException("Board not found: " + boardId);
+            throw new BoardNotFoundException(boardId);
         }
         
         return board.getStrokeCount();
@@ -160,36 +504,266 @@ public class BoardService {
      * Get board settings
      */
     public BoardModel getBoardSettings(String boardId) {
-        return activeBoards.get(boardId);
+        return findBoard(boardId);
     }
 
     /**
      * Removes a board from the in-memory store.
      */
     public void removeBoard(String boardId) {
-        activeBoards.remove(boardId);
+        BoardModel board = activeBoards.remove(boardId);
+        snapshotCache.evict(boardId);
+        tileCache.evict(boardId);
+        exporter.evict(boardId);
+        connectedSessions.remove(boardId);
+        journal.delete(boardId, board);
     }
 
     /**
-     * Returns an immutable copy of all current boards (mainly for debugging)
+     * Returns an immutable copy of all boards currently in memory (mainly for debugging)
      */
     public Map<String, BoardModel> getBoards() {
         return Map.copyOf(activeBoards);
     }
     
-    // Helper method to convert StrokeModel to StrokeDto
-    private StrokeDto convertToStrokeDto(StrokeModel model) {
+    /**
+     * Records that a WebSocket session joined a board, keeping it in memory
+     */
+    public void attachSession(String boardId) {
+        connectedSessions.computeIfAbsent(boardId, k -> new AtomicInteger()).incrementAndGet();
+    }
+    
+    /**
+     * Records that a WebSocket session left a board
+     */
+    public void detachSession(String boardId) {
+        connectedSessions.computeIfPresent(boardId, (k, count) -> count.decrementAndGet() > 0 ? count : null);
+    }
+    
+    /**
+     * Moves boards without sessions to disk once they have been idle long enough,
+     * or earlier while the resident boards exceed the memory budget.
+     */
+    @Scheduled(fixedDelayString = "${app.board.hibernation.sweep-interval-ms:30000}")
+    public void hibernateIdleBoards() {
+        if (!hibernationEnabled || !journal.isEnabled()) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        long resident = residentBytes();
+        List<BoardModel> candidates = new ArrayList<>();
+        for (BoardModel board : activeBoards.values()) {
+            if (!connectedSessions.containsKey(board.getId())) {
+                candidates.add(board);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(BoardModel::getLastAccessedAt));
+        
+        for (BoardModel board : candidates) {
+            boolean idle = now - board.getLastAccessedAt() >= hibernationIdleMs;
+            if (!idle && resident <= maxResidentBytes) {
+                break;
+            }
+            long bytes = residentBytes(board);
+            if (hibernate(board)) {
+                resident -= bytes;
+            }
+        }
+        if (resident > maxResidentBytes) {
+            logger.warn("Resident boards use about {} bytes, over the {} byte budget, but all remaining boards have sessions",
+                    resident, maxResidentBytes);
+        }
+    }
+    
+    /**
+     * Moves points that are off the board onto its edge and drops redundant points
+     * before a stroke is stored and broadcast
+     */
+    private void clipAndSimplify(String boardId, StrokeModel stroke) {
+        BoardModel board = findBoard(boardId);
+        if (board == null) {
+            return; // Reported by the mutation itself
+        }
+        
+        // Runs outside the board's monitor; only the settings are read under it
+        BoardSettings settings = board.getSettings();
+        stroke.setPoints(admission.clip(stroke.getPoints(), settings.getWidth(), settings.getHeight()));
+        if (!simplifyEnabled) {
+            return;
+        }
+        PackedPoints original = stroke.getPoints();
+        PackedPoints simplified = StrokeSimplifier.simplify(original, settings.getSimplifyTolerance());
+        stroke.setPoints(simplified);
+        metrics.add("board.simplify.pointsIn", original.size());
+        metrics.add("board.simplify.pointsOut", simplified.size());
+    }
+    
+    /**
+     * Looks up a board, loading it back from disk if it was hibernated
+     */
+    private BoardModel findBoard(String boardId) {
+        BoardModel board = activeBoards.get(boardId);
+        if (board == null && hibernationEnabled && journal.contains(boardId)) {
+            // Concurrent lookups of the same board wait for a single load
+            board = activeBoards.computeIfAbsent(boardId, this::loadBoard);
+        }
+        if (board != null) {
+            board.touch();
+        }
+        return board;
+    }
+    
+    private BoardModel loadBoard(String boardId) {
+        long started = System.currentTimeMillis();
+        BoardModel board = journal.load(boardId, opBufferSize);
+        if (board != null) {
+            metrics.increment("board.hibernation.reloads");
+            metrics.add("board.hibernation.reloadMs", System.currentTimeMillis() - started);
+            logger.debug("Reloaded hibernated board {}", boardId);
+        }
+        return board;
+    }
+    
+    /**
+     * Applies a mutation to a board. A board that gets hibernated between the
+     * lookup and the mutation is retired, so the lookup is retried and loads it again.
+     *
+     * @throws BoardNotFoundException if the board does not exist
+     */
+    private BoardOp mutate(String boardId, Function<BoardModel, BoardOp> mutation) {
+        while (true) {
+            BoardModel board = findBoard(boardId);
+            if (board == null) {
+                throw new BoardNotFoundException(boardId);
+            }
+            synchronized (board) {
+                if (!board.isRetired()) {
+                    return mutation.apply(board);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * Writes a board to disk and drops it from memory, unless a session attached meanwhile
+     *
+     * @return true if the board was hibernated
+     */
+    private boolean hibernate(BoardModel board) {
+        String boardId = board.getId();
+        synchronized (board) {
+            if (board.isRetired() || connectedSessions.containsKey(boardId)) {
+                return false;
+            }
+            board.retire();
+            journal.hibernate(board);
+        }
+        activeBoards.remove(boardId, board);
+        snapshotCache.evict(boardId);
+        tileCache.evict(boardId);
+        metrics.increment("board.hibernation.hibernated");
+        logger.debug("Hibernated idle board {}", boardId);
+        return true;
+    }
+    
+    private long residentBytes() {
+        long total = 0;
+        for (BoardModel board : activeBoards.values()) {
+            total += residentBytes(board);
+        }
+        return total;
+    }
+    
+    /**
+     * A board's strokes plus the snapshot JSON and stroke fragments cached for it,
+     * which hibernating the board frees as well
+     */
+    private long residentBytes(BoardModel board) {
+        return board.getEstimatedBytes() + snapshotCache.retainedBytes(board.getId());
+    }
+    
+    // Helper method to convert BoardModel settings and the given strokes to BoardDto
+    private BoardDto convertToBoardDto(BoardModel boardModel, List<StrokeModel> strokes) {
+        BoardDto dto = new BoardDto();
+        dto.setId(boardModel.getId());
+        dto.setWidth(boardModel.getWidth());
+        dto.setHeight(boardModel.getHeight());
+        dto.setBackgroundColor(boardModel.getBackgroundColor());
+        dto.setShowGrid(boardModel.isShowGrid());
+        dto.setGridSize(boardModel.getGridSize());
+        dto.setSimplifyTolerance(boardModel.getSimplifyTolerance());
+        dto.setVersion(boardModel.getVersion());
+        
+        // Convert StrokeModels to StrokeDtos
+        List<StrokeDto> strokeDtos = strokes.stream()
+                .map(stroke -> convertToStrokeDto(boardModel.getId(), stroke))
+                .collect(Collectors.toList());
+        dto.setStrokes(strokeDtos);
+        
+        return dto;
+    }
+    
+    // Helper method to convert a stored board state, e.g. a replay keyframe, to BoardDto
+    private BoardDto convertToBoardDto(BoardState state) {
+        BoardSettings settings = state.getSettings();
+        BoardDto dto = new BoardDto();
+        dto.setId(state.getBoardId());
+        dto.setWidth(settings.getWidth());
+        dto.setHeight(settings.getHeight());
+        dto.setBackgroundColor(settings.getBackgroundColor());
+        dto.setShowGrid(settings.isShowGrid());
+        dto.setGridSize(settings.getGridSize());
+        dto.setSimplifyTolerance(settings.getSimplifyTolerance());
+        dto.setVersion(state.getVersion());
+        dto.setStrokes(state.getVisibleStrokes().stream()
+                .map(stroke -> convertToStrokeDto(state.getBoardId(), stroke))
+                .collect(Collectors.toList()));
+        return dto;
+    }
+    
+    // Helper method to convert BoardOp to BoardOpDto
+    private BoardOpDto convertToBoardOpDto(String boardId, BoardOp op) {
+        if (op == null) {
+            return null;
+        }
+        
+        BoardOpDto dto = new BoardOpDto();
+        dto.setType(op.getType().getWireName());
+        dto.setBoardId(boardId);
+        dto.setSeq(op.getSeq());
+        dto.setStrokeId(op.getStrokeId());
+        dto.setSettings(op.getSettings());
+        // Only additions and restores need the stroke body; removals are identified by ID
+        if (op.getType() == BoardOp.Type.STROKE_ADDED || op.getType() == BoardOp.Type.STROKE_RESTORED) {
+            dto.setStroke(convertToStrokeDto(boardId, op.getStroke()));
+        }
+        // Clients hold the erased strokes, so fragments travel as point ranges of them
+        if (op.getType() == BoardOp.Type.STROKES_ERASED) {
+            dto.setRemovedStrokeIds(op.getErased().stream().map(StrokeModel::getId).collect(Collectors.toList()));
+            dto.setFragments(op.getFragments().stream()
+                    .map(f -> new StrokeFragmentDto(f.getId(), f.getSourceId(), f.getFrom(), f.getTo()))
+                    .collect(Collectors.toList()));
+        }
+        return dto;
+    }
+    
+    // Helper method to convert StrokeModel to StrokeDto. The board ID comes from the board being
+    // read, since a cloned board shares its template's StrokeModel instances
+    private StrokeDto convertToStrokeDto(String boardId, StrokeModel model) {
         if (model == null) {
             return null;
         }
         
         StrokeDto dto = new StrokeDto();
         dto.setId(model.getId());
-        dto.setBoardId(model.getBoardId());
+        dto.setBoardId(boardId);
         dto.setColor(model.getColor());
         dto.setWidth(model.getThickness());
-        dto.setPoints(model.getPoints());
+        dto.setPoints(model.getPoints()); // Packed points are immutable, so share them
         dto.setTimestamp(model.getTimestamp());
+        dto.setSeq(model.getSeq());
         return dto;
     }
     
@@ -206,7 +780,7 @@ public class BoardService {
         model.setBoardId(dto.getBoardId());
         model.setColor(dto.getColor());
         model.setThickness(dto.getWidth());
-        model.setPoints(dto.getPoints());
+        model.setPoints(dto.getPoints() != null ? dto.getPoints() : PackedPoints.EMPTY);
         model.setTimestamp(dto.getTimestamp());
         return model;
     }
@@ -0,0 +1,35 @@
+package EduJam.AI.service;
+
+/**
+ * Pre-serialized JSON of a board's full state at a given version.
+ * The JSON has the same shape as a serialized {@link EduJam.AI.dto.BoardDto}.
+ */
+public final class BoardSnapshot {
+    private final String boardId;
+    private final long version;
+    private final int strokeCount;
+    private final String json;
+
+    BoardSnapshot(String boardId, long version, int strokeCount, String json) {
+        this.boardId = boardId;
+        this.version = version;
+        this.strokeCount = strokeCount;
+        this.json = json;
+    }
+
+    public String getBoardId() {
+        return boardId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getStrokeCount() {
+        return strokeCount;
+    }
+
+    public String getJson() {
+        return json;
+    }
+}
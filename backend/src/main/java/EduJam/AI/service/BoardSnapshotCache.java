@@ -0,0 +1,199 @@
+package EduJam.AI.service;
+
+import EduJam.AI.dto.StrokeDto;
+import EduJam.AI.model.BoardModel;
+import EduJam.AI.model.BoardOp;
+import EduJam.AI.model.BoardSettings;
+import EduJam.AI.model.StrokeModel;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Caches the serialized full state of each board for its current version.
+ *
+ * All readers of the same version share one JSON string. Each stroke is
+ * serialized to JSON once and the fragment is reused for every later snapshot,
+ * so a rebuild after undo/redo only concatenates strings. When the only ops
+ * since the cached version are new strokes, their fragments are appended to the
+ * cached stroke array instead of walking the whole board.
+ */
+final class BoardSnapshotCache {
+    private static final String SNAPSHOT_END = "]}";
+    // Approximate heap of a String and its map entry besides the characters, which JSON keeps to one byte each
+    private static final int STRING_OVERHEAD_BYTES = 64;
+
+    private final ObjectMapper objectMapper;
+    // Converts a stroke given the ID of the board it is read from
+    private final BiFunction<String, StrokeModel, StrokeDto> strokeConverter;
+    private final BoardMetrics metrics;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Serialized stroke JSON per board ID; weak keys let fragments go once the board drops the stroke.
+    // Kept per board because clones share stroke instances but each fragment carries its board's ID
+    private final Map<String, Map<StrokeModel, String>> strokeFragments = new ConcurrentHashMap<>();
+
+    BoardSnapshotCache(ObjectMapper objectMapper, BiFunction<String, StrokeModel, StrokeDto> strokeConverter,
+                       BoardMetrics metrics) {
+        this.objectMapper = objectMapper;
+        this.strokeConverter = strokeConverter;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the snapshot for the board's current version, building it if needed
+     */
+    BoardSnapshot get(BoardModel board) {
+        Entry cached = entries.get(board.getId());
+        long version;
+        BoardSettings settings;
+        List<StrokeModel> strokes = null;
+        List<BoardOp> appendedOps = null;
+
+        // Read a consistent view under the board's monitor, then serialize outside it
+        synchronized (board) {
+            version = board.getVersion();
+            if (cached != null && cached.snapshot.getVersion() == version) {
+                metrics.increment("board.snapshot.hits");
+                return cached.snapshot;
+            }
+            settings = board.getSettings();
+            if (cached != null) {
+                appendedOps = onlyAdditions(board.getOpsSince(cached.snapshot.getVersion()));
+            }
+            if (appendedOps == null) {
+                strokes = board.getStrokes();
+            }
+        }
+
+        Map<StrokeModel, String> fragments = strokeFragments.computeIfAbsent(board.getId(),
+                id -> Collections.synchronizedMap(new WeakHashMap<>()));
+        StringBuilder json = new StringBuilder(writeHeader(board.getId(), settings, version));
+        int bodyStart = json.length();
+        int strokeCount;
+        if (appendedOps != null) {
+            metrics.increment("board.snapshot.appends");
+            String cachedJson = cached.snapshot.getJson();
+            json.append(cachedJson, cached.bodyStart, cachedJson.length() - SNAPSHOT_END.length());
+            for (BoardOp op : appendedOps) {
+                appendFragment(json, bodyStart, fragments, board.getId(), op.getStroke());
+            }
+            strokeCount = cached.snapshot.getStrokeCount() + appendedOps.size();
+        } else {
+            metrics.increment("board.snapshot.rebuilds");
+            for (StrokeModel stroke : strokes) {
+                appendFragment(json, bodyStart, fragments, board.getId(), stroke);
+            }
+            strokeCount = strokes.size();
+        }
+        json.append(SNAPSHOT_END);
+
+        BoardSnapshot snapshot = new BoardSnapshot(board.getId(), version, strokeCount, json.toString());
+        // Never replace a newer snapshot built concurrently with an older one
+        entries.merge(board.getId(), new Entry(snapshot, bodyStart),
+                (existing, built) -> built.snapshot.getVersion() >= existing.snapshot.getVersion() ? built : existing);
+        return snapshot;
+    }
+
+    /**
+     * Approximate heap held for a board: its cached snapshot JSON plus the
+     * serialized stroke fragments, on the same scale as {@link BoardModel#getEstimatedBytes()}
+     */
+    long retainedBytes(String boardId) {
+        long bytes = 0;
+        Entry cached = entries.get(boardId);
+        if (cached != null) {
+            bytes += STRING_OVERHEAD_BYTES + cached.snapshot.getJson().length();
+        }
+        Map<StrokeModel, String> fragments = strokeFragments.get(boardId);
+        if (fragments != null) {
+            // Iterating a synchronized map needs its lock
+            synchronized (fragments) {
+                for (String fragment : fragments.values()) {
+                    bytes += STRING_OVERHEAD_BYTES + fragment.length();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    void evict(String boardId) {
+        entries.remove(boardId);
+        strokeFragments.remove(boardId);
+    }
+
+    /**
+     * Returns the ops if every one of them adds a stroke, otherwise null
+     */
+    private static List<BoardOp> onlyAdditions(List<BoardOp> ops) {
+        if (ops == null) {
+            return null;
+        }
+        for (BoardOp op : ops) {
+            if (op.getType() != BoardOp.Type.STROKE_ADDED) {
+                return null;
+            }
+        }
+        return ops;
+    }
+
+    private void appendFragment(StringBuilder json, int bodyStart, Map<StrokeModel, String> fragments,
+                                String boardId, StrokeModel stroke) {
+        if (json.length() > bodyStart) {
+            json.append(',');
+        }
+        json.append(fragments.computeIfAbsent(stroke, s -> serializeStroke(boardId, s)));
+    }
+
+    private String serializeStroke(String boardId, StrokeModel stroke) {
+        try {
+            return objectMapper.writeValueAsString(strokeConverter.apply(boardId, stroke));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error serializing stroke " + stroke.getId(), e);
+        }
+    }
+
+    /**
+     * Writes the board fields followed by the opening of the strokes array
+     */
+    private String writeHeader(String boardId, BoardSettings settings, long version) {
+        StringWriter writer = new StringWriter();
+        try {
+            JsonGenerator gen = objectMapper.getFactory().createGenerator(writer);
+            gen.writeStartObject();
+            gen.writeStringField("id", boardId);
+            gen.writeNumberField("width", settings.getWidth());
+            gen.writeNumberField("height", settings.getHeight());
+            gen.writeStringField("backgroundColor", settings.getBackgroundColor());
+            gen.writeBooleanField("showGrid", settings.isShowGrid());
+            gen.writeNumberField("gridSize", settings.getGridSize());
+            gen.writeNumberField("simplifyTolerance", settings.getSimplifyTolerance());
+            gen.writeNumberField("version", version);
+            gen.writeArrayFieldStart("strokes");
+            // Flush without closing, which would also close the open array and object
+            gen.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error serializing board header " + boardId, e);
+        }
+        return writer.toString();
+    }
+
+    private static final class Entry {
+        private final BoardSnapshot snapshot;
+        // Offset in the JSON where the first stroke starts
+        private final int bodyStart;
+
+        private Entry(BoardSnapshot snapshot, int bodyStart) {
+            this.snapshot = snapshot;
+            this.bodyStart = bodyStart;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package EduJam.AI.service;
+
+import EduJam.AI.model.BoardSettings;
+import EduJam.AI.model.PackedPoints;
+import EduJam.AI.model.StrokeModel;
+
+import java.awt.Color;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Streams a board as an SVG document, one path element per stroke in drawing order.
+ * Colors are written back in normalized #rrggbb form, so no client text reaches the markup.
+ */
+final class BoardSvgWriter {
+    private static final String DEFAULT_BACKGROUND = "#ffffff";
+    private static final String DEFAULT_STROKE_COLOR = "#000000";
+    private static final String GRID_COLOR = "#e0e0e0";
+
+    private BoardSvgWriter() {
+    }
+
+    static void write(BoardSettings settings, List<StrokeModel> strokes, OutputStream out) throws IOException {
+        int width = settings.getWidth();
+        int height = settings.getHeight();
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        w.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        w.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height
+                + "\" viewBox=\"0 0 " + width + " " + height + "\">\n");
+        if (settings.isShowGrid() && settings.getGridSize() > 0) {
+            int grid = settings.getGridSize();
+            w.write("<defs><pattern id=\"grid\" width=\"" + grid + "\" height=\"" + grid
+                    + "\" patternUnits=\"userSpaceOnUse\"><path d=\"M " + grid + " 0 L 0 0 0 " + grid
+                    + "\" fill=\"none\" stroke=\"" + GRID_COLOR + "\" stroke-width=\"1\"/></pattern></defs>\n");
+        }
+        w.write("<rect width=\"100%\" height=\"100%\" fill=\"" + color(settings.getBackgroundColor(), DEFAULT_BACKGROUND) + "\"/>\n");
+        if (settings.isShowGrid() && settings.getGridSize() > 0) {
+            w.write("<rect width=\"100%\" height=\"100%\" fill=\"url(#grid)\"/>\n");
+        }
+        w.write("<g fill=\"none\" stroke-linecap=\"round\" stroke-linejoin=\"round\">\n");
+        for (StrokeModel stroke : strokes) {
+            writeStroke(w, stroke);
+        }
+        w.write("</g>\n</svg>\n");
+        w.flush();
+    }
+
+    private static void writeStroke(Writer w, StrokeModel stroke) throws IOException {
+        PackedPoints points = stroke.getPoints();
+        if (points == null || points.isEmpty()) {
+            return;
+        }
+        int width = Math.max(stroke.getThickness(), 1);
+        String color = color(stroke.getColor(), DEFAULT_STROKE_COLOR);
+        int[] coords = points.toInterleaved();
+        if (coords.length == 2) {
+            w.write("<circle cx=\"" + coords[0] + "\" cy=\"" + coords[1] + "\" r=\"" + (width / 2.0)
+                    + "\" fill=\"" + color + "\"/>\n");
+            return;
+        }
+        w.write("<path stroke=\"");
+        w.write(color);
+        w.write("\" stroke-width=\"");
+        w.write(Integer.toString(width));
+        w.write("\" d=\"M");
+        for (int i = 0; i < coords.length; i += 2) {
+            if (i == 2) {
+                w.write('L');
+            }
+            w.write(' ');
+            w.write(Integer.toString(coords[i]));
+            w.write(' ');
+            w.write(Integer.toString(coords[i + 1]));
+        }
+        w.write("\"/>\n");
+    }
+
+    private static String color(String value, String fallback) {
+        Color color = BoardRenderer.parseColor(value, null);
+        return color == null ? fallback : String.format("#%06x", color.getRGB() & 0xFFFFFF);
+    }
+}
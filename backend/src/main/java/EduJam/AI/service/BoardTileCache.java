@@ -0,0 +1,329 @@
+package EduJam.AI.service;
+
+import EduJam.AI.model.BoardModel;
+import EduJam.AI.model.BoardOp;
+import EduJam.AI.model.BoardSettings;
+import EduJam.AI.model.BoundingBox;
+import EduJam.AI.model.StrokeModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Renders boards to PNG tiles and thumbnails and caches them by board version.
+ *
+ * Tiles split the board into fixed-size squares at full scale, numbered from the
+ * top-left corner; the thumbnail is the whole board scaled to fit a square. Each
+ * cached image keeps its raster next to the PNG. When a board changes, only the
+ * ops since the cached version are looked at: new strokes that touch the image
+ * are drawn onto a copy of the raster, images the ops do not touch keep their PNG,
+ * and only undo, redo, clear or a change of look re-render the image from the
+ * board's strokes in that area.
+ *
+ * Entries are evicted least recently used first once the cache exceeds its byte budget.
+ */
+@Component
+public class BoardTileCache {
+    // Bytes per pixel of the cached rasters
+    private static final int RASTER_PIXEL_BYTES = 4;
+
+    @Value("${app.board.tiles.size:256}")
+    private int tileSize;
+
+    // Longest side of board thumbnails, in pixels
+    @Value("${app.board.tiles.thumbnail-size:256}")
+    private int thumbnailSize;
+
+    @Value("${app.board.tiles.cache-max-bytes:67108864}")
+    private long maxCachedBytes;
+
+    private final BoardMetrics metrics;
+    // Access-ordered, guarded by itself
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    public BoardTileCache(BoardMetrics metrics) {
+        this.metrics = metrics;
+        // Encode in memory instead of through temporary files
+        ImageIO.setUseCache(false);
+        metrics.registerGauge("board.tiles.cached", () -> {
+            synchronized (entries) {
+                return entries.size();
+            }
+        });
+        metrics.registerGauge("board.tiles.cachedBytes", () -> {
+            synchronized (entries) {
+                return cachedBytes;
+            }
+        });
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Returns the tile at column x and row y of the board
+     *
+     * @return the tile, or null if it lies outside the board
+     */
+    BoardImage getTile(BoardModel board, int x, int y) {
+        return get(board, board.getId() + "/tile/" + x + "/" + y, settings -> tileView(settings, x, y));
+    }
+
+    /**
+     * Returns the whole board scaled down to fit the thumbnail size
+     */
+    BoardImage getThumbnail(BoardModel board) {
+        return get(board, board.getId() + "/thumbnail", this::thumbnailView);
+    }
+
+    void evict(String boardId) {
+        String prefix = boardId + "/";
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    cachedBytes -= entry.getValue().bytes;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private BoardImage get(BoardModel board, String key, Function<BoardSettings, View> viewFor) {
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        long version;
+        View view;
+        List<StrokeModel> added = null;
+        List<StrokeModel> strokes = null;
+
+        // Read a consistent view under the board's monitor, then render outside it
+        synchronized (board) {
+            version = board.getVersion();
+            if (cached != null && cached.image.getVersion() == version) {
+                metrics.increment("board.tiles.hits");
+                return cached.image;
+            }
+            view = viewFor.apply(board.getSettings());
+            if (view == null) {
+                return null;
+            }
+            if (cached != null && cached.view.equals(view)) {
+                added = addedStrokes(board.getOpsSince(cached.image.getVersion()), view.drawnArea);
+            }
+            if (added == null) {
+                strokes = board.getStrokesInArea(view.drawnArea);
+            }
+        }
+
+        long started = System.nanoTime();
+        BufferedImage raster;
+        byte[] png;
+        long contentVersion;
+        if (added != null && added.isEmpty()) {
+            metrics.increment("board.tiles.unchanged");
+            raster = cached.raster;
+            png = cached.image.getPng();
+            contentVersion = cached.image.getContentVersion();
+        } else if (added != null) {
+            metrics.increment("board.tiles.incremental");
+            raster = copy(cached.raster);
+            BoardRenderer.draw(raster, view.area, view.scale, added);
+            png = encode(raster);
+            contentVersion = version;
+        } else {
+            metrics.increment("board.tiles.rerenders");
+            raster = BoardRenderer.render(view.settings, view.area, view.scale, view.width, view.height, strokes);
+            png = encode(raster);
+            // Ops that aged out of the buffer may not have touched this image at all
+            boolean same = cached != null && Arrays.equals(png, cached.image.getPng());
+            contentVersion = same ? cached.image.getContentVersion() : version;
+        }
+        metrics.add("board.tiles.renderMicros", (System.nanoTime() - started) / 1000);
+
+        BoardImage image = new BoardImage(board.getId(), version, contentVersion, png);
+        store(key, new Entry(view, raster, image));
+        return image;
+    }
+
+    /**
+     * Returns the new strokes touching the area if every op since the cached image
+     * can be drawn on top of it, or null if the area has to be rendered again
+     */
+    private static List<StrokeModel> addedStrokes(List<BoardOp> ops, BoundingBox area) {
+        if (ops == null) {
+            return null;
+        }
+        List<StrokeModel> added = new ArrayList<>();
+        for (BoardOp op : ops) {
+            switch (op.getType()) {
+                case STROKE_ADDED:
+                    if (touches(op.getStroke(), area)) {
+                        added.add(op.getStroke());
+                    }
+                    break;
+                case STROKE_REMOVED:
+                case STROKE_RESTORED:
+                    // Strokes drawn over it stay on top, so the area is drawn again in order
+                    if (touches(op.getStroke(), area)) {
+                        return null;
+                    }
+                    break;
+                case STROKES_ERASED:
+                    // Fragments lie within their erased strokes, so only the erased strokes matter
+                    for (StrokeModel erased : op.getErased()) {
+                        if (touches(erased, area)) {
+                            return null;
+                        }
+                    }
+                    break;
+                case SETTINGS_UPDATED:
+                    // The caller only gets here when the image looks the same under the new settings
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return added;
+    }
+
+    private static boolean touches(StrokeModel stroke, BoundingBox area) {
+        BoundingBox bounds = stroke.bounds();
+        return bounds != null && bounds.intersects(area);
+    }
+
+    private View tileView(BoardSettings settings, int x, int y) {
+        if (x < 0 || y < 0 || (long) x * tileSize >= settings.getWidth() || (long) y * tileSize >= settings.getHeight()) {
+            return null;
+        }
+        int minX = x * tileSize;
+        int minY = y * tileSize;
+        BoundingBox area = new BoundingBox(minX, minY, minX + tileSize - 1, minY + tileSize - 1);
+        return new View(settings, area, 1.0, tileSize, tileSize);
+    }
+
+    private View thumbnailView(BoardSettings settings) {
+        int boardWidth = Math.max(settings.getWidth(), 1);
+        int boardHeight = Math.max(settings.getHeight(), 1);
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(boardWidth, boardHeight));
+        int width = Math.max((int) Math.round(boardWidth * scale), 1);
+        int height = Math.max((int) Math.round(boardHeight * scale), 1);
+        return new View(settings, new BoundingBox(0, 0, boardWidth - 1, boardHeight - 1), scale, width, height);
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        return new BufferedImage(image.getColorModel(), image.copyData(null), image.isAlphaPremultiplied(), null);
+    }
+
+    private static byte[] encode(BufferedImage image) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error encoding board image", e);
+        }
+        return out.toByteArray();
+    }
+
+    private void store(String key, Entry entry) {
+        synchronized (entries) {
+            Entry existing = entries.get(key);
+            // Never replace a newer image rendered concurrently with an older one
+            if (existing != null) {
+                if (existing.image.getVersion() > entry.image.getVersion()) {
+                    return;
+                }
+                cachedBytes -= existing.bytes;
+            }
+            entries.put(key, entry);
+            cachedBytes += entry.bytes;
+
+            Iterator<Entry> it = entries.values().iterator();
+            while (cachedBytes > maxCachedBytes && entries.size() > 1 && it.hasNext()) {
+                Entry eldest = it.next();
+                if (eldest == entry) {
+                    continue;
+                }
+                cachedBytes -= eldest.bytes;
+                it.remove();
+                metrics.increment("board.tiles.evictions");
+            }
+        }
+    }
+
+    /**
+     * What an image shows: an area of the board at a scale, with the board's look.
+     * Images of equal views differ only in the strokes drawn on them.
+     */
+    private static final class View {
+        private final BoardSettings settings;
+        private final BoundingBox area;
+        // The area plus a pixel of antialiasing bleed
+        private final BoundingBox drawnArea;
+        private final double scale;
+        private final int width;
+        private final int height;
+
+        private View(BoardSettings settings, BoundingBox area, double scale, int width, int height) {
+            this.settings = settings;
+            this.area = area;
+            this.drawnArea = area.expand(1);
+            this.scale = scale;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof View)) {
+                return false;
+            }
+            View other = (View) o;
+            return scale == other.scale && width == other.width && height == other.height
+                    && area.getMinX() == other.area.getMinX() && area.getMinY() == other.area.getMinY()
+                    && Objects.equals(settings.getBackgroundColor(), other.settings.getBackgroundColor())
+                    && settings.isShowGrid() == other.settings.isShowGrid()
+                    && settings.getGridSize() == other.settings.getGridSize();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(area.getMinX(), area.getMinY(), scale, width, height);
+        }
+    }
+
+    private static final class Entry {
+        private final View view;
+        private final BufferedImage raster;
+        private final BoardImage image;
+        private final long bytes;
+
+        private Entry(View view, BufferedImage raster, BoardImage image) {
+            this.view = view;
+            this.raster = raster;
+            this.image = image;
+            this.bytes = (long) raster.getWidth() * raster.getHeight() * RASTER_PIXEL_BYTES + image.getPng().length;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package EduJam.AI.service;
+
+import EduJam.AI.dto.BoardDto;
+import EduJam.AI.dto.StrokeDto;
+import EduJam.AI.model.StrokeModel;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A board's state captured at one version for sending in pages.
+ *
+ * Capturing is O(1): the strokes are the board's immutable snapshot, and each one
+ * is converted to a DTO only when a page asks for it.
+ */
+public final class BoardTransfer {
+    private final BoardDto board;
+    private final List<StrokeModel> strokes;
+    private final Function<StrokeModel, StrokeDto> toDto;
+
+    BoardTransfer(BoardDto board, List<StrokeModel> strokes, Function<StrokeModel, StrokeDto> toDto) {
+        this.board = board;
+        this.strokes = strokes;
+        this.toDto = toDto;
+    }
+
+    /**
+     * The board's ID, settings and version, without strokes
+     */
+    public BoardDto getBoard() {
+        return board;
+    }
+
+    public long getVersion() {
+        return board.getVersion();
+    }
+
+    public int getStrokeCount() {
+        return strokes.size();
+    }
+
+    /**
+     * Iterates over the strokes in drawing order, converting each as it is reached
+     */
+    public Iterator<StrokeDto> strokes() {
+        Iterator<StrokeModel> it = strokes.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public StrokeDto next() {
+                return toDto.apply(it.next());
+            }
+        };
+    }
+}
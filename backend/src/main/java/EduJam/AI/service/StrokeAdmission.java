@@ -0,0 +1,144 @@
+package EduJam.AI.service;
+
+import EduJam.AI.exception.InvalidStrokeException;
+import EduJam.AI.model.BoardModel;
+import EduJam.AI.model.BoundingBox;
+import EduJam.AI.model.PackedPoints;
+import EduJam.AI.model.StrokeModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Checks strokes before they are stored, so one client cannot make a board grow without bound.
+ *
+ * The checks run in order of cost. The point count and width are checked as soon as
+ * a stroke arrives, before it is queued for its board or simplified. Coordinates are
+ * clipped to the board's bounds with the board's current settings. The board's
+ * stroke and byte quotas are checked last, under the board's monitor, so the
+ * check and the addition are one step. Per-session rate limits are applied by
+ * the socket handler, which knows the sessions.
+ *
+ * A refused stroke is reported with an {@link InvalidStrokeException} whose code
+ * says why, and counted under board.admission.rejected.{code}.
+ */
+@Component
+public class StrokeAdmission {
+    public static final String EMPTY_STROKE = "emptyStroke";
+    public static final String TOO_MANY_POINTS = "tooManyPoints";
+    public static final String INVALID_WIDTH = "invalidWidth";
+    public static final String BOARD_FULL = "boardFull";
+    public static final String BOARD_TOO_LARGE = "boardTooLarge";
+    public static final String RATE_LIMITED = "rateLimited";
+
+    @Value("${app.board.admission.max-points:10000}")
+    private int maxPoints;
+
+    @Value("${app.board.admission.max-width:200}")
+    private int maxWidth;
+
+    @Value("${app.board.admission.clip-to-board:true}")
+    private boolean clipToBoard;
+
+    @Value("${app.board.admission.max-strokes-per-board:20000}")
+    private int maxStrokesPerBoard;
+
+    // Compared with the board's estimated heap, which includes strokes that can still be redone
+    @Value("${app.board.admission.max-board-bytes:33554432}")
+    private long maxBoardBytes;
+
+    private final BoardMetrics metrics;
+
+    public StrokeAdmission(BoardMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Refuses strokes without points or with more than the allowed number
+     */
+    public void checkPoints(int pointCount) {
+        if (pointCount == 0) {
+            throw reject(EMPTY_STROKE, "Stroke has no points");
+        }
+        if (pointCount > maxPoints) {
+            throw reject(TOO_MANY_POINTS, "Stroke has more than " + maxPoints + " points");
+        }
+    }
+
+    /**
+     * Refuses strokes thinner than one pixel or wider than the allowed width
+     */
+    public void checkWidth(int width) {
+        if (width < 1 || width > maxWidth) {
+            throw reject(INVALID_WIDTH, "Stroke width must be between 1 and " + maxWidth);
+        }
+    }
+
+    /**
+     * Counts a stroke the handler refused because its session is over the rate limit
+     */
+    public void recordRateLimited() {
+        metrics.increment("board.admission.rejected." + RATE_LIMITED);
+    }
+
+    /**
+     * Moves points outside the board onto its nearest edge
+     *
+     * @return the points, unchanged if they all lie on the board
+     */
+    PackedPoints clip(PackedPoints points, int width, int height) {
+        BoundingBox bounds = points.bounds();
+        int maxX = width - 1;
+        int maxY = height - 1;
+        if (!clipToBoard || bounds == null || (bounds.getMinX() >= 0 && bounds.getMinY() >= 0
+                && bounds.getMaxX() <= maxX && bounds.getMaxY() <= maxY)) {
+            return points;
+        }
+        int[] coords = points.toInterleaved();
+        for (int i = 0; i < coords.length; i += 2) {
+            coords[i] = Math.max(0, Math.min(maxX, coords[i]));
+            coords[i + 1] = Math.max(0, Math.min(maxY, coords[i + 1]));
+        }
+        metrics.increment("board.admission.clipped");
+        return PackedPoints.of(coords, points.size());
+    }
+
+    /**
+     * Refuses a stroke that would take the board over its quotas. Must be called
+     * under the board's monitor, right before the stroke is added.
+     */
+    void checkQuota(BoardModel board, StrokeModel stroke) {
+        if (board.getStrokeCount() >= maxStrokesPerBoard) {
+            throw reject(BOARD_FULL, "Board is full: it already has " + maxStrokesPerBoard + " strokes");
+        }
+        if (board.getEstimatedBytes() + BoardModel.estimateBytes(stroke) > maxBoardBytes) {
+            throw reject(BOARD_TOO_LARGE, "Board is full: it has reached its size limit");
+        }
+        metrics.increment("board.admission.admitted");
+    }
+
+    /**
+     * Refuses an erase whose fragments would take the board over its quotas. Erased
+     * strokes free a place each but keep their bytes, as the redo history holds them.
+     * Must be called under the board's monitor, right before the erase is applied.
+     */
+    void checkEraseQuota(BoardModel board, List<StrokeModel> erased, List<StrokeModel> fragments) {
+        if (fragments.size() > erased.size()
+                && board.getStrokeCount() - erased.size() + fragments.size() > maxStrokesPerBoard) {
+            throw reject(BOARD_FULL, "Board is full: it already has " + maxStrokesPerBoard + " strokes");
+        }
+        long addedBytes = 0;
+        for (StrokeModel fragment : fragments) {
+            addedBytes += BoardModel.estimateBytes(fragment);
+        }
+        if (addedBytes > 0 && board.getEstimatedBytes() + addedBytes > maxBoardBytes) {
+            throw reject(BOARD_TOO_LARGE, "Board is full: it has reached its size limit");
+        }
+    }
+
+    private InvalidStrokeException reject(String code, String message) {
+        metrics.increment("board.admission.rejected." + code);
+        return new InvalidStrokeException(code, message);
+    }
+}
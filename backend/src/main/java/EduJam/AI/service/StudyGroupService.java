@@ -50,10 +50,27 @@ public class StudyGroupService {
      * @return the created study group
      */
     public StudyGroupDto createStudyGroup(String name, String subject, String creatorId) {
+        return createStudyGroup(name, subject, creatorId, null);
+    }
+    
+    /**
+     * Creates a new study group whose board starts as a copy of a template board
+     *
+     * @param name the name of the study group
+     * @param subject the subject of the study group
+     * @param creatorId the user ID of the creator
+     * @param templateBoardId the board to copy, or null for an empty board
+     * @return the created study group
+     * @throws IllegalArgumentException if the template board does not exist
+     */
+    public StudyGroupDto createStudyGroup(String name, String subject, String creatorId, String templateBoardId) {
         String groupId = UUID.randomUUID().toString();
         
         // Create board for this group
-        var board = boardService.createBoard();
+        var board = templateBoardId != null ? boardService.cloneBoard(templateBoardId) : boardService.createBoard();
+        if (board == null) {
+            throw new IllegalArgumentException("Template board not found: " + templateBoardId);
+        }
         String boardId = board.getId();
         
         StudyGroupModel group = new StudyGroupModel(groupId, name, subject, boardId, creatorId);
@@ -0,0 +1,201 @@
+package EduJam.AI.codec;
+
+import EduJam.AI.dto.BoardOpDto;
+import EduJam.AI.dto.BoardRequest;
+import EduJam.AI.dto.StrokeDto;
+import EduJam.AI.model.PackedPoints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the binary drawing frames with the JSON protocol, per stroke.
+ *
+ * Builds random-walk strokes and measures, for each protocol, the bytes a client
+ * sends to commit a stroke, the bytes the server broadcasts for the resulting op,
+ * and the time to decode the first and encode the second. The JSON side goes
+ * through the same {@link InboundMessageDecoder} and ObjectMapper the board handler
+ * uses. Not part of the application or the test suite; run it by hand after changing either codec:
+ *
+ * ```
+ * mvn -q test-compile exec:java -Dexec.mainClass=EduJam.AI.codec.BoardFrameCodecBenchmark \
+ *     -Dexec.classpathScope=test -Dexec.args="2000 120"
+ * ```
+ *
+ * Arguments are the stroke count and points per stroke (default 2000 and 120).
+ */
+public final class BoardFrameCodecBenchmark {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private BoardFrameCodecBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int strokeCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int pointsPerStroke = args.length > 1 ? Integer.parseInt(args[1]) : 120;
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        InboundMessageDecoder decoder = new InboundMessageDecoder(objectMapper);
+        Random random = new Random(42);
+
+        String[] jsonInbound = new String[strokeCount];
+        byte[][] binaryInbound = new byte[strokeCount][];
+        BoardOpDto[] ops = new BoardOpDto[strokeCount];
+        long jsonInBytes = 0;
+        long binaryInBytes = 0;
+        long jsonOutBytes = 0;
+        long binaryOutBytes = 0;
+        for (int i = 0; i < strokeCount; i++) {
+            StrokeDto stroke = new StrokeDto();
+            stroke.setId("stroke-" + i + "-" + Long.toHexString(random.nextLong()));
+            stroke.setColor("#1a73e8");
+            stroke.setWidth(3);
+            stroke.setPoints(randomWalk(random, pointsPerStroke));
+            stroke.setTimestamp(System.currentTimeMillis());
+
+            jsonInbound[i] = objectMapper.writeValueAsString(clientStroke(stroke));
+            binaryInbound[i] = clientFrame(stroke);
+            ops[i] = strokeOp(stroke, i + 1);
+
+            jsonInBytes += jsonInbound[i].getBytes(StandardCharsets.UTF_8).length;
+            binaryInBytes += binaryInbound[i].length;
+            jsonOutBytes += objectMapper.writeValueAsString(ops[i]).getBytes(StandardCharsets.UTF_8).length;
+            binaryOutBytes += BoardFrameCodec.encodeOp(ops[i]).length;
+        }
+
+        long sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            sink += decodeJson(decoder, jsonInbound) + decodeBinary(binaryInbound)
+                    + encodeJson(objectMapper, ops) + encodeBinary(ops);
+        }
+
+        long jsonDecodeNs = Long.MAX_VALUE;
+        long binaryDecodeNs = Long.MAX_VALUE;
+        long jsonEncodeNs = Long.MAX_VALUE;
+        long binaryEncodeNs = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            sink += decodeJson(decoder, jsonInbound);
+            long afterJsonDecode = System.nanoTime();
+            sink += decodeBinary(binaryInbound);
+            long afterBinaryDecode = System.nanoTime();
+            sink += encodeJson(objectMapper, ops);
+            long afterJsonEncode = System.nanoTime();
+            sink += encodeBinary(ops);
+            long afterBinaryEncode = System.nanoTime();
+
+            jsonDecodeNs = Math.min(jsonDecodeNs, afterJsonDecode - start);
+            binaryDecodeNs = Math.min(binaryDecodeNs, afterBinaryDecode - afterJsonDecode);
+            jsonEncodeNs = Math.min(jsonEncodeNs, afterJsonEncode - afterBinaryDecode);
+            binaryEncodeNs = Math.min(binaryEncodeNs, afterBinaryEncode - afterJsonEncode);
+        }
+
+        System.out.printf("%d strokes of %d points, best of %d rounds (checksum %d)%n",
+                strokeCount, pointsPerStroke, MEASURED_ROUNDS, sink);
+        System.out.printf("%-20s %12s %12s%n", "per stroke", "JSON", "binary");
+        System.out.printf("%-20s %12d %12d%n", "inbound bytes", jsonInBytes / strokeCount, binaryInBytes / strokeCount);
+        System.out.printf("%-20s %12d %12d%n", "outbound bytes", jsonOutBytes / strokeCount, binaryOutBytes / strokeCount);
+        System.out.printf("%-20s %12.2f %12.2f%n", "decode us",
+                micros(jsonDecodeNs, strokeCount), micros(binaryDecodeNs, strokeCount));
+        System.out.printf("%-20s %12.2f %12.2f%n", "encode us",
+                micros(jsonEncodeNs, strokeCount), micros(binaryEncodeNs, strokeCount));
+    }
+
+    private static double micros(long nanos, int strokeCount) {
+        return nanos / 1000.0 / strokeCount;
+    }
+
+    private static long decodeJson(InboundMessageDecoder decoder, String[] messages) throws Exception {
+        long points = 0;
+        for (String message : messages) {
+            points += decoder.decode(message, BoardRequest::new).getStroke().getPoints().size();
+        }
+        return points;
+    }
+
+    private static long decodeBinary(byte[][] frames) {
+        long points = 0;
+        for (byte[] frame : frames) {
+            BinaryReader in = new BinaryReader(frame);
+            in.readByte();
+            points += BoardFrameCodec.readStroke(in).getPoints().size();
+        }
+        return points;
+    }
+
+    private static long encodeJson(ObjectMapper objectMapper, BoardOpDto[] ops) throws Exception {
+        long length = 0;
+        for (BoardOpDto op : ops) {
+            length += objectMapper.writeValueAsString(op).length();
+        }
+        return length;
+    }
+
+    private static long encodeBinary(BoardOpDto[] ops) {
+        long length = 0;
+        for (BoardOpDto op : ops) {
+            length += BoardFrameCodec.encodeOp(op).length;
+        }
+        return length;
+    }
+
+    /**
+     * The stroke message the canvas client sends, type first
+     */
+    private static Map<String, Object> clientStroke(StrokeDto stroke) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", stroke.getId());
+        body.put("color", stroke.getColor());
+        body.put("width", stroke.getWidth());
+        body.put("points", stroke.getPoints());
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", "stroke");
+        message.put("boardId", "benchmark-board");
+        message.put("stroke", body);
+        return message;
+    }
+
+    /**
+     * A client STROKE frame as laid out in {@link BoardFrameCodec}
+     */
+    private static byte[] clientFrame(StrokeDto stroke) {
+        BinaryWriter out = new BinaryWriter(96 + stroke.getPoints().size() * 2);
+        out.writeByte(BoardFrameCodec.STROKE);
+        out.writeString(stroke.getId());
+        out.writeString(stroke.getColor());
+        out.writeVarInt(stroke.getWidth());
+        BoardBinaryCodec.writePoints(out, stroke.getPoints());
+        return out.toByteArray();
+    }
+
+    private static BoardOpDto strokeOp(StrokeDto stroke, long seq) {
+        BoardOpDto op = new BoardOpDto();
+        op.setType("stroke");
+        op.setBoardId("benchmark-board");
+        op.setSeq(seq);
+        op.setStrokeId(stroke.getId());
+        op.setStroke(stroke);
+        return op;
+    }
+
+    /**
+     * Points a few pixels apart, as a pointer produces them
+     */
+    private static PackedPoints randomWalk(Random random, int count) {
+        int[] coords = new int[count * 2];
+        int x = 200 + random.nextInt(1200);
+        int y = 200 + random.nextInt(800);
+        for (int i = 0; i < count; i++) {
+            x += random.nextInt(9) - 4;
+            y += random.nextInt(9) - 4;
+            coords[2 * i] = x;
+            coords[2 * i + 1] = y;
+        }
+        return PackedPoints.of(coords, count);
+    }
+}
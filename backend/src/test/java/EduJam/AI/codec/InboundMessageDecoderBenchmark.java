@@ -0,0 +1,154 @@
+package EduJam.AI.codec;
+
+import EduJam.AI.dto.BoardRequest;
+import EduJam.AI.dto.ChatRequest;
+import EduJam.AI.dto.StrokeDto;
+import EduJam.AI.model.PackedPoints;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares {@link InboundMessageDecoder} with the tree and Map decoding the socket
+ * handlers used before it, per message: heap allocated and time to decode.
+ *
+ * The tree side reads the fields a handler read, the way it read them: readTree,
+ * then treeToValue for strokes and points. Chat messages were read into a Map.
+ * Allocation comes from the JVM's per-thread allocation counter, so it needs a
+ * HotSpot JVM. Not part of the application or the test suite; run it by hand
+ * after changing the decoder or a request type:
+ *
+ * ```
+ * mvn -q test-compile exec:java -Dexec.mainClass=EduJam.AI.codec.InboundMessageDecoderBenchmark \
+ *     -Dexec.classpathScope=test -Dexec.args="200000"
+ * ```
+ *
+ * The argument is the number of decodes per case, run once to warm up and once
+ * measured (default 200000).
+ */
+public final class InboundMessageDecoderBenchmark {
+    private InboundMessageDecoderBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        InboundMessageDecoder decoder = new InboundMessageDecoder(objectMapper);
+        Random random = new Random(42);
+
+        String stroke = objectMapper.writeValueAsString(message("stroke", Map.of("stroke", Map.of(
+                "id", "stroke-" + Long.toHexString(random.nextLong()),
+                "color", "#1a73e8",
+                "width", 3,
+                "points", randomWalk(random, 120)))));
+        String strokePoints = objectMapper.writeValueAsString(message("strokePoints", Map.of(
+                "strokeId", "stroke-" + Long.toHexString(random.nextLong()),
+                "points", randomWalk(random, 8))));
+        String joinBoard = objectMapper.writeValueAsString(message("joinBoard", Map.of("lastSeq", 1234)));
+        Map<String, Object> chatMessage = new LinkedHashMap<>();
+        chatMessage.put("type", "message");
+        chatMessage.put("sessionId", "session-" + Long.toHexString(random.nextLong()));
+        chatMessage.put("username", "student");
+        chatMessage.put("message", "Does anyone have the notes from Tuesday?");
+        String chat = objectMapper.writeValueAsString(chatMessage);
+
+        System.out.printf("%d decodes per case%n", iterations);
+        System.out.printf("%-24s %14s %10s %14s %10s%n", "per message", "tree bytes", "tree us",
+                "stream bytes", "stream us");
+        report("stroke, 120 points", iterations,
+                () -> {
+                    JsonNode node = objectMapper.readTree(stroke);
+                    node.get("type").asText();
+                    node.get("boardId").asText();
+                    return objectMapper.treeToValue(node.get("stroke"), StrokeDto.class).getPoints().size();
+                },
+                () -> decoder.decode(stroke, BoardRequest::new).getStroke().getPoints().size());
+        report("strokePoints, 8 points", iterations,
+                () -> {
+                    JsonNode node = objectMapper.readTree(strokePoints);
+                    node.get("type").asText();
+                    node.path("strokeId").asText(null);
+                    return objectMapper.treeToValue(node.get("points"), PackedPoints.class).size();
+                },
+                () -> decoder.decode(strokePoints, BoardRequest::new).getPoints().size());
+        report("joinBoard with lastSeq", iterations,
+                () -> {
+                    JsonNode node = objectMapper.readTree(joinBoard);
+                    node.get("type").asText();
+                    node.get("boardId").asText();
+                    return node.get("lastSeq").asLong();
+                },
+                () -> decoder.decode(joinBoard, BoardRequest::new).getLastSeq());
+        report("chat message", iterations,
+                () -> ((String) objectMapper.readValue(chat, Map.class).get("message")).length(),
+                () -> decoder.decode(chat, ChatRequest::new).getMessage().length());
+    }
+
+    private static void report(String name, int iterations, Decode tree, Decode stream) throws Exception {
+        run(tree, iterations);
+        run(stream, iterations);
+        long[] treeCost = run(tree, iterations);
+        long[] streamCost = run(stream, iterations);
+        System.out.printf("%-24s %14d %10.2f %14d %10.2f%n", name,
+                treeCost[0] / iterations, treeCost[1] / 1000.0 / iterations,
+                streamCost[0] / iterations, streamCost[1] / 1000.0 / iterations);
+    }
+
+    /**
+     * @return bytes allocated and nanoseconds taken by the current thread
+     */
+    private static long[] run(Decode decode, int iterations) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long sink = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += decode.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        if (sink == Long.MIN_VALUE) {
+            System.out.println(sink);
+        }
+        return new long[]{allocated, elapsed};
+    }
+
+    /**
+     * The message a canvas client sends: type first, then the board, then the body
+     */
+    private static Map<String, Object> message(String type, Map<String, Object> body) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", type);
+        message.put("boardId", "benchmark-board");
+        message.putAll(body);
+        return message;
+    }
+
+    /**
+     * Points a few pixels apart, as a pointer produces them
+     */
+    private static List<Map<String, Integer>> randomWalk(Random random, int count) {
+        List<Map<String, Integer>> points = new ArrayList<>(count);
+        int x = 200 + random.nextInt(1200);
+        int y = 200 + random.nextInt(800);
+        for (int i = 0; i < count; i++) {
+            x += random.nextInt(9) - 4;
+            y += random.nextInt(9) - 4;
+            points.add(Map.of("x", x, "y", y));
+        }
+        return points;
+    }
+
+    @FunctionalInterface
+    private interface Decode {
+        long run() throws Exception;
+    }
+}
@@ -0,0 +1,89 @@
+package EduJam.AI.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoardModelTest {
+    private final BoardModel board = new BoardModel("board", BoardModel.DEFAULT_OP_BUFFER_SIZE);
+
+    @Test
+    void boundsOfAHugeBrushStopAtTheIntRange() {
+        StrokeModel stroke = stroke(Integer.MIN_VALUE + 10, 0, Integer.MAX_VALUE - 10, 0);
+        stroke.setThickness(Integer.MAX_VALUE);
+
+        BoundingBox bounds = stroke.bounds();
+
+        assertEquals(Integer.MIN_VALUE, bounds.getMinX());
+        assertEquals(Integer.MAX_VALUE, bounds.getMaxX());
+        assertEquals(-(1 << 30), bounds.getMinY());
+        assertEquals(1 << 30, bounds.getMaxY());
+    }
+
+    @Test
+    void expandSaturatesInsteadOfWrapping() {
+        BoundingBox box = new BoundingBox(Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1,
+                Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1).expand(10);
+
+        assertEquals(Integer.MAX_VALUE, box.getMaxX());
+        assertEquals(Integer.MIN_VALUE, box.getMinY());
+    }
+
+    @Test
+    void strokeAtTheEdgeOfTheCoordinateRangeIsIndexed() {
+        StrokeModel stroke = stroke(Integer.MAX_VALUE - 1, 0, Integer.MAX_VALUE, 0);
+        stroke.setThickness(100);
+
+        board.addStroke(stroke);
+
+        assertEquals(List.of(stroke), board.getStrokesInArea(new BoundingBox(Integer.MAX_VALUE, 0, Integer.MAX_VALUE, 0)));
+    }
+
+    @Test
+    void eraseThroughTheMiddleLeavesBothEnds() {
+        StrokeModel stroke = board.addStroke(stroke(0, 0, 10, 0, 20, 0, 30, 0, 40, 0)).getStroke();
+
+        BoardOp op = board.erase(PackedPoints.of(new int[]{20, 0}, 1), 5);
+
+        assertEquals(List.of(stroke), op.getErased());
+        assertEquals(2, op.getFragments().size());
+        assertEquals(0, op.getFragments().get(0).getFrom());
+        assertEquals(2, op.getFragments().get(0).getTo());
+        assertEquals(3, op.getFragments().get(1).getFrom());
+        assertEquals(5, op.getFragments().get(1).getTo());
+        assertEquals(2, board.getStrokeCount());
+        assertEquals(op.getSeq(), board.getVersion());
+    }
+
+    @Test
+    void eraseMissingEveryStrokeChangesNothing() {
+        board.addStroke(stroke(0, 0, 10, 0));
+        long version = board.getVersion();
+
+        assertNull(board.erase(PackedPoints.of(new int[]{500, 500}, 1), 5));
+        assertEquals(version, board.getVersion());
+    }
+
+    @Test
+    void refusedEraseLeavesTheBoardUnchanged() {
+        StrokeModel stroke = board.addStroke(stroke(0, 0, 10, 0, 20, 0, 30, 0, 40, 0)).getStroke();
+        long version = board.getVersion();
+
+        assertThrows(IllegalStateException.class, () -> board.erase(PackedPoints.of(new int[]{20, 0}, 1), 5,
+                (erased, fragments) -> {
+                    throw new IllegalStateException("over quota");
+                }));
+
+        assertEquals(version, board.getVersion());
+        assertEquals(List.of(stroke), board.getStrokes());
+        assertEquals(List.of(stroke), board.getStrokesInArea(new BoundingBox(20, 0, 20, 0)));
+    }
+
+    private static StrokeModel stroke(int... coords) {
+        return new StrokeModel("board", "alice", PackedPoints.of(coords, coords.length / 2), "#000000", 2, "pen");
+    }
+}
@@ -0,0 +1,129 @@
+package EduJam.AI.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StrokeLogTest {
+    private final StrokeLog log = new StrokeLog();
+    private long seq;
+
+    @Test
+    void undoAndRedoOnlyTouchTheAuthorsStrokes() {
+        StrokeModel a1 = add("alice");
+        StrokeModel b1 = add("bob");
+        StrokeModel a2 = add("alice");
+
+        assertSame(a2, log.undo("alice"));
+        assertSame(a1, log.undo("alice"));
+        assertNull(log.undo("alice"));
+        assertEquals(List.of(b1), List.copyOf(log.snapshot()));
+
+        assertSame(a1, log.redo("alice"));
+        assertSame(a2, log.redo("alice"));
+        assertNull(log.redo("alice"));
+        assertEquals(List.of(a1, b1, a2), List.copyOf(log.snapshot()));
+    }
+
+    @Test
+    void newStrokeClearsTheAuthorsRedoHistoryOnly() {
+        add("alice");
+        StrokeModel b1 = add("bob");
+        log.undo("alice");
+        log.undo("bob");
+
+        add("alice");
+
+        assertNull(log.redo("alice"));
+        assertSame(b1, log.redo("bob"));
+    }
+
+    @Test
+    void erasedStrokeLeavesTheUndoHistoryForGood() {
+        StrokeModel a1 = add("alice");
+        StrokeModel a2 = add("alice");
+        StrokeModel a3 = add("alice");
+
+        assertTrue(log.erase(a2));
+        assertFalse(log.erase(a2));
+
+        assertSame(a3, log.undo("alice"));
+        assertSame(a1, log.undo("alice"));
+        assertNull(log.undo("alice"));
+        assertSame(a1, log.redo("alice"));
+        assertSame(a3, log.redo("alice"));
+        assertNull(log.redo("alice"));
+        assertEquals(List.of(a1, a3), List.copyOf(log.snapshot()));
+    }
+
+    @Test
+    void fragmentsKeepTheAuthorsRedoHistory() {
+        StrokeModel a1 = add("alice");
+        StrokeModel a2 = add("alice");
+        log.undo("alice");
+
+        // Someone erases through the middle of a1, leaving a fragment on either side
+        log.erase(a1);
+        StrokeModel left = fragment(a1);
+        StrokeModel right = fragment(a1);
+
+        assertSame(a2, log.redo("alice"));
+        assertEquals(List.of(a2, left, right), List.copyOf(log.snapshot()));
+        // The undo stack follows log order, so the newest fragment goes first
+        assertSame(right, log.undo("alice"));
+        assertSame(left, log.undo("alice"));
+        assertSame(a2, log.undo("alice"));
+        assertNull(log.undo("alice"));
+    }
+
+    @Test
+    void copyDoesNotSeeLaterChanges() {
+        StrokeModel a1 = add("alice");
+        StrokeModel a2 = add("alice");
+
+        StrokeLog copy = log.copy();
+        assertSame(a2, copy.undo("alice"));
+        StrokeModel a3 = add("alice");
+
+        assertEquals(List.of(a1, a2, a3), List.copyOf(log.snapshot()));
+        assertEquals(List.of(a1), List.copyOf(copy.snapshot()));
+        assertSame(a2, copy.redo("alice"));
+        assertNull(log.redo("alice"));
+    }
+
+    @Test
+    void snapshotIsNotChangedByLaterMutations() {
+        StrokeModel a1 = add("alice");
+        List<StrokeModel> before = log.snapshot();
+
+        add("alice");
+        log.erase(a1);
+
+        assertEquals(List.of(a1), List.copyOf(before));
+    }
+
+    private StrokeModel add(String author) {
+        StrokeModel stroke = stroke(author);
+        log.add(stroke);
+        return stroke;
+    }
+
+    private StrokeModel fragment(StrokeModel source) {
+        StrokeModel fragment = stroke(source.getSessionId());
+        log.addFragment(fragment);
+        return fragment;
+    }
+
+    private StrokeModel stroke(String author) {
+        StrokeModel stroke = new StrokeModel("board", author, PackedPoints.of(new int[]{0, 0, 10, 10}, 2),
+                "#000000", 2, "pen");
+        stroke.setSeq(++seq);
+        return stroke;
+    }
+}
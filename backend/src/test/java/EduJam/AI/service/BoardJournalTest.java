@@ -0,0 +1,169 @@
+package EduJam.AI.service;
+
+import EduJam.AI.model.BoardModel;
+import EduJam.AI.model.PackedPoints;
+import EduJam.AI.model.StrokeModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BoardJournalTest {
+    private static final int OP_BUFFER_SIZE = 64;
+
+    @TempDir
+    Path dataDir;
+
+    private BoardJournal journal;
+
+    @AfterEach
+    void stop() {
+        if (journal != null) {
+            journal.shutdown();
+        }
+    }
+
+    @Test
+    void recoveredBoardMatchesTheOneThatWasJournaled() throws IOException {
+        journal = start(1000);
+        BoardModel board = new BoardModel("board-1", OP_BUFFER_SIZE);
+        journal.register(board);
+        board.addStroke(stroke("alice", 0, 0, 10, 0, 20, 0, 30, 0, 40, 0));
+        board.addStroke(stroke("alice", 0, 100, 40, 100));
+        StrokeModel undone = board.addStroke(stroke("bob", 0, 200, 40, 200)).getStroke();
+        board.undo("bob");
+        board.erase(PackedPoints.of(new int[]{20, 0}, 1), 5);
+        List<String> expected = ids(board);
+        journal.shutdown();
+
+        BoardModel recovered = single(restart(1000).recover(OP_BUFFER_SIZE));
+
+        assertEquals(board.getVersion(), recovered.getVersion());
+        assertEquals(expected, ids(recovered));
+        // The undo history is rebuilt by replaying the ops, so the undone stroke can still be redone
+        assertEquals(undone.getId(), recovered.redo("bob").getStroke().getId());
+    }
+
+    @Test
+    void tornRecordAtTheEndIsDroppedAndLaterOpsAppendAfterTheIntactPart() throws IOException {
+        journal = start(1000);
+        BoardModel board = new BoardModel("board-2", OP_BUFFER_SIZE);
+        journal.register(board);
+        board.addStroke(stroke("alice", 0, 0, 10, 0));
+        board.addStroke(stroke("alice", 0, 100, 10, 100));
+        List<String> intact = ids(board);
+        board.addStroke(stroke("alice", 0, 200, 10, 200));
+        journal.shutdown();
+
+        tearLastRecord(dataDir.resolve("board-2").resolve("journal.log"));
+        BoardModel recovered = single(restart(1000).recover(OP_BUFFER_SIZE));
+
+        assertEquals(2, recovered.getVersion());
+        assertEquals(intact, ids(recovered));
+
+        StrokeModel next = recovered.addStroke(stroke("alice", 0, 300, 10, 300)).getStroke();
+        journal.shutdown();
+        BoardModel again = single(restart(1000).recover(OP_BUFFER_SIZE));
+
+        assertEquals(3, again.getVersion());
+        assertEquals(List.of(intact.get(0), intact.get(1), next.getId()), ids(again));
+    }
+
+    @Test
+    void boardIsRecoveredAcrossSnapshots() throws IOException {
+        journal = start(2);
+        BoardModel board = new BoardModel("board-3", OP_BUFFER_SIZE);
+        journal.register(board);
+        for (int i = 0; i < 5; i++) {
+            board.addStroke(stroke("alice", 0, i * 100, 10, i * 100));
+        }
+        List<String> expected = ids(board);
+        journal.shutdown();
+
+        BoardModel recovered = single(restart(2).recover(OP_BUFFER_SIZE));
+
+        assertEquals(5, recovered.getVersion());
+        assertEquals(expected, ids(recovered));
+    }
+
+    @Test
+    void hibernatedBoardLoadsBackAndDeletedBoardIsGone() throws Exception {
+        journal = start(1000);
+        BoardModel board = new BoardModel("board-4", OP_BUFFER_SIZE);
+        journal.register(board);
+        board.addStroke(stroke("alice", 0, 0, 10, 0));
+        List<String> expected = ids(board);
+
+        synchronized (board) {
+            board.retire();
+        }
+        journal.hibernate(board).get();
+        BoardModel loaded = journal.load("board-4", OP_BUFFER_SIZE);
+
+        assertNotNull(loaded);
+        assertEquals(expected, ids(loaded));
+
+        journal.delete("board-4", loaded);
+        journal.shutdown();
+        assertEquals(List.of(), restart(1000).recover(OP_BUFFER_SIZE));
+        assertNull(journal.load("board-4", OP_BUFFER_SIZE));
+    }
+
+    private BoardJournal start(int snapshotIntervalOps) throws IOException {
+        BoardJournal started = new BoardJournal(new BoardMetrics());
+        ReflectionTestUtils.setField(started, "enabled", true);
+        ReflectionTestUtils.setField(started, "dataDir", dataDir.toString());
+        ReflectionTestUtils.setField(started, "flushIntervalMs", 0L);
+        ReflectionTestUtils.setField(started, "snapshotIntervalOps", snapshotIntervalOps);
+        ReflectionTestUtils.setField(started, "historyEnabled", false);
+        started.start();
+        return started;
+    }
+
+    private BoardJournal restart(int snapshotIntervalOps) throws IOException {
+        journal = start(snapshotIntervalOps);
+        return journal;
+    }
+
+    /**
+     * Cuts the journal in the middle of its last record, as a crash during the write would
+     */
+    private static void tearLastRecord(Path file) throws IOException {
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(file));
+        int last = -1;
+        int pos = 0;
+        while (pos + 8 <= records.limit() && records.getInt(pos) > 0) {
+            last = pos;
+            pos += 8 + records.getInt(pos);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(last + 8 + records.getInt(last) / 2);
+        }
+    }
+
+    private static BoardModel single(List<BoardModel> boards) {
+        assertEquals(1, boards.size());
+        return boards.get(0);
+    }
+
+    private static List<String> ids(BoardModel board) {
+        return board.getStrokes().stream().map(StrokeModel::getId).collect(Collectors.toList());
+    }
+
+    private static StrokeModel stroke(String author, int... coords) {
+        return new StrokeModel(null, author, PackedPoints.of(coords, coords.length / 2), "#000000", 2, "pen");
+    }
+}
@@ -0,0 +1,109 @@
+package EduJam.AI.service;
+
+import EduJam.AI.exception.InvalidStrokeException;
+import EduJam.AI.model.BoardModel;
+import EduJam.AI.model.PackedPoints;
+import EduJam.AI.model.StrokeModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StrokeAdmissionTest {
+    private final BoardMetrics metrics = new BoardMetrics();
+    private final StrokeAdmission admission = new StrokeAdmission(metrics);
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(admission, "maxPoints", 100);
+        ReflectionTestUtils.setField(admission, "maxWidth", 50);
+        ReflectionTestUtils.setField(admission, "clipToBoard", true);
+        ReflectionTestUtils.setField(admission, "maxStrokesPerBoard", 3);
+        ReflectionTestUtils.setField(admission, "maxBoardBytes", Long.MAX_VALUE);
+    }
+
+    @Test
+    void refusesEmptyAndOversizedStrokes() {
+        assertEquals(StrokeAdmission.EMPTY_STROKE,
+                assertThrows(InvalidStrokeException.class, () -> admission.checkPoints(0)).getCode());
+        assertEquals(StrokeAdmission.TOO_MANY_POINTS,
+                assertThrows(InvalidStrokeException.class, () -> admission.checkPoints(101)).getCode());
+        assertDoesNotThrow(() -> admission.checkPoints(100));
+        assertEquals(2, metrics.get("board.admission.rejected." + StrokeAdmission.EMPTY_STROKE)
+                + metrics.get("board.admission.rejected." + StrokeAdmission.TOO_MANY_POINTS));
+    }
+
+    @Test
+    void refusesWidthsOutsideTheAllowedRange() {
+        for (int width : new int[]{0, -1, 51, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            assertEquals(StrokeAdmission.INVALID_WIDTH,
+                    assertThrows(InvalidStrokeException.class, () -> admission.checkWidth(width)).getCode());
+        }
+        assertDoesNotThrow(() -> admission.checkWidth(1));
+        assertDoesNotThrow(() -> admission.checkWidth(50));
+    }
+
+    @Test
+    void clipsPointsOntoTheBoard() {
+        PackedPoints inside = PackedPoints.of(new int[]{0, 0, 799, 599}, 2);
+        assertSame(inside, admission.clip(inside, 800, 600));
+
+        PackedPoints clipped = admission.clip(PackedPoints.of(new int[]{-5, 10, 900, 700}, 2), 800, 600);
+        assertArrayEquals(new int[]{0, 10, 799, 599}, clipped.toInterleaved());
+    }
+
+    @Test
+    void refusesStrokesPastTheBoardsStrokeQuota() {
+        BoardModel board = new BoardModel("board", BoardModel.DEFAULT_OP_BUFFER_SIZE);
+        for (int i = 0; i < 3; i++) {
+            StrokeModel stroke = stroke(i * 100);
+            admission.checkQuota(board, stroke);
+            board.addStroke(stroke);
+        }
+
+        assertEquals(StrokeAdmission.BOARD_FULL,
+                assertThrows(InvalidStrokeException.class, () -> admission.checkQuota(board, stroke(500))).getCode());
+    }
+
+    @Test
+    void refusesErasesWhoseFragmentsOverfillTheBoard() {
+        BoardModel board = new BoardModel("board", BoardModel.DEFAULT_OP_BUFFER_SIZE);
+        StrokeModel first = stroke(0);
+        StrokeModel second = stroke(100);
+        board.addStroke(first);
+        board.addStroke(second);
+        StrokeModel left = stroke(0);
+        StrokeModel right = stroke(0);
+
+        // Splitting one of two strokes makes three, which is within the quota
+        assertDoesNotThrow(() -> admission.checkEraseQuota(board, List.of(first), List.of(left, right)));
+        // Splitting both makes four
+        assertEquals(StrokeAdmission.BOARD_FULL, assertThrows(InvalidStrokeException.class,
+                () -> admission.checkEraseQuota(board, List.of(first, second),
+                        List.of(left, right, stroke(100), stroke(100)))).getCode());
+    }
+
+    @Test
+    void refusesErasesWhoseFragmentsOverfillTheBoardsBytes() {
+        BoardModel board = new BoardModel("board", BoardModel.DEFAULT_OP_BUFFER_SIZE);
+        StrokeModel stroke = stroke(0);
+        board.addStroke(stroke);
+        ReflectionTestUtils.setField(admission, "maxBoardBytes", board.getEstimatedBytes());
+
+        assertEquals(StrokeAdmission.BOARD_TOO_LARGE, assertThrows(InvalidStrokeException.class,
+                () -> admission.checkEraseQuota(board, List.of(stroke), List.of(stroke(0)))).getCode());
+        // Erasing whole strokes adds nothing
+        assertDoesNotThrow(() -> admission.checkEraseQuota(board, List.of(stroke), List.of()));
+    }
+
+    private static StrokeModel stroke(int x) {
+        return new StrokeModel("board", "alice", PackedPoints.of(new int[]{x, 0, x + 10, 0}, 2), "#000000", 2, "pen");
+    }
+}